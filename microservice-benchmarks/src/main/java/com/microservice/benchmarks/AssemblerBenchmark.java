@@ -0,0 +1,98 @@
+package com.microservice.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.microservice.usuario.microservice_usuario.assemblers.usuarioModelAssembler;
+import com.microservice.usuario.microservice_usuario.model.Usuario;
+import com.microservice.venta.assemblers.ventaModelAssembler;
+import com.microservice.venta.model.Venta;
+
+// Costo por entidad de armar una colección con links HATEOAS. Cada invocación simula una
+// petición nueva de FILAS elementos, así las plantillas por petición se pagan una vez por colección.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssemblerBenchmark {
+
+    static final int FILAS = 1000;
+
+    private List<Venta> ventas;
+    private List<Usuario> usuarios;
+
+    private final VentaAssemblerMethodOn ventaMethodOn = new VentaAssemblerMethodOn();
+    private final ventaModelAssembler ventaPlantillas = new ventaModelAssembler();
+    private final UsuarioAssemblerMethodOn usuarioMethodOn = new UsuarioAssemblerMethodOn();
+    private final usuarioModelAssembler usuarioPlantillas = new usuarioModelAssembler();
+
+    @Setup
+    public void setUp() {
+        ventas = new ArrayList<>(FILAS);
+        usuarios = new ArrayList<>(FILAS);
+        for (int i = 1; i <= FILAS; i++) {
+            ventas.add(Venta.builder().id_venta(i).idUsuario(i % 97 + 1).nroBoleta(100000 + i)
+                    .fechaCompra(LocalDate.of(2025, 1, 1).plusDays(i % 365)).producto("Perfume " + i)
+                    .cantidad(1).total(19990).build());
+            usuarios.add(Usuario.builder().id_usuario(i).rut("1234567" + (i % 10) + "-9")
+                    .nombres("Nombre " + i).apellidos("Apellido " + i).correo("usuario" + i + "@mail.com").build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void ventaMethodOn(Blackhole bh) {
+        enPeticion(() -> ventas.forEach(venta -> bh.consume(ventaMethodOn.toModel(venta))));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void ventaPlantillas(Blackhole bh) {
+        enPeticion(() -> ventas.forEach(venta -> bh.consume(ventaPlantillas.toModel(venta))));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void usuarioMethodOn(Blackhole bh) {
+        enPeticion(() -> usuarios.forEach(usuario -> bh.consume(usuarioMethodOn.toModel(usuario))));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void usuarioPlantillas(Blackhole bh) {
+        enPeticion(() -> usuarios.forEach(usuario -> bh.consume(usuarioPlantillas.toModel(usuario))));
+    }
+
+    // Ejecuta la acción como dentro de una petición HTTP, para que los links tengan host y contexto
+    static void enPeticion(Runnable accion) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/ventas");
+        request.setServerName("api.perfulandia.cl");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            accion.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+}
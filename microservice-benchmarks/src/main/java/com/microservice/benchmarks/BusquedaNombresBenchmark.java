@@ -0,0 +1,84 @@
+package com.microservice.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
+import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
+
+// Latencia de GET /api/v2/usuarios/buscar sin HTTP: IndiceNombres con `usuarios` usuarios de nombres
+// combinados al azar (los nombres reales se repiten mucho, así que el vocabulario es chico).
+// Consultas: prefijo muy común, palabra con un error de tipeo y nombre + apellido.
+//   -Djmh.args="BusquedaNombresBenchmark -p usuarios=1000000 -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class BusquedaNombresBenchmark {
+
+    private static final String[] NOMBRES = { "María", "José", "Juan", "Ana", "Luis", "Carmen", "Pedro", "Sofía",
+            "Diego", "Camila", "Jorge", "Valentina", "Andrés", "Francisca", "Matías", "Josefa", "Tomás", "Martina",
+            "Benjamín", "Isidora", "Vicente", "Antonia", "Cristóbal", "Catalina", "Joaquín", "Fernanda" };
+    private static final String[] APELLIDOS = { "González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras",
+            "Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Fuentes", "Hernández", "Torres",
+            "Araya", "Flores", "Espinoza", "Valenzuela", "Castillo", "Tapia", "Reyes", "Gutiérrez", "Castro",
+            "Pizarro", "Álvarez", "Vásquez", "Sánchez", "Fernández", "Ramírez", "Carrasco", "Gómez", "Cortés",
+            "Herrera", "Núñez", "Jara", "Vergara", "Rivera", "Figueroa", "Riquelme", "García", "Miranda", "Bravo",
+            "Vera", "Molina", "Vega", "Campos", "Sandoval", "Orellana", "Peña", "Peñaloza", "Zúñiga", "Gallardo" };
+
+    @Param({ "100000", "1000000" })
+    public int usuarios;
+
+    @Param({ "ma", "sepulbeda", "jose pena" })
+    public String consulta;
+
+    private IndiceNombres indice;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<UsuarioView> vistas = new ArrayList<>(usuarios);
+        for (int i = 1; i <= usuarios; i++) {
+            vistas.add(new UsuarioView(i, "12345678-5",
+                    NOMBRES[random.nextInt(NOMBRES.length)] + " " + NOMBRES[random.nextInt(NOMBRES.length)],
+                    APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)],
+                    "usuario" + i + "@mail.com"));
+        }
+        UsuarioRepository repositorio = (UsuarioRepository) Proxy.newProxyInstance(UsuarioRepository.class.getClassLoader(),
+                new Class<?>[] { UsuarioRepository.class }, (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("findAllViews")) {
+                        return vistas;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+
+        indice = new IndiceNombres();
+        ReflectionTestUtils.setField(indice, "usuarioRepository", repositorio);
+        indice.construir();
+    }
+
+    @Benchmark
+    public List<UsuarioView> buscar() {
+        return indice.buscar(consulta, 20);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.microservice.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microservice.usuario.microservice_usuario.dto.UsuarioDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioMapper;
+import com.microservice.usuario.microservice_usuario.model.Usuario;
+import com.microservice.venta.dto.VentaDTO;
+import com.microservice.venta.dto.VentaMapper;
+import com.microservice.venta.model.Venta;
+
+// Copia DTO -> entidad y entidad -> DTO con VentaMapper y UsuarioMapper, los mismos métodos que usan
+// los controladores v1 y v2 al crear y actualizar.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopiaDtoBenchmark {
+
+    private final VentaDTO ventaDTO = VentaDTO.builder().id_usuario(7).nroBoleta(100001)
+            .fechaCompra(LocalDate.of(2025, 1, 1)).producto("Perfume").cantidad(2).total(39980).build();
+    private final Venta venta = Venta.builder().id_venta(1).idUsuario(7).nroBoleta(100001)
+            .fechaCompra(LocalDate.of(2025, 1, 1)).producto("Perfume").cantidad(2).total(39980).build();
+    private final UsuarioDTO usuarioDTO = UsuarioDTO.builder().rut("12345678-5").nombres("Juan")
+            .apellidos("Soto").correo("juan@mail.com").build();
+    private final Usuario usuario = Usuario.builder().id_usuario(1).rut("12345678-5").nombres("Juan")
+            .apellidos("Soto").correo("juan@mail.com").build();
+
+    @Benchmark
+    public Venta ventaDtoAEntidad() {
+        return VentaMapper.aEntidad(ventaDTO);
+    }
+
+    @Benchmark
+    public VentaDTO ventaEntidadADto() {
+        return VentaMapper.aDto(venta);
+    }
+
+    @Benchmark
+    public Usuario usuarioDtoAEntidad() {
+        return UsuarioMapper.aEntidad(usuarioDTO);
+    }
+
+    @Benchmark
+    public UsuarioDTO usuarioEntidadADto() {
+        return UsuarioMapper.aDto(usuario);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.microservice.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.microservice.comun.config.DataSourceLimitado;
+
+// Peticiones atendidas por el pool de Tomcat (200 hilos de plataforma, su máximo por defecto) o por un
+// hilo virtual cada una, con CLIENTES clientes concurrentes (hilos de JMH, se cambia con -t).
+// Una fracción de las peticiones usa una conexión del DataSourceLimitado (10, como Hikari por defecto)
+// durante latenciaBdMs; el resto se resuelve en memoria, como un acierto de caché. Con hilos de
+// plataforma esas peticiones rápidas esperan detrás de los hilos bloqueados en JDBC.
+// SampleTime informa p0.99 por petición; Throughput, peticiones por segundo.
+//   -Djmh.args="HilosBenchmark -t 2000 -p fraccionBd=0.1,0.5"
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = { "-Djdk.tracePinnedThreads=short" })
+@Threads(HilosBenchmark.CLIENTES)
+public class HilosBenchmark {
+
+    static final int CLIENTES = 1000;
+    static final int HILOS_TOMCAT = 200;
+    static final int CONEXIONES = 10;
+
+    @Param({ "plataforma", "virtual" })
+    public String modelo;
+
+    @Param({ "0.2" })
+    public double fraccionBd;
+
+    @Param({ "2" })
+    public long latenciaBdMs;
+
+    private ExecutorService servidor;
+    private DataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        servidor = modelo.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(HILOS_TOMCAT);
+        dataSource = new DataSourceLimitado(baseDeDatos(latenciaBdMs), CONEXIONES, TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        servidor.shutdownNow();
+        servidor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void peticion(Blackhole bh) throws Exception {
+        boolean usaBd = ThreadLocalRandom.current().nextDouble() < fraccionBd;
+        bh.consume(servidor.submit(() -> {
+            if (usaBd) {
+                try (Connection conexion = dataSource.getConnection()) {
+                    return conexion.isValid(0);
+                }
+            }
+            Blackhole.consumeCPU(500);
+            return true;
+        }).get());
+    }
+
+    // Conexiones falsas: cada consulta (isValid) bloquea el hilo lo que tardaría el viaje a MySQL
+    private static DataSource baseDeDatos(long latenciaMs) {
+        Connection conexion = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("isValid")) {
+                        Thread.sleep(latenciaMs);
+                        return true;
+                    }
+                    return null;
+                });
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] { DataSource.class }, (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("getConnection")) {
+                        return conexion;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.microservice.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microservice.usuario.microservice_usuario.validation.Rut;
+import com.microservice.usuario.microservice_usuario.validation.RutValido;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+// Rut.cuerpo contra el camino anterior: la expresión regular de @Pattern (que no revisa el dígito
+// verificador) y la normalización con replace/toUpperCase/regex que usaba la búsqueda por RUT.
+// Los dos últimos pasan por Bean Validation con un solo campo anotado con @Pattern o con @RutValido.
+//   -Djmh.args="RutBenchmark -prof gc"   (gc.alloc.rate.norm = bytes por operación)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RutBenchmark {
+
+    private static final Pattern FORMATO_ANTERIOR = Pattern.compile("^[0-9]{7,8}-[0-9Kk]$");
+    private static final Pattern FORMATO_NORMALIZADO = Pattern.compile("^[0-9]{7,8}-[0-9K]$");
+
+    // Misma validación que tenía UsuarioPatchDTO.rut
+    static class ConPattern {
+        @jakarta.validation.constraints.Pattern(regexp = "^[0-9]{7,8}-[0-9Kk]$")
+        String rut;
+    }
+
+    static class ConRutValido {
+        @RutValido
+        String rut;
+    }
+
+    @Param({ "12345678-5", "21.150.403-k" })
+    public String rut;
+
+    private ValidatorFactory fabrica;
+    private Validator validator;
+    private ConPattern conPattern;
+    private ConRutValido conRutValido;
+
+    @Setup
+    public void setUp() {
+        fabrica = Validation.buildDefaultValidatorFactory();
+        validator = fabrica.getValidator();
+        conPattern = new ConPattern();
+        conPattern.rut = rut;
+        conRutValido = new ConRutValido();
+        conRutValido.rut = rut;
+    }
+
+    @TearDown
+    public void tearDown() {
+        fabrica.close();
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return FORMATO_ANTERIOR.matcher(rut).matches();
+    }
+
+    // UsuarioService.normalizarRut antes de Rut
+    @Benchmark
+    public String regexNormalizar() {
+        String limpio = rut.replace(".", "").replace(" ", "").toUpperCase(Locale.ROOT);
+        if (limpio.indexOf('-') < 0 && limpio.length() > 1) {
+            limpio = limpio.substring(0, limpio.length() - 1) + "-" + limpio.charAt(limpio.length() - 1);
+        }
+        return FORMATO_NORMALIZADO.matcher(limpio).matches() ? limpio : null;
+    }
+
+    @Benchmark
+    public int rut() {
+        return Rut.cuerpo(rut);
+    }
+
+    @Benchmark
+    public int validacionPattern() {
+        return validator.validate(conPattern).size();
+    }
+
+    @Benchmark
+    public int validacionRutValido() {
+        return validator.validate(conRutValido).size();
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.microservice.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservice.venta.assemblers.ventaModelAssembler;
+import com.microservice.venta.model.Venta;
+
+// Serialización con Jackson de la respuesta de GET /api/v2/ventas (colección HAL de EntityModel<Venta>)
+// frente a la lista simple de v1. Se escribe a un OutputStream que descarta los bytes, así se mide
+// Jackson y no el crecimiento de un buffer. El ObjectMapper se configura como el de Spring Boot con HAL.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({ "20", "1000" })
+    public int filas;
+
+    private final OutputStream descarte = OutputStream.nullOutputStream();
+
+    private ObjectMapper objectMapper;
+    private List<Venta> ventas;
+    private CollectionModel<EntityModel<Venta>> ventasHal;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jackson2HalModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+
+        ventas = new ArrayList<>(filas);
+        for (int i = 1; i <= filas; i++) {
+            ventas.add(Venta.builder().id_venta(i).idUsuario(i % 97 + 1).nroBoleta(100000 + i)
+                    .fechaCompra(LocalDate.of(2025, 1, 1).plusDays(i % 365)).producto("Perfume " + i)
+                    .cantidad(1).total(19990).build());
+        }
+        ventaModelAssembler assembler = new ventaModelAssembler();
+        AssemblerBenchmark.enPeticion(() -> ventasHal = assembler.toCollectionModel(ventas));
+    }
+
+    @Benchmark
+    public void ventasHal() throws IOException {
+        objectMapper.writeValue(descarte, ventasHal);
+    }
+
+    @Benchmark
+    public void ventasLista() throws IOException {
+        objectMapper.writeValue(descarte, ventas);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.microservice.benchmarks;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import com.microservice.usuario.microservice_usuario.controller.UsuarioControllerV2;
+import com.microservice.usuario.microservice_usuario.model.Usuario;
+
+// usuarioModelAssembler tal como era antes de las plantillas por petición: un linkTo(methodOn(...)) por link y por usuario
+class UsuarioAssemblerMethodOn {
+
+    EntityModel<Usuario> toModel(Usuario usuario) {
+        return EntityModel.of(usuario,
+            linkTo(methodOn(UsuarioControllerV2.class).getUsuario(usuario.getId_usuario(), null)).withSelfRel(),
+            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios(null)).withRel("usuarios"),
+            Link.of("http://localhost:8080/api/v2/ventas/usuario/" + usuario.getId_usuario(), "ventas"),
+            linkTo(methodOn(UsuarioControllerV2.class).actualizarUsuario(usuario.getId_usuario(), null, null)).withRel("actualizar"),
+            linkTo(methodOn(UsuarioControllerV2.class).eliminarUsuario(usuario.getId_usuario(), null)).withRel("eliminar")
+        );
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.microservice.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microservice.usuario.microservice_usuario.dto.UsuarioDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+// Bean Validation de los cuerpos de POST y PATCH de usuarios, como @Valid en los controladores.
+// Con datos inválidos se suma armar el mensaje de cada violación.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean valido;
+
+    private ValidatorFactory fabrica;
+    private Validator validator;
+    private UsuarioDTO usuarioDTO;
+    private UsuarioPatchDTO usuarioPatchDTO;
+
+    @Setup
+    public void setUp() {
+        fabrica = Validation.buildDefaultValidatorFactory();
+        validator = fabrica.getValidator();
+        usuarioDTO = UsuarioDTO.builder().rut(valido ? "12.345.678-5" : "12.345.678-9").nombres("Juan")
+                .apellidos("Soto").correo("juan@mail.com").build();
+        usuarioPatchDTO = UsuarioPatchDTO.builder().rut(valido ? "12345678-5" : "12345678-9")
+                .nombres(valido ? "Juan" : "J").correo(valido ? "juan@mail.com" : "no-es-correo").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fabrica.close();
+    }
+
+    @Benchmark
+    public int usuarioDTO() {
+        return validator.validate(usuarioDTO).size();
+    }
+
+    @Benchmark
+    public int usuarioPatchDTO() {
+        return validator.validate(usuarioPatchDTO).size();
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.microservice.benchmarks;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import com.microservice.venta.controller.VentaControllerV2;
+import com.microservice.venta.model.Venta;
+
+// ventaModelAssembler tal como era antes de las plantillas por petición: un linkTo(methodOn(...)) por link y por venta
+class VentaAssemblerMethodOn {
+
+    EntityModel<Venta> toModel(Venta venta) {
+        return EntityModel.of(venta,
+            linkTo(methodOn(VentaControllerV2.class).getVentaById(venta.getId_venta(), null)).withSelfRel(),
+            linkTo(methodOn(VentaControllerV2.class).getVentasByUsuario(venta.getIdUsuario(), null, null, null, null)).withRel("ventas-del-usuario"),
+            linkTo(methodOn(VentaControllerV2.class).getAllVentas(null, null, null, null, null, null)).withRel("todas-las-ventas"),
+            Link.of("http://localhost:8080/api/v2/usuarios/" + venta.getIdUsuario(), "usuario"),
+            linkTo(methodOn(VentaControllerV2.class).actualizarVenta(venta.getId_venta(), null, null)).withRel("actualizar"),
+            linkTo(methodOn(VentaControllerV2.class).eliminarVenta(venta.getId_venta(), null)).withRel("eliminar")
+        );
+    }
+
+}
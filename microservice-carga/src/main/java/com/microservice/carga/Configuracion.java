@@ -0,0 +1,128 @@
+package com.microservice.carga;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Opciones de carga.properties con los clave=valor de la línea de comandos encima
+record Configuracion(
+        Path raiz,
+        Path salida,
+        URI gateway,
+        boolean levantarServicios,
+        double tasa,
+        boolean poisson,
+        Duration calentamiento,
+        Duration duracion,
+        Duration timeout,
+        int maximoEnCurso,
+        long semilla,
+        Map<Operacion, Integer> mezcla,
+        int usuarios,
+        int ventas) {
+
+    static Configuracion cargar(String[] args) {
+        Properties propiedades = new Properties();
+        try (InputStream entrada = Configuracion.class.getResourceAsStream("/carga.properties")) {
+            propiedades.load(entrada);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Se esperaba clave=valor: " + arg);
+            }
+            String clave = arg.substring(0, igual);
+            if (!clave.equals("raiz") && !clave.equals("salida") && !propiedades.containsKey(clave)) {
+                throw new IllegalArgumentException("Opción desconocida: " + clave);
+            }
+            propiedades.setProperty(clave, arg.substring(igual + 1));
+        }
+
+        String llegadas = propiedades.getProperty("llegadas");
+        if (!llegadas.equals("poisson") && !llegadas.equals("constante")) {
+            throw new IllegalArgumentException("llegadas debe ser poisson o constante: " + llegadas);
+        }
+        double tasa = Double.parseDouble(propiedades.getProperty("tasa"));
+        if (tasa <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser mayor que 0");
+        }
+        int usuarios = Integer.parseInt(propiedades.getProperty("usuarios"));
+        int ventas = Integer.parseInt(propiedades.getProperty("ventas"));
+        if (usuarios < 1 || ventas < 1) {
+            throw new IllegalArgumentException("Se necesita sembrar al menos un usuario y una venta");
+        }
+
+        Path raiz = Path.of(propiedades.getProperty("raiz", "..")).toAbsolutePath().normalize();
+        return new Configuracion(
+                raiz,
+                Path.of(propiedades.getProperty("salida", raiz.resolve("microservice-carga/target/carga").toString())),
+                URI.create(propiedades.getProperty("gateway")),
+                Boolean.parseBoolean(propiedades.getProperty("levantarServicios")),
+                tasa,
+                llegadas.equals("poisson"),
+                segundos(propiedades, "calentamiento"),
+                segundos(propiedades, "duracion"),
+                segundos(propiedades, "timeout"),
+                Integer.parseInt(propiedades.getProperty("maximoEnCurso")),
+                Long.parseLong(propiedades.getProperty("semilla")),
+                mezcla(propiedades.getProperty("mezcla")),
+                usuarios,
+                ventas);
+    }
+
+    // "v2-usuario:20,v2-crear-venta:10" -> {V2_USUARIO=20, V2_CREAR_VENTA=10}
+    static Map<Operacion, Integer> mezcla(String texto) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] claveYPeso = parte.trim().split(":");
+            if (claveYPeso.length != 2) {
+                throw new IllegalArgumentException("Se esperaba operacion:peso en la mezcla: " + parte);
+            }
+            int peso = Integer.parseInt(claveYPeso[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + parte);
+            }
+            if (peso > 0) {
+                pesos.merge(Operacion.porClave(claveYPeso[0].trim()), peso, Integer::sum);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones");
+        }
+        return pesos;
+    }
+
+    private static Duration segundos(Properties propiedades, String clave) {
+        return Duration.ofSeconds(Long.parseLong(propiedades.getProperty(clave)));
+    }
+
+    // Lo que se copia al informe para saber con qué se midió
+    Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("tasa", tasa);
+        resumen.put("llegadas", poisson ? "poisson" : "constante");
+        resumen.put("calentamientoSegundos", calentamiento.toSeconds());
+        resumen.put("duracionSegundos", duracion.toSeconds());
+        resumen.put("timeoutSegundos", timeout.toSeconds());
+        resumen.put("maximoEnCurso", maximoEnCurso);
+        resumen.put("semilla", semilla);
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        mezcla.forEach((operacion, peso) -> pesos.put(operacion.clave(), peso));
+        resumen.put("mezcla", pesos);
+        resumen.put("usuarios", usuarios);
+        resumen.put("ventas", ventas);
+        resumen.put("gateway", gateway.toString());
+        resumen.put("levantarServicios", levantarServicios);
+        return resumen;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.microservice.carga;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Ids sembrados que usan las lecturas y generadores de usuarios y ventas nuevos sin repetir RUT,
+// correo ni N° de boleta (los DataLoader usan cuerpos de RUT bajo 20.000.000 y boletas bajo 1.000.000)
+final class Datos {
+
+    static final String[] NOMBRES = { "María", "José", "Juan", "Ana", "Luis", "Carmen", "Pedro", "Sofía",
+            "Diego", "Camila", "Jorge", "Valentina", "Andrés", "Francisca", "Matías", "Josefa" };
+    static final String[] APELLIDOS = { "González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras",
+            "Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Fuentes", "Peña", "Zúñiga" };
+    static final String[] PRODUCTOS = { "Perfume Floral", "Perfume Cítrico", "Colonia Fresca", "Eau de Parfum",
+            "Body Mist", "Set de Regalo" };
+
+    private final AtomicInteger siguienteCuerpoRut = new AtomicInteger(40_000_000);
+    private final AtomicInteger siguienteBoleta = new AtomicInteger(5_000_000);
+
+    private int[] usuarios = new int[0];
+    private int[] ventas = new int[0];
+
+    void usuarios(int[] usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    void ventas(int[] ventas) {
+        this.ventas = ventas;
+    }
+
+    int cantidadUsuarios() {
+        return usuarios.length;
+    }
+
+    int usuarioAlAzar(SplittableRandom random) {
+        return usuarios[random.nextInt(usuarios.length)];
+    }
+
+    int ventaAlAzar(SplittableRandom random) {
+        return ventas[random.nextInt(ventas.length)];
+    }
+
+    // Un nombre o apellido, a veces solo el comienzo, como se escribe en un buscador
+    String terminoAlAzar(SplittableRandom random) {
+        String termino = random.nextBoolean()
+                ? NOMBRES[random.nextInt(NOMBRES.length)]
+                : APELLIDOS[random.nextInt(APELLIDOS.length)];
+        return random.nextInt(4) == 0 ? termino.substring(0, 3) : termino;
+    }
+
+    String nuevoUsuario(SplittableRandom random) {
+        int cuerpo = siguienteCuerpoRut.getAndIncrement();
+        return """
+                {"rut":"%d-%c","nombres":"%s %s","apellidos":"%s %s","correo":"carga%d@mail.com"}"""
+                .formatted(cuerpo, digitoVerificador(cuerpo),
+                        NOMBRES[random.nextInt(NOMBRES.length)], NOMBRES[random.nextInt(NOMBRES.length)],
+                        APELLIDOS[random.nextInt(APELLIDOS.length)], APELLIDOS[random.nextInt(APELLIDOS.length)],
+                        cuerpo);
+    }
+
+    String nuevaVenta(SplittableRandom random) {
+        int cantidad = 1 + random.nextInt(5);
+        return """
+                {"id_usuario":%d,"nroBoleta":%d,"fechaCompra":"%s","producto":"%s","cantidad":%d,"total":%d}"""
+                .formatted(usuarioAlAzar(random), siguienteBoleta.getAndIncrement(),
+                        LocalDate.now().minusDays(random.nextInt(365)),
+                        PRODUCTOS[random.nextInt(PRODUCTOS.length)], cantidad,
+                        cantidad * (5_000 + random.nextInt(60) * 500));
+    }
+
+    // Módulo 11, igual que Rut.digitoVerificador en msvc-usuario
+    static char digitoVerificador(int cuerpo) {
+        int suma = 0;
+        int factor = 2;
+        for (int resto = cuerpo; resto > 0; resto /= 10) {
+            suma += (resto % 10) * factor;
+            factor = factor == 7 ? 2 : factor + 1;
+        }
+        int digito = 11 - suma % 11;
+        return digito == 11 ? '0' : digito == 10 ? 'K' : (char) ('0' + digito);
+    }
+
+}
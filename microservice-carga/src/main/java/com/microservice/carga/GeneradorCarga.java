@@ -0,0 +1,138 @@
+package com.microservice.carga;
+
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Modelo abierto: cada llegada tiene una hora programada (tasa fija o proceso de Poisson) y se envía
+// a esa hora sin esperar las respuestas anteriores. La latencia se mide desde la hora programada, no
+// desde el envío, así que un atraso del generador (GC, CPU) cuenta como espera en vez de esconderse
+// (coordinated omission)
+final class GeneradorCarga {
+
+    private static final long MARGEN_ESPERA_ACTIVA = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Configuracion configuracion;
+    private final HttpClient cliente;
+    private final Datos datos;
+    private final Operacion[] sorteo;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private long atrasoMaximo;
+
+    GeneradorCarga(Configuracion configuracion, HttpClient cliente, Datos datos) {
+        this.configuracion = configuracion;
+        this.cliente = cliente;
+        this.datos = datos;
+        this.sorteo = sorteo(configuracion.mezcla());
+    }
+
+    // Devuelve solo lo medido después del calentamiento
+    Map<Operacion, Registro> ejecutar() throws InterruptedException {
+        Map<Operacion, Registro> calentamiento = registros();
+        Map<Operacion, Registro> medicion = registros();
+        SplittableRandom random = new SplittableRandom(configuracion.semilla());
+        double intervaloMedio = TimeUnit.SECONDS.toNanos(1) / configuracion.tasa();
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        double programada = inicio;
+
+        while (programada < fin) {
+            long hora = (long) programada;
+            esperarHasta(hora);
+            atrasoMaximo = Math.max(atrasoMaximo, System.nanoTime() - hora);
+            Operacion operacion = sorteo[random.nextInt(sorteo.length)];
+            Registro registro = (hora < inicioMedicion ? calentamiento : medicion).get(operacion);
+            enviar(operacion, registro, hora, random);
+
+            programada += configuracion.poisson()
+                    ? -Math.log(1.0 - random.nextDouble()) * intervaloMedio
+                    : intervaloMedio;
+        }
+
+        long limite = System.nanoTime() + configuracion.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (enCurso.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        return medicion;
+    }
+
+    // Mayor atraso del generador respecto de la hora programada; si se acerca a la latencia medida,
+    // el cuello de botella es el equipo que genera la carga y no los servicios
+    long atrasoMaximoNanos() {
+        return atrasoMaximo;
+    }
+
+    private void enviar(Operacion operacion, Registro registro, long hora, SplittableRandom random) {
+        registro.enviada();
+        if (enCurso.get() >= configuracion.maximoEnCurso()) {
+            registro.error("saturado");
+            return;
+        }
+        enCurso.incrementAndGet();
+        cliente.sendAsync(operacion.peticion(configuracion.gateway(), datos, random)
+                        .timeout(configuracion.timeout())
+                        .build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((respuesta, error) -> {
+                    long latencia = System.nanoTime() - hora;
+                    if (error == null) {
+                        registro.respuesta(respuesta.statusCode(), latencia);
+                    } else {
+                        registro.error(causa(error));
+                    }
+                    enCurso.decrementAndGet();
+                });
+    }
+
+    private static void esperarHasta(long hora) {
+        long restante;
+        while ((restante = hora - System.nanoTime()) > 0) {
+            if (restante > MARGEN_ESPERA_ACTIVA) {
+                LockSupport.parkNanos(restante - MARGEN_ESPERA_ACTIVA);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static String causa(Throwable error) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (causa instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        if (causa instanceof ConnectException) {
+            return "conexion";
+        }
+        return causa.getClass().getSimpleName();
+    }
+
+    private static Map<Operacion, Registro> registros() {
+        Map<Operacion, Registro> registros = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            registros.put(operacion, new Registro());
+        }
+        return registros;
+    }
+
+    // Cada operación aparece tantas veces como su peso: sortear un índice respeta la mezcla
+    private static Operacion[] sorteo(Map<Operacion, Integer> mezcla) {
+        Operacion[] sorteo = new Operacion[mezcla.values().stream().mapToInt(Integer::intValue).sum()];
+        int i = 0;
+        for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+            for (int n = 0; n < entrada.getValue(); n++) {
+                sorteo[i++] = entrada.getKey();
+            }
+        }
+        return sorteo;
+    }
+
+}
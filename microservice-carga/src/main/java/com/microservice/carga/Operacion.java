@@ -0,0 +1,106 @@
+package com.microservice.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+// Peticiones que genera la prueba. La clave se usa en la mezcla de carga.properties y la ruta agrupa
+// los resultados en el informe (con {id} en vez del valor, para que no haya una entrada por id)
+enum Operacion {
+
+    V1_USUARIO("v1-usuario", "GET /api/v1/usuarios/{id}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v1/usuarios/" + datos.usuarioAlAzar(random));
+        }
+    },
+    V2_USUARIO("v2-usuario", "GET /api/v2/usuarios/{id}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v2/usuarios/" + datos.usuarioAlAzar(random));
+        }
+    },
+    V2_USUARIO_BUSCAR("v2-usuario-buscar", "GET /api/v2/usuarios/buscar?q={nombre}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v2/usuarios/buscar?q="
+                    + URLEncoder.encode(datos.terminoAlAzar(random), StandardCharsets.UTF_8));
+        }
+    },
+    V1_CREAR_USUARIO("v1-crear-usuario", "POST /api/v1/usuarios") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return post(gateway, "/api/v1/usuarios", datos.nuevoUsuario(random));
+        }
+    },
+    V1_VENTA("v1-venta", "GET /api/v1/ventas/{id}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v1/ventas/" + datos.ventaAlAzar(random));
+        }
+    },
+    V2_VENTA("v2-venta", "GET /api/v2/ventas/{id}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v2/ventas/" + datos.ventaAlAzar(random));
+        }
+    },
+    V2_VENTAS("v2-ventas", "GET /api/v2/ventas?size=20") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v2/ventas?size=20");
+        }
+    },
+    V2_VENTAS_USUARIO("v2-ventas-usuario", "GET /api/v2/ventas/usuario/{id}") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return get(gateway, "/api/v2/ventas/usuario/" + datos.usuarioAlAzar(random));
+        }
+    },
+    V2_CREAR_VENTA("v2-crear-venta", "POST /api/v2/ventas") {
+        @Override
+        HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random) {
+            return post(gateway, "/api/v2/ventas", datos.nuevaVenta(random));
+        }
+    };
+
+    private final String clave;
+    private final String ruta;
+
+    Operacion(String clave, String ruta) {
+        this.clave = clave;
+        this.ruta = ruta;
+    }
+
+    String clave() {
+        return clave;
+    }
+
+    String ruta() {
+        return ruta;
+    }
+
+    abstract HttpRequest.Builder peticion(URI gateway, Datos datos, SplittableRandom random);
+
+    static Operacion porClave(String clave) {
+        for (Operacion operacion : values()) {
+            if (operacion.clave.equals(clave)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida en la mezcla: " + clave);
+    }
+
+    private static HttpRequest.Builder get(URI gateway, String ruta) {
+        return HttpRequest.newBuilder(gateway.resolve(ruta)).GET();
+    }
+
+    private static HttpRequest.Builder post(URI gateway, String ruta, String json) {
+        return HttpRequest.newBuilder(gateway.resolve(ruta))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+}
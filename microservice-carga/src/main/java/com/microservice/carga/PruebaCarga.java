@@ -0,0 +1,153 @@
+package com.microservice.carga;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Prueba de carga de punta a punta: levanta los servicios, siembra usuarios y ventas a través del
+// gateway, genera la mezcla de carga.properties y deja el informe en <salida>/resultado.json
+public class PruebaCarga {
+
+    private static final int USUARIOS_EN_PARALELO = 16;
+    private static final int VENTAS_POR_LOTE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Configuracion configuracion = Configuracion.cargar(args);
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ObjectMapper mapper = new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+        try (Servicios servicios = configuracion.levantarServicios()
+                ? Servicios.levantar(configuracion.raiz(), configuracion.salida().resolve("logs"), cliente)
+                : Servicios.ninguno()) {
+
+            Datos datos = new Datos();
+            SplittableRandom random = new SplittableRandom(configuracion.semilla());
+            datos.usuarios(sembrarUsuarios(configuracion, cliente, mapper, datos, random));
+            datos.ventas(sembrarVentas(configuracion, cliente, mapper, datos, random));
+
+            System.out.printf("Generando %.0f peticiones por segundo durante %d s (+%d s de calentamiento)%n",
+                    configuracion.tasa(), configuracion.duracion().toSeconds(), configuracion.calentamiento().toSeconds());
+            GeneradorCarga generador = new GeneradorCarga(configuracion, cliente, datos);
+            Map<Operacion, Registro> registros = generador.ejecutar();
+
+            Path resultado = configuracion.salida().resolve("resultado.json");
+            Files.createDirectories(configuracion.salida());
+            Map<String, Object> informe = informe(configuracion, registros, generador.atrasoMaximoNanos());
+            mapper.writeValue(resultado.toFile(), informe);
+            imprimir(informe);
+            System.out.println("Resultado en " + resultado);
+        }
+    }
+
+    private static int[] sembrarUsuarios(Configuracion configuracion, HttpClient cliente, ObjectMapper mapper,
+            Datos datos, SplittableRandom random) throws IOException {
+        List<Integer> ids = new ArrayList<>(configuracion.usuarios());
+        for (int desde = 0; desde < configuracion.usuarios(); desde += USUARIOS_EN_PARALELO) {
+            List<CompletableFuture<HttpResponse<String>>> respuestas = new ArrayList<>();
+            for (int i = desde; i < Math.min(desde + USUARIOS_EN_PARALELO, configuracion.usuarios()); i++) {
+                HttpRequest peticion = Operacion.V1_CREAR_USUARIO.peticion(configuracion.gateway(), datos, random).build();
+                respuestas.add(cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> respuesta : respuestas) {
+                ids.add(mapper.readTree(verificar(respuesta.join(), "crear usuario")).get("id_usuario").asInt());
+            }
+        }
+        System.out.println("Usuarios sembrados: " + ids.size());
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Por /api/v2/ventas/batch: las ventas necesitan los ids de los usuarios sembrados
+    private static int[] sembrarVentas(Configuracion configuracion, HttpClient cliente, ObjectMapper mapper,
+            Datos datos, SplittableRandom random) throws IOException, InterruptedException {
+        List<Integer> ids = new ArrayList<>(configuracion.ventas());
+        for (int desde = 0; desde < configuracion.ventas(); desde += VENTAS_POR_LOTE) {
+            List<String> lote = new ArrayList<>();
+            for (int i = desde; i < Math.min(desde + VENTAS_POR_LOTE, configuracion.ventas()); i++) {
+                lote.add(datos.nuevaVenta(random));
+            }
+            HttpRequest peticion = HttpRequest.newBuilder(configuracion.gateway().resolve("/api/v2/ventas/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("[" + String.join(",", lote) + "]"))
+                    .build();
+            HttpResponse<String> respuesta = cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString()).join();
+            // /api/v2/ventas/batch tiene límite de peticiones en el gateway (LimitadorTokens)
+            while (respuesta.statusCode() == 429) {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(respuesta.headers().firstValueAsLong("Retry-After").orElse(1)));
+                respuesta = cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString()).join();
+            }
+            for (JsonNode resultado : mapper.readTree(verificar(respuesta, "crear ventas en lote")).get("resultados")) {
+                if (resultado.hasNonNull("id_venta")) {
+                    ids.add(resultado.get("id_venta").asInt());
+                }
+            }
+        }
+        System.out.println("Ventas sembradas: " + ids.size());
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String verificar(HttpResponse<String> respuesta, String accion) {
+        if (respuesta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("No se pudo " + accion + " al sembrar datos: HTTP "
+                    + respuesta.statusCode() + " " + respuesta.body());
+        }
+        return respuesta.body();
+    }
+
+    private static Map<String, Object> informe(Configuracion configuracion, Map<Operacion, Registro> registros,
+            long atrasoMaximoNanos) {
+        double segundos = configuracion.duracion().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram total = new Histogram(3);
+        Map<String, Object> rutas = new TreeMap<>();
+        for (Operacion operacion : configuracion.mezcla().keySet()) {
+            rutas.put(operacion.ruta(), registros.get(operacion).informe(segundos, total));
+        }
+
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("fecha", OffsetDateTime.now().toString());
+        informe.put("java", Runtime.version().toString());
+        informe.put("procesadores", Runtime.getRuntime().availableProcessors());
+        informe.put("configuracion", configuracion.resumen());
+        informe.put("atrasoMaximoGeneradorMs", atrasoMaximoNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        informe.put("total", Registro.resumen(total, segundos));
+        informe.put("rutas", rutas);
+        return informe;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void imprimir(Map<String, Object> informe) {
+        System.out.printf("%-42s %9s %9s %9s %9s %9s %9s%n", "ruta", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "errores");
+        Map<String, Object> rutas = (Map<String, Object>) informe.get("rutas");
+        rutas.forEach((ruta, datos) -> {
+            Map<String, Object> resultado = (Map<String, Object>) datos;
+            Map<String, Object> latencia = (Map<String, Object>) resultado.get("latenciaMs");
+            long errores = ((Map<String, Long>) resultado.get("errores")).values().stream().mapToLong(Long::longValue).sum();
+            System.out.printf("%-42s %9s %9s %9s %9s %9s %9d%n", ruta, resultado.get("rendimientoPorSegundo"),
+                    latencia.get("p50"), latencia.get("p90"), latencia.get("p99"), latencia.get("p99_9"), errores);
+        });
+    }
+
+}
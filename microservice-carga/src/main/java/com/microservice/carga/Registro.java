@@ -0,0 +1,82 @@
+package com.microservice.carga;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Resultados de una ruta. Las respuestas van al histograma sea cual sea su estado (un 404 o un 409
+// también tardan), los códigos distintos de 2xx y las peticiones sin respuesta se cuentan como errores
+final class Registro {
+
+    private static final double NANOS_POR_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Recorder latencias = new Recorder(3);
+    private final LongAdder enviadas = new LongAdder();
+    private final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+
+    void enviada() {
+        enviadas.increment();
+    }
+
+    void respuesta(int estado, long latenciaNanos) {
+        latencias.recordValue(latenciaNanos);
+        if (estado < 200 || estado >= 300) {
+            error(String.valueOf(estado));
+        }
+    }
+
+    void error(String causa) {
+        errores.computeIfAbsent(causa, c -> new LongAdder()).increment();
+    }
+
+    // Se llama una vez, cuando ya no quedan peticiones en curso
+    Map<String, Object> informe(double segundos, Histogram total) {
+        Histogram histograma = latencias.getIntervalHistogram();
+        total.add(histograma);
+        Map<String, Object> informe = resumen(histograma, segundos);
+        informe.put("enviadas", enviadas.sum());
+        Map<String, Long> porCausa = new TreeMap<>();
+        errores.forEach((causa, cantidad) -> porCausa.put(causa, cantidad.sum()));
+        informe.put("errores", porCausa);
+        return informe;
+    }
+
+    static Map<String, Object> resumen(Histogram histograma, double segundos) {
+        Map<String, Object> resumen = new TreeMap<>();
+        resumen.put("respuestas", histograma.getTotalCount());
+        resumen.put("rendimientoPorSegundo", redondear(histograma.getTotalCount() / segundos));
+
+        Map<String, Object> latencia = new TreeMap<>();
+        latencia.put("media", redondear(histograma.getMean() / NANOS_POR_MS));
+        latencia.put("p50", ms(histograma, 50));
+        latencia.put("p90", ms(histograma, 90));
+        latencia.put("p99", ms(histograma, 99));
+        latencia.put("p99_9", ms(histograma, 99.9));
+        latencia.put("max", redondear(histograma.getMaxValue() / NANOS_POR_MS));
+        resumen.put("latenciaMs", latencia);
+
+        // Histograma completo (formato comprimido de HdrHistogram en base64), para recalcular
+        // cualquier percentil o sumar corridas con Histogram.decodeFromCompressedByteBuffer
+        ByteBuffer buffer = ByteBuffer.allocate(histograma.getNeededByteBufferCapacity());
+        int largo = histograma.encodeIntoCompressedByteBuffer(buffer);
+        resumen.put("histograma", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), largo)));
+        return resumen;
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return redondear(histograma.getValueAtPercentile(percentil) / NANOS_POR_MS);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 1000) / 1000.0;
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.microservice.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.h2.tools.Server;
+
+// Levanta los servicios como procesos aparte, cada uno desde el jar que dejó su módulo en target, en el
+// mismo orden en que se inician a mano: config, eureka, usuario (crea la tabla usuario que lee el
+// DataLoader de venta), venta y gateway. Usuario y venta corren con el perfil carga del config server,
+// que los apunta a una base H2 en memoria servida por TCP desde este proceso
+final class Servicios implements AutoCloseable {
+
+    static final String BASE_DE_DATOS = "jdbc:h2:mem:perfulandia;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final int PUERTO_BASE_DE_DATOS = 9092;
+
+    // Lanzador de Spring Boot que acepta jars extra (loader.path): así usuario y venta cargan el driver
+    // de H2 sin tenerlo entre sus dependencias
+    private static final String LANZADOR = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(3);
+
+    private final Path raiz;
+    private final Path logs;
+    private final HttpClient cliente;
+    private final List<Process> procesos = new ArrayList<>();
+    private Server servidorBaseDeDatos;
+    private Connection baseDeDatos;
+
+    private Servicios(Path raiz, Path logs, HttpClient cliente) {
+        this.raiz = raiz;
+        this.logs = logs;
+        this.cliente = cliente;
+    }
+
+    // Para medir un entorno que ya está corriendo
+    static Servicios ninguno() {
+        return new Servicios(null, null, null);
+    }
+
+    static Servicios levantar(Path raiz, Path logs, HttpClient cliente) throws IOException, InterruptedException {
+        Files.createDirectories(logs);
+        Servicios servicios = new Servicios(raiz, logs, cliente);
+        Runtime.getRuntime().addShutdownHook(new Thread(servicios::close));
+        try {
+            servicios.iniciarBaseDeDatos();
+            servicios.iniciar("microservice-config", 8888, false);
+            servicios.iniciar("microservice-eureka", 8761, false);
+            servicios.iniciar("microservice-usuario", 8090, true);
+            servicios.iniciar("microservice-venta", 9090, true);
+            servicios.iniciar("microservice-gateway", 8080, false);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            servicios.close();
+            throw e;
+        }
+        return servicios;
+    }
+
+    private void iniciarBaseDeDatos() {
+        try {
+            // La conexión abierta mantiene viva la base en memoria; los servicios la abren por TCP
+            baseDeDatos = DriverManager.getConnection(BASE_DE_DATOS, "sa", "");
+            servidorBaseDeDatos = Server.createTcpServer("-tcpPort", String.valueOf(PUERTO_BASE_DE_DATOS)).start();
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo iniciar H2 en el puerto " + PUERTO_BASE_DE_DATOS, e);
+        }
+    }
+
+    private void iniciar(String modulo, int puerto, boolean conBaseDeDatos) throws IOException, InterruptedException {
+        Path jar = jar(modulo);
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (conBaseDeDatos) {
+            comando.add("-Dloader.path=" + jarDe(org.h2.Driver.class));
+            comando.add("-cp");
+            comando.add(jar.toString());
+            comando.add(LANZADOR);
+            comando.add("--spring.profiles.active=carga");
+        } else {
+            comando.add("-jar");
+            comando.add(jar.toString());
+        }
+        // /actuator/health/readiness responde 200 recién después de los CommandLineRunner (DataLoader)
+        comando.add("--management.endpoint.health.probes.enabled=true");
+
+        Path log = logs.resolve(modulo + ".log");
+        System.out.println("Iniciando " + modulo + " (" + log + ")");
+        Process proceso = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        procesos.add(proceso);
+        esperarListo(modulo, puerto, proceso, log);
+    }
+
+    private void esperarListo(String modulo, int puerto, Process proceso, Path log) throws InterruptedException {
+        HttpRequest listo = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException(modulo + " terminó al iniciar, ver " + log);
+            }
+            try {
+                if (cliente.send(listo, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha en el puerto
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(modulo + " no estuvo listo en " + ESPERA_MAXIMA.toMinutes() + " minutos, ver " + log);
+    }
+
+    // El jar ejecutable de cada módulo: <artifactId>-<version>-exec.jar en usuario y venta (el jar sin
+    // clasificador lo usan los benchmarks como dependencia) y <artifactId>-<version>.jar en los demás
+    private Path jar(String modulo) throws IOException {
+        Path target = raiz.resolve(modulo).resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IllegalStateException("No existe " + target + "; construir con mvn -P carga -pl microservice-carga -am verify");
+        }
+        try (Stream<Path> archivos = Files.list(target)) {
+            List<Path> jars = archivos
+                    .filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(modulo + "-") && nombre.endsWith(".jar") && !nombre.endsWith("-sources.jar");
+                    })
+                    .toList();
+            return jars.stream()
+                    .filter(archivo -> archivo.getFileName().toString().endsWith("-exec.jar"))
+                    .findFirst()
+                    .or(() -> jars.stream().findFirst())
+                    .orElseThrow(() -> new IllegalStateException("No hay jar de " + modulo + " en " + target));
+        }
+    }
+
+    private static Path jarDe(Class<?> clase) {
+        try {
+            return Path.of(clase.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException("No se encontró el jar de " + clase.getName(), e);
+        }
+    }
+
+    // En orden inverso, para que los servicios no queden sin config server ni base mientras se detienen
+    @Override
+    public synchronized void close() {
+        for (int i = procesos.size() - 1; i >= 0; i--) {
+            Process proceso = procesos.get(i);
+            proceso.destroy();
+            try {
+                if (!proceso.waitFor(20, TimeUnit.SECONDS)) {
+                    proceso.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                proceso.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        procesos.clear();
+        if (servidorBaseDeDatos != null) {
+            servidorBaseDeDatos.stop();
+            servidorBaseDeDatos = null;
+        }
+        if (baseDeDatos != null) {
+            try {
+                baseDeDatos.close();
+            } catch (SQLException e) {
+                // La base en memoria se descarta igual al terminar el proceso
+            }
+            baseDeDatos = null;
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.microservice.comun.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// Limita cuántas conexiones JDBC pueden estar en uso a la vez. Con hilos virtuales cada petición
+// tiene su propio hilo y miles pueden pedir conexión al mismo tiempo: el semáforo (FIFO) las hace
+// esperar en orden fuera del pool, y si la espera supera el máximo falla como lo haría Hikari.
+// El permiso se devuelve al cerrar la conexión.
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+
+    public DataSourceLimitado(DataSource dataSource, int maximoConexiones, long esperaMaximaMs) {
+        super(dataSource);
+        this.permisos = new Semaphore(maximoConexiones, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        esperarPermiso();
+        return conPermiso(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        esperarPermiso();
+        return conPermiso(() -> super.getConnection(username, password));
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int getHilosEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    private void esperarPermiso() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "No hubo una conexión disponible en " + esperaMaximaMs + " ms (" + permisos.getQueueLength() + " en espera)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexión", e);
+        }
+    }
+
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+
+    private Connection conPermiso(Apertura apertura) throws SQLException {
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+        AtomicBoolean devuelto = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, metodo, args) -> {
+                    if (metodo.getName().equals("close")) {
+                        if (devuelto.compareAndSet(false, true)) {
+                            try {
+                                conexion.close();
+                            } finally {
+                                permisos.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.microservice.comun.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Ajustes para spring.threads.virtual.enabled=true, cuando Tomcat atiende cada petición en un hilo
+// virtual. Un hilo virtual que se bloquea dentro de un synchronized retiene su hilo portador, así que:
+//  - las conexiones se limitan con DataSourceLimitado, para que miles de peticiones esperen en un
+//    semáforo y no dentro de Hikari;
+//  - la caché pasa a modo asíncrono: una búsqueda que no está en caché consulta la base de datos en
+//    otro hilo virtual, fuera del bloqueo que Caffeine toma mientras carga la clave.
+// Es una auto-configuración: la toman msvc-usuario y msvc-venta por depender de este módulo.
+@AutoConfiguration(before = CacheAutoConfiguration.class)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+
+    @Bean
+    public static BeanPostProcessor limiteDeConexiones() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new DataSourceLimitado(hikari, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> cacheAsincrona(ObjectProvider<CacheProperties> cacheProperties) {
+        return cacheManager -> {
+            SimpleAsyncTaskExecutor cargas = new SimpleAsyncTaskExecutor("cache-");
+            cargas.setVirtualThreads(true);
+
+            String spec = cacheProperties.getObject().getCaffeine().getSpec();
+            Caffeine<Object, Object> caffeine = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+            cacheManager.setCaffeine(caffeine.executor(cargas));
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+
+}
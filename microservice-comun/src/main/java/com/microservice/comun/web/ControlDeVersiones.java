@@ -0,0 +1,47 @@
+package com.microservice.comun.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// ETag e If-Match de los controladores v2: el ETag de un recurso es su versión entre comillas.
+// Cada controlador crea una instancia con los mensajes de su recurso.
+public class ControlDeVersiones {
+
+    private final String versionDistinta;
+    private final String modificadoPorOtraPeticion;
+
+    // versionDistinta: respuesta 412 cuando If-Match no coincide;
+    // modificadoPorOtraPeticion: respuesta 409 cuando cambió sin que se enviara If-Match
+    public ControlDeVersiones(String versionDistinta, String modificadoPorOtraPeticion) {
+        this.versionDistinta = versionDistinta;
+        this.modificadoPorOtraPeticion = modificadoPorOtraPeticion;
+    }
+
+    public static String etag(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    // Versión pedida en If-Match; null si no se envió o es "*". Un ETag débil o que no es
+    // una versión nunca coincide (If-Match usa comparación fuerte).
+    public Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            try {
+                return Long.parseLong(valor.substring(1, valor.length() - 1));
+            } catch (NumberFormatException e) {
+                // se responde 412 igual que con una versión distinta
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, versionDistinta);
+    }
+
+    public ResponseStatusException conflictoDeVersion(String ifMatch) {
+        return ifMatch == null
+            ? new ResponseStatusException(HttpStatus.CONFLICT, modificadoPorOtraPeticion)
+            : new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, versionDistinta);
+    }
+
+}
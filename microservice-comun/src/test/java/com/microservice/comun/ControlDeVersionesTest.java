@@ -0,0 +1,38 @@
+package com.microservice.comun;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.microservice.comun.web.ControlDeVersiones;
+
+public class ControlDeVersionesTest {
+
+    private final ControlDeVersiones versiones = new ControlDeVersiones("Versión distinta", "Modificado");
+
+    @Test
+    void testVersionEsperada_SinIfMatchOAsterisco() {
+        assertNull(versiones.versionEsperada(null));
+        assertNull(versiones.versionEsperada(" * "));
+        assertEquals(3L, versiones.versionEsperada("\"3\""));
+        assertEquals("\"3\"", ControlDeVersiones.etag(3L));
+    }
+
+    @Test
+    void testVersionEsperada_EtagDebilNoCoincide() {
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> versiones.versionEsperada("W/\"3\""));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, error.getStatusCode());
+        assertEquals("Versión distinta", error.getReason());
+    }
+
+    @Test
+    void testConflictoDeVersion_SinIfMatchEsConflicto() {
+        assertEquals(HttpStatus.CONFLICT, versiones.conflictoDeVersion(null).getStatusCode());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, versiones.conflictoDeVersion("\"3\"").getStatusCode());
+    }
+
+}
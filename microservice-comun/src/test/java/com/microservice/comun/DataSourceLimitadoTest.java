@@ -0,0 +1,63 @@
+package com.microservice.comun;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+
+import com.microservice.comun.config.DataSourceLimitado;
+
+@ExtendWith(MockitoExtension.class)
+public class DataSourceLimitadoTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Test
+    void testGetConnection_SinPermisosFallaTrasLaEspera() throws SQLException {
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        DataSourceLimitado dataSource = new DataSourceLimitado(pool, 1, 10);
+
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void testClose_DevuelveElPermisoUnaSolaVez() throws SQLException {
+        Connection conexion = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(conexion);
+        DataSourceLimitado dataSource = new DataSourceLimitado(pool, 2, 10);
+
+        Connection abierta = dataSource.getConnection();
+        abierta.close();
+        abierta.close();
+
+        assertEquals(2, dataSource.getPermisosDisponibles());
+        verify(conexion, times(1)).close();
+    }
+
+    @Test
+    void testGetConnection_ErrorDelPoolDevuelveElPermiso() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("sin conexión"));
+        DataSourceLimitado dataSource = new DataSourceLimitado(pool, 1, 10);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.getPermisosDisponibles());
+    }
+
+}
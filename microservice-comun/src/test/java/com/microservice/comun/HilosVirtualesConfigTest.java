@@ -0,0 +1,69 @@
+package com.microservice.comun;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.microservice.comun.config.DataSourceLimitado;
+import com.microservice.comun.config.HilosVirtualesConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class HilosVirtualesConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(HilosVirtualesConfig.class, CacheAutoConfiguration.class))
+            .withUserConfiguration(ServicioConCache.class)
+            .withPropertyValues("spring.cache.type=caffeine", "spring.cache.cache-names=usuarios",
+                    "spring.cache.caffeine.spec=maximumSize=10");
+
+    // spring.threads.virtual.enabled solo tiene efecto desde Java 21
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testHilosVirtuales_LimitaConexionesYUsaCacheAsincrona() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isInstanceOf(DataSourceLimitado.class);
+            assertThat(((DataSourceLimitado) dataSource).getTargetDataSource()).isInstanceOf(HikariDataSource.class);
+            assertThat(((DataSourceLimitado) dataSource).getPermisosDisponibles()).isEqualTo(4);
+
+            CaffeineCache usuarios = (CaffeineCache) context.getBean(CacheManager.class).getCache("usuarios");
+            assertThat(context.getBean(CacheManager.class)).isInstanceOf(CaffeineCacheManager.class);
+            assertThat(usuarios.getAsyncCache()).isNotNull();
+            assertThat(usuarios.getNativeCache().policy().eviction().orElseThrow().getMaximum()).isEqualTo(10);
+        });
+    }
+
+    @Test
+    void testSinHilosVirtuales_NoCambiaNada() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(HilosVirtualesConfig.class);
+            assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableCaching
+    static class ServicioConCache {
+
+        // Hikari no abre conexiones hasta que se pide la primera
+        @Bean
+        HikariDataSource dataSource() {
+            HikariDataSource hikari = new HikariDataSource();
+            hikari.setMaximumPoolSize(4);
+            return hikari;
+        }
+    }
+
+}
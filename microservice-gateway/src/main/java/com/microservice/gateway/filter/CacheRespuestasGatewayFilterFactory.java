@@ -0,0 +1,352 @@
+package com.microservice.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Caché en memoria de las respuestas GET de una ruta, para servir las lecturas repetidas sin ir al
+// servicio. En msvc-gateway.yml:  - CacheRespuestas=<ttl>[,<grupo>]
+//   ttl:   tiempo máximo que se guarda una respuesta (0s: la ruta no guarda, solo invalida)
+//   grupo: rutas que se invalidan juntas, por defecto el id de la ruta. Un POST/PUT/PATCH/DELETE que
+//          pasa por cualquier ruta del grupo descarta lo guardado de todas
+// La invalidación es local: escrituras que no pasan por este gateway (otra instancia, acceso directo al
+// servicio, ventas diferidas que se guardan después) se ven recién cuando vence el ttl
+@Component
+public class CacheRespuestasGatewayFilterFactory extends AbstractGatewayFilterFactory<CacheRespuestasGatewayFilterFactory.Config> {
+
+    public static final String CABECERA_CACHE = "X-Cache";
+
+    // Total de la caché y máximo por respuesta; las más grandes (listados largos) pasan sin guardarse
+    static final long MAXIMO_BYTES = 64L * 1024 * 1024;
+    static final int MAXIMO_BYTES_RESPUESTA = 1024 * 1024;
+
+    // Cabeceras de la petición que cambian la respuesta y por eso forman parte de la clave
+    private static final List<String> CABECERAS_CLAVE = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ORIGIN);
+    // Una respuesta con Vary sobre otra cabecera no se guarda, porque la clave no la distingue
+    private static final Set<String> VARY_ADMITIDOS = Set.of("accept", "accept-encoding", "origin",
+            "access-control-request-method", "access-control-request-headers");
+    private static final Set<String> CABECERAS_NO_GUARDADAS = Set.of(HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.AGE, CABECERA_CACHE);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Cache<Clave, Respuesta> respuestas = Caffeine.newBuilder()
+            .maximumWeight(MAXIMO_BYTES)
+            .weigher((Clave clave, Respuesta respuesta) -> respuesta.cuerpo().length + clave.peso())
+            .expireAfter(new Expiry<Clave, Respuesta>() {
+                @Override
+                public long expireAfterCreate(Clave clave, Respuesta respuesta, long ahora) {
+                    return respuesta.ttlNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(Clave clave, Respuesta respuesta, long ahora, long restante) {
+                    return respuesta.ttlNanos();
+                }
+
+                @Override
+                public long expireAfterRead(Clave clave, Respuesta respuesta, long ahora, long restante) {
+                    return restante;
+                }
+            })
+            .recordStats()
+            .build();
+
+    // Cada escritura avanza la generación del grupo: lo guardado con una generación anterior queda
+    // descartado sin recorrer la caché, y una lectura que empezó antes de la escritura no se guarda
+    private final Map<String, AtomicLong> generaciones = new ConcurrentHashMap<>();
+
+    public CacheRespuestasGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    // Métricas cache.gets, cache.size, cache.evictions con cache=gateway-respuestas en /actuator/metrics
+    @PostConstruct
+    void registrarMetricas() {
+        CaffeineCacheMetrics.monitor(meterRegistry, respuestas, "gateway-respuestas");
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "grupo");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String grupo = config.getGrupo() != null ? config.getGrupo() : config.getRouteId();
+        long ttl = config.getTtl().toNanos();
+
+        // Antes de NettyWriteResponseFilter, para que la respuesta que escribe sea la decorada
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            HttpMethod metodo = exchange.getRequest().getMethod();
+            if (HttpMethod.GET.equals(metodo)) {
+                return ttl > 0 ? leer(exchange, chain, grupo, ttl) : chain.filter(exchange);
+            }
+            if (HttpMethod.HEAD.equals(metodo) || HttpMethod.OPTIONS.equals(metodo)) {
+                return chain.filter(exchange);
+            }
+            // Se invalida cuando el servicio ya respondió, aunque haya fallado: no se sabe qué alcanzó a cambiar
+            return chain.filter(exchange).doFinally(senal -> invalidar(grupo));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    void invalidar(String grupo) {
+        generacion(grupo).incrementAndGet();
+    }
+
+    private Mono<Void> leer(ServerWebExchange exchange, GatewayFilterChain chain, String grupo, long ttl) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders cabeceras = request.getHeaders();
+        // Respuestas de un usuario autenticado no se comparten con otros
+        if (cabeceras.containsKey(HttpHeaders.AUTHORIZATION)) {
+            return chain.filter(exchange);
+        }
+
+        Map<String, String> directivas = directivas(cabeceras.getCacheControl());
+        boolean noStore = directivas.containsKey("no-store");
+        // no-cache (o Pragma: no-cache) pide una respuesta nueva del servicio, que sí se guarda
+        boolean noCache = noStore || directivas.containsKey("no-cache") || "0".equals(directivas.get("max-age"))
+                || "no-cache".equalsIgnoreCase(cabeceras.getPragma());
+
+        Clave clave = Clave.de(grupo, request);
+        long generacion = generacion(grupo).get();
+        if (!noCache) {
+            Respuesta guardada = respuestas.getIfPresent(clave);
+            if (guardada != null && guardada.generacion() == generacion) {
+                return responder(exchange, guardada);
+            }
+        }
+        if (noStore) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse captura = new Captura(exchange.getResponse(), clave, grupo, generacion, ttl);
+        return chain.filter(exchange.mutate().response(captura).build());
+    }
+
+    private Mono<Void> responder(ServerWebExchange exchange, Respuesta guardada) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders cabeceras = response.getHeaders();
+        cabeceras.putAll(guardada.cabeceras());
+        cabeceras.set(HttpHeaders.AGE, String.valueOf(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - guardada.guardadaNanos())));
+        cabeceras.set(CABECERA_CACHE, "HIT");
+
+        if (coincideEtag(exchange.getRequest().getHeaders(), guardada.cabeceras().getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            cabeceras.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.valueOf(guardada.estado()));
+        cabeceras.setContentLength(guardada.cuerpo().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(guardada.cuerpo())));
+    }
+
+    // Comparación débil de If-None-Match: "W/" no cuenta y * coincide con cualquiera
+    private static boolean coincideEtag(HttpHeaders peticion, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String guardado = sinPrefijoDebil(etag);
+        for (String valor : peticion.getIfNoneMatch()) {
+            if (valor.equals("*") || sinPrefijoDebil(valor).equals(guardado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        String limpio = etag.trim();
+        return limpio.startsWith("W/") ? limpio.substring(2) : limpio;
+    }
+
+    // Tiempo que se puede guardar la respuesta del servicio: el ttl de la ruta, acortado por el
+    // s-maxage o max-age que ella misma indique. 0 si no se puede guardar
+    public static long ttlRespuesta(HttpStatus estado, HttpHeaders cabeceras, long ttlRuta) {
+        if (estado != HttpStatus.OK || cabeceras.containsKey(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        for (String vary : cabeceras.getVary()) {
+            if (!VARY_ADMITIDOS.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return 0;
+            }
+        }
+        long largo = cabeceras.getContentLength();
+        if (largo > MAXIMO_BYTES_RESPUESTA) {
+            return 0;
+        }
+
+        Map<String, String> directivas = directivas(cabeceras.getCacheControl());
+        if (directivas.containsKey("no-store") || directivas.containsKey("private") || directivas.containsKey("no-cache")) {
+            return 0;
+        }
+        String maxAge = directivas.getOrDefault("s-maxage", directivas.get("max-age"));
+        if (maxAge != null) {
+            try {
+                return Math.min(ttlRuta, TimeUnit.SECONDS.toNanos(Long.parseLong(maxAge)));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return ttlRuta;
+    }
+
+    // "public, max-age=60" -> {public=, max-age=60}
+    static Map<String, String> directivas(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> directivas = new HashMap<>();
+        for (String directiva : cacheControl.split(",")) {
+            String[] nombreYValor = directiva.trim().split("=", 2);
+            if (!nombreYValor[0].isEmpty()) {
+                directivas.put(nombreYValor[0].toLowerCase(Locale.ROOT),
+                        nombreYValor.length > 1 ? nombreYValor[1].replace("\"", "").trim() : "");
+            }
+        }
+        return directivas;
+    }
+
+    private AtomicLong generacion(String grupo) {
+        return generaciones.computeIfAbsent(grupo, g -> new AtomicLong());
+    }
+
+    // Copia el cuerpo mientras se envía al cliente (sin retrasarlo) y lo guarda al completarse
+    private final class Captura extends ServerHttpResponseDecorator {
+
+        private final Clave clave;
+        private final String grupo;
+        private final long generacion;
+        private final long ttlRuta;
+
+        Captura(ServerHttpResponse delegate, Clave clave, String grupo, long generacion, long ttlRuta) {
+            super(delegate);
+            this.clave = clave;
+            this.grupo = grupo;
+            this.generacion = generacion;
+            this.ttlRuta = ttlRuta;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatus estado = getStatusCode() == null ? null : HttpStatus.resolve(getStatusCode().value());
+            long ttl = estado == null ? 0 : ttlRespuesta(estado, getHeaders(), ttlRuta);
+            getHeaders().set(CABECERA_CACHE, "MISS");
+            if (ttl <= 0) {
+                return super.writeWith(body);
+            }
+
+            ByteArrayOutputStream copia = new ByteArrayOutputStream();
+            boolean[] excedido = { false };
+            Flux<? extends DataBuffer> cuerpo = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (excedido[0]) {
+                            return;
+                        }
+                        if (copia.size() + buffer.readableByteCount() > MAXIMO_BYTES_RESPUESTA) {
+                            excedido[0] = true;
+                            return;
+                        }
+                        try (DataBuffer.ByteBufferIterator partes = buffer.readableByteBuffers()) {
+                            while (partes.hasNext()) {
+                                ByteBuffer parte = partes.next();
+                                byte[] bytes = new byte[parte.remaining()];
+                                parte.get(bytes);
+                                copia.write(bytes, 0, bytes.length);
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!excedido[0]) {
+                            guardar(estado, copia.toByteArray(), ttl);
+                        }
+                    });
+            return super.writeWith(cuerpo);
+        }
+
+        private void guardar(HttpStatus estado, byte[] cuerpo, long ttl) {
+            // Hubo una escritura en el grupo mientras el servicio respondía: la respuesta puede ser anterior
+            if (generacion(grupo).get() != generacion) {
+                return;
+            }
+            HttpHeaders cabeceras = new HttpHeaders();
+            getHeaders().forEach((nombre, valores) -> {
+                if (CABECERAS_NO_GUARDADAS.stream().noneMatch(nombre::equalsIgnoreCase)) {
+                    cabeceras.put(nombre, List.copyOf(valores));
+                }
+            });
+            respuestas.put(clave, new Respuesta(estado.value(), HttpHeaders.readOnlyHttpHeaders(cabeceras), cuerpo,
+                    generacion, System.nanoTime(), ttl));
+        }
+
+    }
+
+    record Clave(String grupo, String ruta, List<String> cabeceras) {
+
+        static Clave de(String grupo, ServerHttpRequest request) {
+            String ruta = request.getURI().getRawPath();
+            String consulta = request.getURI().getRawQuery();
+            HttpHeaders cabeceras = request.getHeaders();
+            return new Clave(grupo, consulta == null ? ruta : ruta + "?" + consulta,
+                    CABECERAS_CLAVE.stream().map(cabeceras::get).map(valores -> valores == null ? "" : String.join(",", valores)).toList());
+        }
+
+        // Aproximado, para el límite de bytes de la caché
+        int peso() {
+            return 64 + ruta.length() + cabeceras.stream().mapToInt(String::length).sum();
+        }
+
+    }
+
+    record Respuesta(int estado, HttpHeaders cabeceras, byte[] cuerpo, long generacion, long guardadaNanos, long ttlNanos) {
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private Duration ttl = Duration.ofSeconds(30);
+        private String grupo;
+        private String routeId;
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.microservice.gateway.ratelimit;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+// Clave de LimitadorTokens: el id que envía la integración en X-Client-Id o, si no lo envía, la IP de
+// origen. El header no está autenticado: sirve para separar integraciones que se portan bien, no para
+// frenar a un cliente que cambie de id a propósito
+@Component
+public class ClienteKeyResolver implements KeyResolver {
+
+    public static final String CABECERA_CLIENTE = "X-Client-Id";
+    static final int LARGO_MAXIMO_CLIENTE = 64;
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String cliente = exchange.getRequest().getHeaders().getFirst(CABECERA_CLIENTE);
+        if (cliente != null && !cliente.isBlank() && cliente.length() <= LARGO_MAXIMO_CLIENTE) {
+            return Mono.just("cliente:" + cliente.trim());
+        }
+        InetSocketAddress origen = exchange.getRequest().getRemoteAddress();
+        if (origen == null) {
+            return Mono.just("ip:desconocida");
+        }
+        return Mono.just("ip:" + (origen.getAddress() != null ? origen.getAddress().getHostAddress() : origen.getHostString()));
+    }
+
+}
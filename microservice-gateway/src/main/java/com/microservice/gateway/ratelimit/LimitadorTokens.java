@@ -0,0 +1,159 @@
+package com.microservice.gateway.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+// Token bucket en memoria para el filtro RequestRateLimiter, sin Redis. Cada cliente (ClienteKeyResolver)
+// tiene un balde por ruta; los límites se configuran en los args del filtro de cada ruta:
+//   limitador-tokens.capacidad: ráfaga máxima
+//   limitador-tokens.recarga-por-segundo: tokens que se recuperan por segundo (puede ser menor que 1)
+// Los baldes son de esta instancia del gateway: con varias instancias cada una limita por su cuenta
+@Component
+public class LimitadorTokens extends AbstractRateLimiter<LimitadorTokens.Config> {
+
+    public static final String CONFIGURACION = "limitador-tokens";
+
+    public static final String CABECERA_RESTANTES = "X-RateLimit-Remaining";
+    public static final String CABECERA_CAPACIDAD = "X-RateLimit-Burst-Capacity";
+    public static final String CABECERA_RECARGA = "X-RateLimit-Replenish-Rate";
+    public static final String CABECERA_REINTENTAR = "Retry-After";
+
+    // Rutas con RequestRateLimiter que no indican límites
+    static final int CAPACIDAD_POR_DEFECTO = 100;
+    static final double RECARGA_POR_DEFECTO = 50;
+
+    // Un balde sin uso vuelve a estar lleno, así que descartarlo no cambia nada mientras su recarga
+    // completa tarde menos que esto. Con más claves que el máximo, los baldes menos usados se reinician
+    static final long MAXIMO_BALDES = 100_000;
+    static final long MINUTOS_SIN_USO = 10;
+
+    // Claves con métrica propia; las demás se suman en clave=otras para no crear una serie por IP
+    static final int MAXIMO_CLAVES_CON_METRICA = 200;
+    static final String OTRAS_CLAVES = "otras";
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Balde> baldes = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_BALDES)
+            .expireAfterAccess(MINUTOS_SIN_USO, TimeUnit.MINUTES)
+            .build();
+    private final Set<String> clavesConMetrica = ConcurrentHashMap.newKeySet();
+
+    public LimitadorTokens(ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURACION, configurationService);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.limite.baldes", baldes, Cache::estimatedSize)
+                .description("Baldes de tokens en memoria (cliente y ruta)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, Config.POR_DEFECTO);
+        Balde balde = baldes.get(routeId + " " + id, clave -> new Balde(routeId, id));
+        return Mono.just(balde.tomar(config, System.nanoTime()));
+    }
+
+    private String etiquetaMetrica(String id) {
+        if (clavesConMetrica.contains(id)) {
+            return id;
+        }
+        if (clavesConMetrica.size() < MAXIMO_CLAVES_CON_METRICA) {
+            clavesConMetrica.add(id);
+            return id;
+        }
+        return OTRAS_CLAVES;
+    }
+
+    // El balde se guarda como un solo instante (GCRA): la hora a la que quedaría lleno de nuevo si no
+    // llegan más peticiones. Tomar un token es correr ese instante un intervalo de recarga, con un
+    // compareAndSet y sin bloqueos; sobra capacidad mientras no quede más de una ráfaga en el futuro
+    private final class Balde {
+
+        private final AtomicLong lleno = new AtomicLong(Long.MIN_VALUE);
+        private final Counter permitidas;
+        private final Counter rechazadas;
+
+        Balde(String routeId, String id) {
+            String clave = etiquetaMetrica(id);
+            permitidas = contador(routeId, clave, "permitida");
+            rechazadas = contador(routeId, clave, "rechazada");
+        }
+
+        private Counter contador(String routeId, String clave, String resultado) {
+            return Counter.builder("gateway.limite.peticiones")
+                    .description("Peticiones evaluadas por el limitador de tokens")
+                    .tag("ruta", routeId)
+                    .tag("clave", clave)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry);
+        }
+
+        Response tomar(Config config, long ahora) {
+            long intervalo = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / config.getRecargaPorSegundo()));
+            long rafaga = intervalo * config.getCapacidad();
+            while (true) {
+                long actual = lleno.get();
+                long desde = Math.max(actual, ahora);
+                long siguiente = desde + intervalo;
+                if (siguiente - ahora > rafaga) {
+                    rechazadas.increment();
+                    // Tiempo hasta que se recupere un token
+                    long espera = siguiente - ahora - rafaga;
+                    return new Response(false, cabeceras(config, 0,
+                            Math.max(1, (espera + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+                }
+                if (lleno.compareAndSet(actual, siguiente)) {
+                    permitidas.increment();
+                    return new Response(true, cabeceras(config, (rafaga - (siguiente - ahora)) / intervalo, 0));
+                }
+            }
+        }
+
+        private Map<String, String> cabeceras(Config config, long restantes, long reintentarSegundos) {
+            Map<String, String> cabeceras = new HashMap<>();
+            cabeceras.put(CABECERA_RESTANTES, String.valueOf(restantes));
+            cabeceras.put(CABECERA_CAPACIDAD, String.valueOf(config.getCapacidad()));
+            cabeceras.put(CABECERA_RECARGA, String.valueOf(config.getRecargaPorSegundo()));
+            if (reintentarSegundos > 0) {
+                cabeceras.put(CABECERA_REINTENTAR, String.valueOf(reintentarSegundos));
+            }
+            return cabeceras;
+        }
+
+    }
+
+    @Data
+    @Validated
+    public static class Config {
+
+        static final Config POR_DEFECTO = new Config();
+
+        @Min(1)
+        private int capacidad = CAPACIDAD_POR_DEFECTO;
+
+        @Positive
+        private double recargaPorSegundo = RECARGA_POR_DEFECTO;
+
+    }
+
+}
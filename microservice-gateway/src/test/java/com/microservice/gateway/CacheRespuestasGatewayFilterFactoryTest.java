@@ -0,0 +1,160 @@
+package com.microservice.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.microservice.gateway.filter.CacheRespuestasGatewayFilterFactory;
+
+import reactor.core.publisher.Mono;
+
+class CacheRespuestasGatewayFilterFactoryTest {
+
+    private static final String CUERPO = "{\"id_usuario\":1,\"nombres\":\"Juan\"}";
+
+    private CacheRespuestasGatewayFilterFactory factory;
+    private GatewayFilter usuariosV1;
+    private GatewayFilter usuariosV2;
+    private AtomicInteger llamadasAlServicio;
+    private String cacheControlDelServicio;
+
+    @BeforeEach
+    void setUp() {
+        factory = new CacheRespuestasGatewayFilterFactory();
+        usuariosV1 = filtro("usuarios", Duration.ZERO);
+        usuariosV2 = filtro("usuarios2", Duration.ofSeconds(60));
+        llamadasAlServicio = new AtomicInteger();
+        cacheControlDelServicio = null;
+    }
+
+    @Test
+    void segundoGetSeRespondeDesdeLaCache() {
+        MockServerWebExchange primero = get("/api/v2/usuarios/1");
+        MockServerWebExchange segundo = get("/api/v2/usuarios/1");
+
+        usuariosV2.filter(primero, servicio()).block();
+        usuariosV2.filter(segundo, servicio()).block();
+
+        assertEquals(1, llamadasAlServicio.get());
+        assertEquals("MISS", primero.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.CABECERA_CACHE));
+        assertEquals("HIT", segundo.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.CABECERA_CACHE));
+        assertEquals(HttpStatus.OK, segundo.getResponse().getStatusCode());
+        assertEquals("\"1\"", segundo.getResponse().getHeaders().getETag());
+        assertEquals(CUERPO, segundo.getResponse().getBodyAsString().block());
+
+        // Otra consulta es otra entrada
+        usuariosV2.filter(get("/api/v2/usuarios/1?campos=nombres"), servicio()).block();
+        assertEquals(2, llamadasAlServicio.get());
+    }
+
+    @Test
+    void escrituraPorOtraRutaDelGrupoInvalida() {
+        usuariosV2.filter(get("/api/v2/usuarios/1"), servicio()).block();
+
+        MockServerWebExchange put = MockServerWebExchange.from(MockServerHttpRequest.put("/api/v1/usuarios/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(CUERPO));
+        usuariosV1.filter(put, servicio()).block();
+
+        MockServerWebExchange despues = get("/api/v2/usuarios/1");
+        usuariosV2.filter(despues, servicio()).block();
+
+        assertEquals(3, llamadasAlServicio.get());
+        assertEquals("MISS", despues.getResponse().getHeaders().getFirst(CacheRespuestasGatewayFilterFactory.CABECERA_CACHE));
+    }
+
+    @Test
+    void ifNoneMatchConElEtagGuardadoResponde304SinIrAlServicio() {
+        usuariosV2.filter(get("/api/v2/usuarios/1"), servicio()).block();
+
+        MockServerWebExchange condicional = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v2/usuarios/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""));
+        usuariosV2.filter(condicional, servicio()).block();
+
+        assertEquals(1, llamadasAlServicio.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional.getResponse().getStatusCode());
+        assertEquals("", condicional.getResponse().getBodyAsString().defaultIfEmpty("").block());
+    }
+
+    @Test
+    void respuestaNoStoreNoSeGuardaYPeticionNoCacheVaAlServicio() {
+        cacheControlDelServicio = "no-store";
+        usuariosV2.filter(get("/api/v2/usuarios/1"), servicio()).block();
+        usuariosV2.filter(get("/api/v2/usuarios/1"), servicio()).block();
+        assertEquals(2, llamadasAlServicio.get());
+
+        cacheControlDelServicio = null;
+        usuariosV2.filter(get("/api/v2/usuarios/1"), servicio()).block();
+        MockServerWebExchange noCache = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v2/usuarios/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        usuariosV2.filter(noCache, servicio()).block();
+        assertEquals(4, llamadasAlServicio.get());
+    }
+
+    @Test
+    void maxAgeDelServicioAcortaElTtlDeLaRuta() {
+        long ttlRuta = TimeUnit.SECONDS.toNanos(60);
+        HttpHeaders cabeceras = new HttpHeaders();
+        assertEquals(ttlRuta, CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.OK, cabeceras, ttlRuta));
+
+        cabeceras.setCacheControl("public, max-age=5");
+        assertEquals(TimeUnit.SECONDS.toNanos(5), CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.OK, cabeceras, ttlRuta));
+
+        cabeceras.setCacheControl("max-age=5, s-maxage=20");
+        assertEquals(TimeUnit.SECONDS.toNanos(20), CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.OK, cabeceras, ttlRuta));
+
+        cabeceras.setCacheControl("private");
+        assertEquals(0, CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.OK, cabeceras, ttlRuta));
+
+        cabeceras.remove(HttpHeaders.CACHE_CONTROL);
+        cabeceras.setVary(List.of("Cookie"));
+        assertEquals(0, CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.OK, cabeceras, ttlRuta));
+
+        assertEquals(0, CacheRespuestasGatewayFilterFactory.ttlRespuesta(HttpStatus.NOT_FOUND, new HttpHeaders(), ttlRuta));
+    }
+
+    private GatewayFilter filtro(String routeId, Duration ttl) {
+        CacheRespuestasGatewayFilterFactory.Config config = new CacheRespuestasGatewayFilterFactory.Config();
+        config.setRouteId(routeId);
+        config.setGrupo("usuarios");
+        config.setTtl(ttl);
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange get(String ruta) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(ruta).accept(MediaType.APPLICATION_JSON));
+    }
+
+    // Lo que hace el routing filter al recibir la respuesta del servicio
+    private GatewayFilterChain servicio() {
+        return exchange -> {
+            llamadasAlServicio.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            HttpHeaders cabeceras = exchange.getResponse().getHeaders();
+            cabeceras.setContentType(MediaType.APPLICATION_JSON);
+            cabeceras.setETag("\"1\"");
+            if (cacheControlDelServicio != null) {
+                cabeceras.setCacheControl(cacheControlDelServicio);
+            }
+            byte[] cuerpo = CUERPO.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(cuerpo)));
+        };
+    }
+
+}
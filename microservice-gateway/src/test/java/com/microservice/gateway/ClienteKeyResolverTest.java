@@ -0,0 +1,29 @@
+package com.microservice.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.InetSocketAddress;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.microservice.gateway.ratelimit.ClienteKeyResolver;
+
+class ClienteKeyResolverTest {
+
+    private final ClienteKeyResolver resolver = new ClienteKeyResolver();
+
+    @Test
+    void usaElIdDelClienteYSinoLaIp() {
+        MockServerWebExchange conCliente = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/ventas/listar")
+                .header(ClienteKeyResolver.CABECERA_CLIENTE, "erp")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 50000)));
+        MockServerWebExchange sinCliente = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/ventas/listar")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 50001)));
+
+        assertEquals("cliente:erp", resolver.resolve(conCliente).block());
+        assertEquals("ip:10.0.0.1", resolver.resolve(sinCliente).block());
+    }
+
+}
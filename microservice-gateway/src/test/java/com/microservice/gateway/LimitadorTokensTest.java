@@ -0,0 +1,108 @@
+package com.microservice.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+
+import com.microservice.gateway.ratelimit.LimitadorTokens;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LimitadorTokensTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LimitadorTokens limitador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limitador = new LimitadorTokens(null, meterRegistry);
+
+        LimitadorTokens.Config listado = new LimitadorTokens.Config();
+        listado.setCapacidad(3);
+        listado.setRecargaPorSegundo(0.5);
+        limitador.getConfig().put("ventas-listado", listado);
+    }
+
+    @Test
+    void permiteLaRafagaYLuegoResponde429ConRetryAfter() {
+        for (int restantes = 2; restantes >= 0; restantes--) {
+            Response respuesta = limitador.isAllowed("ventas-listado", "ip:10.0.0.1").block();
+            assertTrue(respuesta.isAllowed());
+            assertEquals(String.valueOf(restantes), respuesta.getHeaders().get(LimitadorTokens.CABECERA_RESTANTES));
+        }
+
+        Response rechazada = limitador.isAllowed("ventas-listado", "ip:10.0.0.1").block();
+
+        assertFalse(rechazada.isAllowed());
+        assertEquals("0", rechazada.getHeaders().get(LimitadorTokens.CABECERA_RESTANTES));
+        assertEquals("3", rechazada.getHeaders().get(LimitadorTokens.CABECERA_CAPACIDAD));
+        // Un token cada 2 segundos
+        assertEquals("2", rechazada.getHeaders().get(LimitadorTokens.CABECERA_REINTENTAR));
+    }
+
+    @Test
+    void cadaClienteYCadaRutaTienenSuBalde() {
+        for (int i = 0; i < 3; i++) {
+            limitador.isAllowed("ventas-listado", "cliente:erp").block();
+        }
+
+        assertFalse(limitador.isAllowed("ventas-listado", "cliente:erp").block().isAllowed());
+        assertTrue(limitador.isAllowed("ventas-listado", "cliente:tienda").block().isAllowed());
+        // Ruta sin límites propios: capacidad por defecto
+        Response otraRuta = limitador.isAllowed("ventas-lote", "cliente:erp").block();
+        assertTrue(otraRuta.isAllowed());
+        assertEquals("100", otraRuta.getHeaders().get(LimitadorTokens.CABECERA_CAPACIDAD));
+    }
+
+    @Test
+    void peticionesConcurrentesNoSuperanLaCapacidad() throws Exception {
+        LimitadorTokens.Config lento = new LimitadorTokens.Config();
+        lento.setCapacidad(50);
+        lento.setRecargaPorSegundo(0.001);
+        limitador.getConfig().put("ventas-lote", lento);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            resultados.add(hilos.submit(() -> {
+                partida.await();
+                return limitador.isAllowed("ventas-lote", "ip:10.0.0.2").block().isAllowed();
+            }));
+        }
+        partida.countDown();
+        int permitidas = 0;
+        for (Future<Boolean> resultado : resultados) {
+            permitidas += resultado.get() ? 1 : 0;
+        }
+        hilos.shutdown();
+
+        assertEquals(50, permitidas);
+    }
+
+    @Test
+    void metricasPorRutaClaveYResultado() {
+        for (int i = 0; i < 5; i++) {
+            limitador.isAllowed("ventas-listado", "cliente:erp").block();
+        }
+
+        assertEquals(3, meterRegistry.get("gateway.limite.peticiones")
+                .tags("ruta", "ventas-listado", "clave", "cliente:erp", "resultado", "permitida").counter().count());
+        assertEquals(2, meterRegistry.get("gateway.limite.peticiones")
+                .tags("ruta", "ventas-listado", "clave", "cliente:erp", "resultado", "rechazada").counter().count());
+        assertEquals(1, meterRegistry.get("gateway.limite.baldes").gauge().value());
+    }
+
+}
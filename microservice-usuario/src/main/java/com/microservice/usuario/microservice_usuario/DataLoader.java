@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.validation.Rut;
 
 import java.util.HashSet;
 import java.util.Locale;
@@ -36,8 +37,7 @@ public class DataLoader implements CommandLineRunner{
             // Generar rut único dentro del batch
             do {
                 int cuerpo = 10000000 + random.nextInt(9000000); // 7-8 dígitos
-                String dv = generarDV(cuerpo);
-                rut = cuerpo + "-" + dv;
+                rut = Rut.formatear(cuerpo);
             } while (!usadosRut.add(rut)); // solo se agrega si no existía
 
             // Generar correo único dentro del batch
@@ -58,13 +58,4 @@ public class DataLoader implements CommandLineRunner{
         System.out.println("✅ Carga de datos de prueba completada: 20 usuarios insertados.");
     }
 
-    // Método para calcular dígito verificador chileno
-    private String generarDV(int rut) {
-        int m = 0, s = 1;
-        for (; rut != 0; rut /= 10) {
-            s = (s + rut % 10 * (9 - m++ % 6)) % 11;
-        }
-        return (s != 0) ? String.valueOf(s - 1) : "K";
-    }
-
 }
@@ -3,26 +3,35 @@ package com.microservice.usuario.microservice_usuario.assemblers;
 
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.microservice.usuario.microservice_usuario.controller.UsuarioControllerV2;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 
 
+// Los links se construyen con linkTo(methodOn(...)) una sola vez por petición, usando un id de
+// marca; para cada usuario solo se reemplaza la marca por el id real.
 @Component
 public class usuarioModelAssembler implements RepresentationModelAssembler<Usuario, EntityModel<Usuario>> {
 
+    private static final int ID_MARCA = Integer.MIN_VALUE;
+    private static final String ATRIBUTO_PLANTILLAS = usuarioModelAssembler.class.getName() + ".plantillas";
+
     @Override
     public EntityModel<Usuario> toModel(Usuario usuario) {
+        Plantillas plantillas = plantillas();
         return EntityModel.of(usuario,
-            linkTo(methodOn(UsuarioControllerV2.class).getUsuario(usuario.getId_usuario())).withSelfRel(),
-            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios()).withRel("usuarios"),
+            plantillas.self().con(usuario.getId_usuario()),
+            plantillas.usuarios(),
             linkToVentas(usuario.getId_usuario()),
-            linkTo(methodOn(UsuarioControllerV2.class).actualizarUsuario(usuario.getId_usuario(), null)).withRel("actualizar"),
-            linkTo(methodOn(UsuarioControllerV2.class).eliminarUsuario(usuario.getId_usuario())).withRel("eliminar")
+            plantillas.actualizar().con(usuario.getId_usuario()),
+            plantillas.eliminar().con(usuario.getId_usuario())
         );
     }
     
@@ -31,5 +40,44 @@ public class usuarioModelAssembler implements RepresentationModelAssembler<Usuar
         return Link.of(href, "ventas");
     }
 
-}
+    // Reutiliza las plantillas de la petición en curso; fuera de una petición se crean cada vez
+    private static Plantillas plantillas() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return Plantillas.crear();
+        }
+        Plantillas plantillas = (Plantillas) atributos.getAttribute(ATRIBUTO_PLANTILLAS, RequestAttributes.SCOPE_REQUEST);
+        if (plantillas == null) {
+            plantillas = Plantillas.crear();
+            atributos.setAttribute(ATRIBUTO_PLANTILLAS, plantillas, RequestAttributes.SCOPE_REQUEST);
+        }
+        return plantillas;
+    }
+
+    private record Plantillas(Plantilla self, Link usuarios, Plantilla actualizar, Plantilla eliminar) {
+
+        static Plantillas crear() {
+            return new Plantillas(
+                Plantilla.de(linkTo(methodOn(UsuarioControllerV2.class).getUsuario(ID_MARCA, null)).withSelfRel()),
+                linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios(null)).withRel("usuarios"),
+                Plantilla.de(linkTo(methodOn(UsuarioControllerV2.class).actualizarUsuario(ID_MARCA, null, null)).withRel("actualizar")),
+                Plantilla.de(linkTo(methodOn(UsuarioControllerV2.class).eliminarUsuario(ID_MARCA, null)).withRel("eliminar")));
+        }
+    }
 
+    // href partido en el id de marca: el link de cada fila es antes + id + despues
+    private record Plantilla(String antes, String despues, LinkRelation rel) {
+
+        static Plantilla de(Link link) {
+            String href = link.getHref();
+            int inicio = href.indexOf(String.valueOf(ID_MARCA));
+            return new Plantilla(href.substring(0, inicio),
+                href.substring(inicio + String.valueOf(ID_MARCA).length()), link.getRel());
+        }
+
+        Link con(int id) {
+            return Link.of(antes + id + despues, rel);
+        }
+    }
+
+}
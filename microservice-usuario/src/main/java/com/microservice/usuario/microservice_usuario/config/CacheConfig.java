@@ -0,0 +1,20 @@
+package com.microservice.usuario.microservice_usuario.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// La caché (Caffeine, configurada en spring.cache.*) se aplica por fuera de la transacción:
+// un acierto no abre una transacción y las invalidaciones posteriores a save/delete
+// se ejecutan después del commit.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String USUARIOS = "usuarios";
+    public static final String USUARIOS_VISTA = "usuarios-vista";
+    // Id del usuario por cuerpo del RUT y por correo normalizado (ver UsuarioService.getUserByRut)
+    public static final String IDS_POR_RUT = "usuarios-rut";
+    public static final String IDS_POR_CORREO = "usuarios-correo";
+
+}
@@ -22,6 +22,8 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.microservice.usuario.microservice_usuario.dto.UsuarioDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioMapper;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 import com.microservice.usuario.microservice_usuario.service.UsuarioService;
 
@@ -47,8 +49,8 @@ public class UsuarioController {
     })
     @Operation(summary = "Obtener todos los usuarios", description ="Obtiene una lista de todos los usuarios")
     @GetMapping("/listar")
-    public List<Usuario> getAllUsers() {
-        return usuarioService.findAll();
+    public List<UsuarioView> getAllUsers() {
+        return usuarioService.findAllViews();
     }
     
     //localhost:8090/api/v1/usuarios/{id_usuario}
@@ -60,16 +62,9 @@ public class UsuarioController {
     @GetMapping("/{id_usuario}")
     public ResponseEntity<?> getUserById(@PathVariable Integer id_usuario) {
         
-        Optional<Usuario> usuario = usuarioService.getUserById(id_usuario);
+        Optional<UsuarioView> usuario = usuarioService.getUserViewById(id_usuario);
 
         if(usuario.isPresent()){
-            
-            UsuarioDTO dto = new UsuarioDTO();
-            dto.setId_usuario(usuario.get().getId_usuario());
-            dto.setRut(usuario.get().getRut());
-            dto.setNombres(usuario.get().getNombres());
-            dto.setApellidos(usuario.get().getApellidos());
-            dto.setCorreo(usuario.get().getCorreo());
 
             return ResponseEntity.ok()
                         .header("mi-encabezado","valor")
@@ -93,20 +88,9 @@ public class UsuarioController {
     public ResponseEntity<?> save(@Valid @RequestBody UsuarioDTO usuarioDTO) {
         try{
 
-            Usuario usuario = new Usuario();
-            usuario.setRut(usuarioDTO.getRut());
-            usuario.setNombres(usuarioDTO.getNombres());
-            usuario.setApellidos(usuarioDTO.getApellidos());
-            usuario.setCorreo(usuarioDTO.getCorreo());
-
-            Usuario usuarioGuardado = usuarioService.save(usuario);
+            Usuario usuarioGuardado = usuarioService.save(UsuarioMapper.aEntidad(usuarioDTO));
 
-            UsuarioDTO responseDTO = new UsuarioDTO();
-            responseDTO.setId_usuario(usuarioGuardado.getId_usuario());
-            responseDTO.setRut(usuarioGuardado.getRut());
-            responseDTO.setNombres(usuarioGuardado.getNombres());
-            responseDTO.setApellidos(usuarioGuardado.getApellidos());
-            responseDTO.setCorreo(usuarioGuardado.getCorreo());
+            UsuarioDTO responseDTO = UsuarioMapper.aDto(usuarioGuardado);
 
             URI location = ServletUriComponentsBuilder
                     .fromCurrentRequest()
@@ -135,21 +119,9 @@ public class UsuarioController {
     public ResponseEntity<UsuarioDTO> update(@PathVariable int id_usuario, @RequestBody UsuarioDTO usuarioDTO) {
         try {
             
-            Usuario usuario = new Usuario();
-            usuario.setId_usuario(id_usuario);
-            usuario.setRut(usuarioDTO.getRut());
-            usuario.setNombres(usuarioDTO.getNombres());
-            usuario.setApellidos(usuarioDTO.getApellidos());
-            usuario.setCorreo(usuarioDTO.getCorreo());
-
-            Usuario usuarioActualizado = usuarioService.save(usuario);
+            Usuario usuarioActualizado = usuarioService.save(UsuarioMapper.aEntidad(id_usuario, usuarioDTO));
         
-            UsuarioDTO responseDTO = new UsuarioDTO();
-            responseDTO.setId_usuario(usuarioActualizado.getId_usuario());
-            responseDTO.setRut(usuarioActualizado.getRut());
-            responseDTO.setNombres(usuarioActualizado.getNombres());
-            responseDTO.setApellidos(usuarioActualizado.getApellidos());
-            responseDTO.setCorreo(usuarioActualizado.getCorreo());
+            UsuarioDTO responseDTO = UsuarioMapper.aDto(usuarioActualizado);
             
             return ResponseEntity.ok(responseDTO);
 
@@ -169,7 +141,9 @@ public class UsuarioController {
     public ResponseEntity<?> eliminar(@PathVariable int id_usuario){
         try{
 
-            usuarioService.delete(id_usuario);
+            if (!usuarioService.delete(id_usuario)) {
+                return ResponseEntity.notFound().build();
+            }
             return ResponseEntity.noContent().build();
 
         }catch(Exception ex){
@@ -2,31 +2,47 @@ package com.microservice.usuario.microservice_usuario.controller;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.microservice.comun.web.ControlDeVersiones;
 import com.microservice.usuario.microservice_usuario.assemblers.usuarioModelAssembler;
 import com.microservice.usuario.microservice_usuario.dto.UsuarioDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioMapper;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
 import com.microservice.usuario.microservice_usuario.service.UsuarioService;
+import com.microservice.usuario.microservice_usuario.validation.Rut;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -39,38 +55,159 @@ import jakarta.validation.Valid;
 @Tag(name = "Usuarios V2", description = "Operaciones relacionadas con los usuarios")
 public class UsuarioControllerV2 {
 
+    private static final Pattern FORMATO_CORREO = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final ControlDeVersiones VERSIONES = new ControlDeVersiones(
+        "El usuario no está en la versión indicada en If-Match", "El usuario fue modificado por otra petición");
+
     @Autowired
     private UsuarioService usuarioService;
 
     @Autowired
     private usuarioModelAssembler usuarioAssembler;
 
+    // Se consulta directo y no a través de UsuarioService para no abrir una transacción por búsqueda
+    @Autowired
+    private IndiceNombres indiceNombres;
+
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "El usuario no cambió desde el ETag enviado en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Usuarios no encontrados")
     })
-    @Operation(summary = "Obtener usuario por id", description ="Obtiene el usuario deseado por su id")
+    @Operation(summary = "Obtener usuario por id", description ="Obtiene el usuario deseado por su id. El ETag de la respuesta corresponde a la versión del usuario")
     @GetMapping("/{id}")
-    public EntityModel<Usuario> getUsuario(@PathVariable int id) {
-        Usuario usuario = usuarioService.getUserById(id)
+    public ResponseEntity<EntityModel<Usuario>> getUsuario(@PathVariable int id, WebRequest request) {
+        return usuarioConEtag(usuarioService.getUserById(id), request);
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "El usuario no cambió desde el ETag enviado en If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "El RUT no tiene un formato válido o su dígito verificador no corresponde"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @Operation(summary = "Obtener usuario por RUT", description = "Obtiene el usuario con el RUT indicado, con o sin puntos y guion "
+        + "(12.345.678-K, 12345678-k y 12345678K son el mismo RUT)")
+    @GetMapping("/rut/{rut}")
+    public ResponseEntity<EntityModel<Usuario>> getUsuarioPorRut(@PathVariable String rut, WebRequest request) {
+        int cuerpo = Rut.cuerpo(rut);
+        if (cuerpo == Rut.INVALIDO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El RUT no es válido");
+        }
+        return usuarioConEtag(usuarioService.getUserByRut(cuerpo), request);
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "El usuario no cambió desde el ETag enviado en If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "El correo no tiene un formato válido"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @Operation(summary = "Obtener usuario por correo", description = "Obtiene el usuario con el correo indicado, sin distinguir mayúsculas")
+    @GetMapping("/correo/{correo}")
+    public ResponseEntity<EntityModel<Usuario>> getUsuarioPorCorreo(@PathVariable String correo, WebRequest request) {
+        String normalizado = UsuarioService.normalizarCorreo(correo);
+        if (!FORMATO_CORREO.matcher(normalizado).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El correo no tiene un formato válido");
+        }
+        return usuarioConEtag(usuarioService.getUserByCorreo(normalizado), request);
+    }
+
+    private ResponseEntity<EntityModel<Usuario>> usuarioConEtag(Optional<Usuario> encontrado, WebRequest request) {
+        Usuario usuario = encontrado
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
 
-        return usuarioAssembler.toModel(usuario);
+        String etag = ControlDeVersiones.etag(usuario.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(usuarioAssembler.toModel(usuario));
     }
 
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "Los usuarios no cambiaron desde el ETag enviado en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Usuarios no encontrados")
     })
     @Operation(summary = "Obtener todos los usuarios", description ="Obtiene una lista de todos los usuarios")
     @GetMapping
-    public CollectionModel<EntityModel<Usuario>> getAllUsuarios() {
+    public ResponseEntity<CollectionModel<EntityModel<Usuario>>> getAllUsuarios(WebRequest request) {
+        // La huella se calcula antes de leer la lista: si cambia entre ambas lecturas, el ETag
+        // queda más antiguo que el contenido y el cliente solo pierde un 304
+        String etag = "\"" + usuarioService.getHuella() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
         List<EntityModel<Usuario>> usuarios = usuarioService.findAll().stream()
             .map(usuarioAssembler::toModel)
             .toList();
 
+        return ResponseEntity.ok().eTag(etag).body(CollectionModel.of(usuarios,
+            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios(null)).withSelfRel()));
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "No se indicaron ids o son demasiados")
+    })
+    @Operation(summary = "Obtener varios usuarios por id", description = "Obtiene en una sola petición los usuarios indicados en 'ids' (hasta "
+        + UsuarioService.MAX_IDS_POR_CONSULTA + "), en el orden pedido. Los ids que no existen se omiten")
+    @GetMapping(params = "ids")
+    public ResponseEntity<CollectionModel<EntityModel<Usuario>>> getUsuariosPorIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(usuariosPorIds(ids));
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "No se indicaron ids o son demasiados")
+    })
+    @Operation(summary = "Obtener varios usuarios por id (POST)", description = "Igual que GET /api/v2/usuarios?ids=, con los ids en el cuerpo "
+        + "para listas que no caben en la URL")
+    @PostMapping("/por-ids")
+    public ResponseEntity<CollectionModel<EntityModel<Usuario>>> postUsuariosPorIds(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(usuariosPorIds(ids));
+    }
+
+    private CollectionModel<EntityModel<Usuario>> usuariosPorIds(List<Integer> ids) {
+        Set<Integer> distintos = new LinkedHashSet<>(ids);
+        if (distintos.isEmpty() || distintos.contains(null) || distintos.size() > UsuarioService.MAX_IDS_POR_CONSULTA) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Se deben indicar entre 1 y " + UsuarioService.MAX_IDS_POR_CONSULTA + " ids");
+        }
+
+        List<EntityModel<Usuario>> usuarios = usuarioService.findAllByIds(distintos).stream()
+            .map(usuarioAssembler::toModel)
+            .toList();
         return CollectionModel.of(usuarios,
-            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios()).withSelfRel());
+            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios(null)).withRel("usuarios"));
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "La consulta es muy corta o el límite está fuera de rango")
+    })
+    @Operation(summary = "Buscar usuarios por nombre", description = "Busca usuarios cuyos nombres y apellidos contienen todas las palabras "
+        + "de 'q', completas, como prefijo o con un error de tipeo, sin distinguir tildes ni mayúsculas. Devuelve hasta 'limite' "
+        + "usuarios (máximo " + IndiceNombres.MAX_RESULTADOS + "), primero las coincidencias exactas")
+    @GetMapping("/buscar")
+    public ResponseEntity<CollectionModel<EntityModel<UsuarioView>>> buscarUsuarios(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limite) {
+        if (String.join("", IndiceNombres.palabras(q)).length() < IndiceNombres.LARGO_MINIMO_CONSULTA) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "La consulta debe tener al menos " + IndiceNombres.LARGO_MINIMO_CONSULTA + " letras");
+        }
+        if (limite < 1 || limite > IndiceNombres.MAX_RESULTADOS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El límite debe estar entre 1 y " + IndiceNombres.MAX_RESULTADOS);
+        }
+
+        List<EntityModel<UsuarioView>> usuarios = indiceNombres.buscar(q, limite).stream()
+            .map(usuario -> EntityModel.of(usuario,
+                linkTo(methodOn(UsuarioControllerV2.class).getUsuario(usuario.getId_usuario(), null)).withSelfRel()))
+            .toList();
+        return ResponseEntity.ok(CollectionModel.of(usuarios,
+            linkTo(methodOn(UsuarioControllerV2.class).buscarUsuarios(q, limite)).withSelfRel()));
     }
 
     @ApiResponse(responseCode = "200", description = "Operación exitosa")
@@ -78,13 +215,7 @@ public class UsuarioControllerV2 {
     @Operation(summary = "Crear nuevo usuario", description = "Crea un nuevo usuario en la base de datos")
     public ResponseEntity<?> crearUsuario(@Valid @RequestBody UsuarioDTO dto) {
         try {
-            Usuario usuario = new Usuario();
-            usuario.setRut(dto.getRut());
-            usuario.setNombres(dto.getNombres());
-            usuario.setApellidos(dto.getApellidos());
-            usuario.setCorreo(dto.getCorreo());
-
-            Usuario creado = usuarioService.save(usuario);
+            Usuario creado = usuarioService.save(UsuarioMapper.aEntidad(dto));
             EntityModel<Usuario> usuarioModel = usuarioAssembler.toModel(creado);
 
             return ResponseEntity
@@ -103,47 +234,130 @@ public class UsuarioControllerV2 {
 
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
-        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "409", description = "El usuario fue modificado por otra petición"),
+        @ApiResponse(responseCode = "412", description = "El usuario ya no está en la versión enviada en If-Match")
     })
     @PutMapping("/{id}")
-    @Operation(summary = "Actualizar usuario", description = "Actualiza los datos de un usuario existente")
+    @Operation(summary = "Actualizar usuario", description = "Actualiza los datos de un usuario existente. Con If-Match solo se actualiza si el usuario sigue en esa versión")
     public ResponseEntity<EntityModel<Usuario>> actualizarUsuario(
             @PathVariable int id,
-            @Valid @RequestBody UsuarioDTO dto) {
+            @Valid @RequestBody UsuarioDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Usuario existente = usuarioService.getUserById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
 
-        existente.setRut(dto.getRut());
-        existente.setNombres(dto.getNombres());
-        existente.setApellidos(dto.getApellidos());
-        existente.setCorreo(dto.getCorreo());
+        // Se guarda una instancia nueva: la existente puede estar compartida por la caché
+        Usuario cambios = UsuarioMapper.aEntidad(existente.getId_usuario(), dto);
+        cambios.setVersion(VERSIONES.versionEsperada(ifMatch));
 
-        Usuario actualizado = usuarioService.save(existente);
+        Usuario actualizado;
+        try {
+            actualizado = usuarioService.save(cambios);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        }
         EntityModel<Usuario> usuarioModel = usuarioAssembler.toModel(actualizado);
 
-        return ResponseEntity.ok(usuarioModel);
+        return ResponseEntity.ok().eTag(ControlDeVersiones.etag(actualizado.getVersion())).body(usuarioModel);
     }
 
 
-    @ApiResponse(responseCode = "200", description = "Operación exitosa")
-    @DeleteMapping("/{id}")
-    @Operation(summary = "Eliminar usuario", description = "Elimina un usuario por su ID")
-    public ResponseEntity<?> eliminarUsuario(@PathVariable int id) {
-        Usuario usuario = usuarioService.getUserById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Usuario actualizado"),
+        @ApiResponse(responseCode = "400", description = "No se indicó ningún campo o algún valor no es válido"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "409", description = "El rut o el correo ya están registrados"),
+        @ApiResponse(responseCode = "412", description = "El usuario ya no está en la versión enviada en If-Match")
+    })
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente un usuario", description = "Modifica solo los campos enviados con un único UPDATE, sin leer el usuario antes. "
+        + "Con If-Match solo se actualiza si el usuario sigue en esa versión, y la respuesta trae el ETag de la nueva versión")
+    public ResponseEntity<Void> actualizarParcialUsuario(
+            @PathVariable int id,
+            @Valid @RequestBody UsuarioPatchDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        if (dto.getRut() == null && dto.getNombres() == null && dto.getApellidos() == null && dto.getCorreo() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Se debe indicar al menos un campo a modificar");
+        }
+
+        Long version = VERSIONES.versionEsperada(ifMatch);
+        boolean actualizado;
+        try {
+            actualizado = usuarioService.actualizarParcial(id, dto, version);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El rut o el correo ya están registrados");
+        }
+        if (!actualizado) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
 
-        usuarioService.delete(id);
+        ResponseEntity.HeadersBuilder<?> respuesta = ResponseEntity.noContent();
+        if (version != null) {
+            respuesta.eTag(ControlDeVersiones.etag(version + 1));
+        }
+        return respuesta.build();
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "412", description = "El usuario ya no está en la versión enviada en If-Match")
+    })
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Eliminar usuario", description = "Elimina un usuario por su ID. Con If-Match solo se elimina si el usuario sigue en esa versión")
+    public ResponseEntity<?> eliminarUsuario(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = VERSIONES.versionEsperada(ifMatch);
+        boolean eliminado;
+        try {
+            eliminado = version == null
+                ? usuarioService.delete(id)
+                : usuarioService.delete(id, version);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        }
+        if (!eliminado) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
 
         Map<String, Object> respuesta = new HashMap<>();
         respuesta.put("mensaje", "Usuario eliminado exitosamente");
         respuesta.put("timestamp", LocalDateTime.now().toString());
         respuesta.put("links", List.of(
-            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios()).withRel("usuarios").getHref()
+            linkTo(methodOn(UsuarioControllerV2.class).getAllUsuarios(null)).withRel("usuarios").getHref()
         ));
 
         return ResponseEntity.ok(respuesta);
     }
 
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "No se indicaron ids o son demasiados")
+    })
+    @DeleteMapping
+    @Operation(summary = "Eliminar varios usuarios", description = "Elimina con un solo DELETE los usuarios indicados en 'ids' (hasta "
+        + UsuarioService.MAX_IDS_POR_ELIMINACION + "). Los ids que no existen se ignoran; la respuesta indica cuántos se eliminaron")
+    public ResponseEntity<Map<String, Object>> eliminarUsuarios(@RequestParam List<Integer> ids) {
+        Set<Integer> distintos = new LinkedHashSet<>(ids);
+        if (distintos.isEmpty() || distintos.size() > UsuarioService.MAX_IDS_POR_ELIMINACION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Se deben indicar entre 1 y " + UsuarioService.MAX_IDS_POR_ELIMINACION + " ids");
+        }
+
+        int eliminados = usuarioService.deleteAll(distintos);
+
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("mensaje", "Usuarios eliminados exitosamente");
+        respuesta.put("eliminados", eliminados);
+        respuesta.put("noEncontrados", distintos.size() - eliminados);
+        respuesta.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.ok(respuesta);
+    }
 
 }
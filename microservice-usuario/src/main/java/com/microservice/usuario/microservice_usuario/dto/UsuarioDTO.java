@@ -1,5 +1,6 @@
 package com.microservice.usuario.microservice_usuario.dto;
 
+import com.microservice.usuario.microservice_usuario.validation.RutValido;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ import lombok.NoArgsConstructor;
 public class UsuarioDTO {
     
     private int id_usuario;
+    @RutValido
     private String rut;
     private String nombres;
     private String apellidos;
@@ -0,0 +1,36 @@
+package com.microservice.usuario.microservice_usuario.dto;
+
+import com.microservice.usuario.microservice_usuario.model.Usuario;
+
+// Copia entre UsuarioDTO y la entidad Usuario, la misma para los controladores v1 y v2
+public final class UsuarioMapper {
+
+    private UsuarioMapper() {
+    }
+
+    // Usuario nuevo (id 0) con los datos del DTO
+    public static Usuario aEntidad(UsuarioDTO dto) {
+        return aEntidad(0, dto);
+    }
+
+    public static Usuario aEntidad(int id_usuario, UsuarioDTO dto) {
+        Usuario usuario = new Usuario();
+        usuario.setId_usuario(id_usuario);
+        usuario.setRut(dto.getRut());
+        usuario.setNombres(dto.getNombres());
+        usuario.setApellidos(dto.getApellidos());
+        usuario.setCorreo(dto.getCorreo());
+        return usuario;
+    }
+
+    public static UsuarioDTO aDto(Usuario usuario) {
+        UsuarioDTO dto = new UsuarioDTO();
+        dto.setId_usuario(usuario.getId_usuario());
+        dto.setRut(usuario.getRut());
+        dto.setNombres(usuario.getNombres());
+        dto.setApellidos(usuario.getApellidos());
+        dto.setCorreo(usuario.getCorreo());
+        return dto;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.microservice.usuario.microservice_usuario.dto;
+
+import com.microservice.usuario.microservice_usuario.validation.RutValido;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cambios parciales de un usuario: solo se modifican los campos que vienen con valor (no null)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioPatchDTO {
+
+    @RutValido
+    private String rut;
+
+    @Size(min=2, max=100, message="Los nombres deben tener entre 2 y 100 caracteres")
+    private String nombres;
+
+    @Size(min=2, max=100, message="Los apellidos deben tener entre 2 y 100 caracteres")
+    private String apellidos;
+
+    @Email(message="El formato del correo no es válido")
+    private String correo;
+
+}
@@ -0,0 +1,16 @@
+package com.microservice.usuario.microservice_usuario.dto;
+
+import lombok.Value;
+
+// Usuario de solo lectura que las consultas construyen directamente (SELECT new ...), sin pasar
+// por una entidad administrada. Se serializa igual que la entidad Usuario.
+@Value
+public class UsuarioView {
+
+    int id_usuario;
+    String rut;
+    String nombres;
+    String apellidos;
+    String correo;
+
+}
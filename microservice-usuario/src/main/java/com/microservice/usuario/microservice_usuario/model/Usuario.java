@@ -1,14 +1,17 @@
 package com.microservice.usuario.microservice_usuario.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.microservice.usuario.microservice_usuario.validation.RutValido;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,10 +32,7 @@ public class Usuario {
 
     @Column(name="rut", unique=true, length=13, nullable=false)
     @NotBlank(message="Rut es obligatorio")
-    @Pattern(
-        regexp="^[0-9]{7,8}-[0-9Kk]$",
-        message= "El rut debe tener formato 12345678-9 (Chile)"
-    )
+    @RutValido
     private String rut;
 
     @Column(nullable=false)
@@ -49,6 +49,13 @@ public class Usuario {
     @NotBlank(message="El correo es obligatorio")
     @Email(message="El formato del correo no es válido")
     private String correo;
-    
+
+    // Aumenta con cada modificación. Es el ETag del usuario y con If-Match permite rechazar
+    // una actualización basada en una versión que ya cambió. Null indica que quien guarda
+    // no conoce la versión (ver UsuarioService.save).
+    @Version
+    @JsonIgnore
+    private Long version;
+
 
 }
@@ -1,11 +1,77 @@
 package com.microservice.usuario.microservice_usuario.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario,Integer>{
 
+    String VISTA = "SELECT new com.microservice.usuario.microservice_usuario.dto.UsuarioView(u.id_usuario, u.rut, "
+            + "u.nombres, u.apellidos, u.correo) FROM Usuario u ";
+
+    // Resume el estado de toda la tabla sin leer las filas: un alta o baja cambia la cantidad
+    // o el id máximo, y una modificación cambia la suma de versiones
+    interface Huella {
+        Long getCantidad();
+        Long getSumaVersiones();
+        Integer getMaxId();
+    }
+
+    // Consultas de solo lectura: devuelven UsuarioView sin cargar entidades en el contexto de persistencia
+    @Query(VISTA + "WHERE u.id_usuario = :id")
+    Optional<UsuarioView> findViewById(@Param("id") int id);
+
+    @Query(VISTA + "ORDER BY u.id_usuario ASC")
+    List<UsuarioView> findAllViews();
+
+    // Usan los índices únicos de rut y correo. Con la collation de MySQL (no distingue mayúsculas)
+    // "12345678-k" encuentra "12345678-K" y "Ana@Mail.com" encuentra "ana@mail.com".
+    Optional<Usuario> findByRut(String rut);
+
+    Optional<Usuario> findByCorreo(String correo);
+
+    @Query("SELECT u.version FROM Usuario u WHERE u.id_usuario = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    @Query("SELECT COUNT(u) AS cantidad, COALESCE(SUM(u.version), 0) AS sumaVersiones, "
+            + "COALESCE(MAX(u.id_usuario), 0) AS maxId FROM Usuario u")
+    Huella findHuella();
+
+    // Modifica en una sola sentencia los campos que no son null y aumenta la versión. Con versión
+    // solo actualiza si el usuario sigue en ella. Devuelve las filas modificadas: 0 si el usuario
+    // no existe o cambió de versión.
+    @Modifying
+    @Query("UPDATE Usuario u SET u.rut = COALESCE(:rut, u.rut), "
+            + "u.nombres = COALESCE(:nombres, u.nombres), "
+            + "u.apellidos = COALESCE(:apellidos, u.apellidos), "
+            + "u.correo = COALESCE(:correo, u.correo), "
+            + "u.version = u.version + 1 "
+            + "WHERE u.id_usuario = :id AND (:version IS NULL OR u.version = :version)")
+    int actualizarParcial(@Param("id") int id, @Param("version") Long version, @Param("rut") String rut,
+            @Param("nombres") String nombres, @Param("apellidos") String apellidos, @Param("correo") String correo);
+
+    // Un solo DELETE, sin cargar la entidad como deleteById; 0 filas indica que no existe
+    @Modifying
+    @Query("DELETE FROM Usuario u WHERE u.id_usuario = :id")
+    int deleteByIdDirecto(@Param("id") int id);
+
+    // Elimina solo si la versión no cambió; 0 filas indica una modificación concurrente
+    @Modifying
+    @Query("DELETE FROM Usuario u WHERE u.id_usuario = :id AND u.version = :version")
+    int deleteByIdAndVersion(@Param("id") int id, @Param("version") long version);
+
+    @Modifying
+    @Query("DELETE FROM Usuario u WHERE u.id_usuario IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
 }
@@ -0,0 +1,384 @@
+package com.microservice.usuario.microservice_usuario.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
+import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+
+// Índice en memoria para buscar usuarios por parte de sus nombres o apellidos, sin LIKE '%x%' en la
+// base de datos. Cada palabra se guarda sin tildes y en minúsculas ("Peña" -> "pena") junto a los ids
+// que la tienen, en un mapa ordenado para encontrar prefijos; los trigramas de cada palabra permiten
+// encontrar palabras con un error de tipeo. Las palabras distintas son muchas menos que los usuarios
+// (los nombres se repiten), así que la búsqueda difusa recorre el vocabulario y no los usuarios.
+//
+// Se construye al iniciar y UsuarioService lo actualiza después del commit de cada alta, modificación
+// o eliminación. Cada instancia tiene su propio índice: un cambio hecho a través de otra instancia
+// solo se ve aquí al reiniciar.
+@Service
+public class IndiceNombres {
+
+    public static final int MAX_RESULTADOS = 50;
+    public static final int LARGO_MINIMO_CONSULTA = 2;
+    // Usuarios que se evalúan como máximo por búsqueda. Solo se alcanza cuando pocos candidatos
+    // tienen todas las palabras de la consulta; el resultado puede quedar incompleto.
+    static final int MAX_CANDIDATOS = 20_000;
+
+    private static final int PUNTAJE_EXACTO = 3;
+    private static final int PUNTAJE_PREFIJO = 2;
+    private static final int PUNTAJE_DIFUSO = 1;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private record Entrada(UsuarioView usuario, String[] palabras) {
+    }
+
+    private record Candidato(Entrada entrada, int puntaje, int orden) {
+    }
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Map<Integer, Entrada> entradas = new ConcurrentHashMap<>();
+    // palabra -> ids de los usuarios que la tienen
+    private final NavigableMap<String, Set<Integer>> idsPorPalabra = new ConcurrentSkipListMap<>();
+    // trigrama -> palabras que lo contienen
+    private final Map<String, Set<String>> palabrasPorTrigrama = new ConcurrentHashMap<>();
+
+    // Después de DataLoader y de los demás CommandLineRunner
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void construir() {
+        entradas.clear();
+        idsPorPalabra.clear();
+        palabrasPorTrigrama.clear();
+        usuarioRepository.findAllViews().forEach(this::agregar);
+    }
+
+    public int getCantidad() {
+        return entradas.size();
+    }
+
+    // Usuarios cuyos nombres y apellidos contienen todas las palabras de la consulta, ya sea exacta,
+    // como prefijo o con un error de tipeo, ordenados por puntaje (exacta > prefijo > error). Con igual
+    // puntaje van primero las palabras exactas y luego los prefijos en orden alfabético.
+    //
+    // Los candidatos salen de un solo término, el que menos usuarios tienen tal cual (o el más largo si
+    // ninguno aparece tal cual), recorriendo primero sus coincidencias exactas, luego sus prefijos y al
+    // final las palabras con error; los demás términos se comparan contra las palabras de cada candidato. Como el puntaje máximo solo baja de un
+    // grupo al siguiente, la búsqueda termina apenas los resultados no se pueden mejorar: con un nombre
+    // común se evalúan unas decenas de usuarios y no todos los que lo tienen.
+    public List<UsuarioView> buscar(String consulta, int limite) {
+        List<String> terminos = List.copyOf(new LinkedHashSet<>(palabras(consulta)));
+        if (terminos.isEmpty() || limite < 1) {
+            return List.of();
+        }
+
+        String principal = terminos.stream()
+                .min(Comparator.comparingInt(this::usuariosConPalabra)
+                        .thenComparing(Comparator.comparingInt(String::length).reversed()))
+                .get();
+        int otros = PUNTAJE_EXACTO * (terminos.size() - 1);
+        Busqueda busqueda = new Busqueda(terminos, limite);
+
+        if (!busqueda.evaluar(idsPorPalabra.get(principal), PUNTAJE_EXACTO + otros)) {
+            return busqueda.resultados();
+        }
+        for (Set<Integer> conPrefijo : idsPorPalabra.subMap(principal, false, principal + Character.MAX_VALUE, false).values()) {
+            if (!busqueda.evaluar(conPrefijo, PUNTAJE_PREFIJO + otros)) {
+                return busqueda.resultados();
+            }
+        }
+        for (String palabra : parecidas(principal)) {
+            if (!busqueda.evaluar(idsPorPalabra.get(palabra), PUNTAJE_DIFUSO + otros)) {
+                return busqueda.resultados();
+            }
+        }
+        return busqueda.resultados();
+    }
+
+    private int usuariosConPalabra(String palabra) {
+        Set<Integer> ids = idsPorPalabra.get(palabra);
+        return ids == null ? Integer.MAX_VALUE : ids.size();
+    }
+
+    public void guardar(UsuarioView usuario) {
+        despuesDelCommit(() -> reemplazar(usuario));
+    }
+
+    // Aplica los campos informados en el PATCH sobre la entrada actual
+    public void actualizar(int id_usuario, UsuarioPatchDTO cambios) {
+        despuesDelCommit(() -> {
+            synchronized (this) {
+                Entrada actual = entradas.get(id_usuario);
+                if (actual == null) {
+                    return;
+                }
+                UsuarioView antes = actual.usuario();
+                reemplazar(new UsuarioView(id_usuario,
+                        cambios.getRut() != null ? cambios.getRut() : antes.getRut(),
+                        cambios.getNombres() != null ? cambios.getNombres() : antes.getNombres(),
+                        cambios.getApellidos() != null ? cambios.getApellidos() : antes.getApellidos(),
+                        cambios.getCorreo() != null ? cambios.getCorreo() : antes.getCorreo()));
+            }
+        });
+    }
+
+    public void eliminar(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        despuesDelCommit(() -> {
+            synchronized (this) {
+                copia.forEach(this::quitar);
+            }
+        });
+    }
+
+    // Palabras sin tildes ni mayúsculas: "José-Luis Peña" -> [jose, luis, pena]
+    public static List<String> palabras(String texto) {
+        if (texto == null) {
+            return List.of();
+        }
+        String plano = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARADORES.splitAsStream(plano).filter(palabra -> !palabra.isEmpty()).toList();
+    }
+
+    // Si hay una transacción activa el índice se modifica solo si se confirma
+    private void despuesDelCommit(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private synchronized void reemplazar(UsuarioView usuario) {
+        quitar(usuario.getId_usuario());
+        agregar(usuario);
+    }
+
+    private void agregar(UsuarioView usuario) {
+        List<String> palabras = new ArrayList<>(palabras(usuario.getNombres()));
+        palabras.addAll(palabras(usuario.getApellidos()));
+        String[] distintas = new LinkedHashSet<>(palabras).toArray(String[]::new);
+        entradas.put(usuario.getId_usuario(), new Entrada(usuario, distintas));
+
+        for (String palabra : distintas) {
+            idsPorPalabra.computeIfAbsent(palabra, p -> {
+                for (String trigrama : trigramas(p)) {
+                    palabrasPorTrigrama.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(p);
+                }
+                return ConcurrentHashMap.newKeySet();
+            }).add(usuario.getId_usuario());
+        }
+    }
+
+    private void quitar(int id_usuario) {
+        Entrada entrada = entradas.remove(id_usuario);
+        if (entrada == null) {
+            return;
+        }
+        // Las palabras que ya nadie usa salen del vocabulario para que no crezca con cada cambio
+        for (String palabra : entrada.palabras()) {
+            Set<Integer> ids = idsPorPalabra.get(palabra);
+            ids.remove(id_usuario);
+            if (ids.isEmpty()) {
+                idsPorPalabra.remove(palabra);
+                for (String trigrama : trigramas(palabra)) {
+                    Set<String> conTrigrama = palabrasPorTrigrama.get(trigrama);
+                    conTrigrama.remove(palabra);
+                    if (conTrigrama.isEmpty()) {
+                        palabrasPorTrigrama.remove(trigrama);
+                    }
+                }
+            }
+        }
+    }
+
+    // Mejores resultados de una búsqueda, en el orden en que se evaluaron los candidatos
+    private final class Busqueda {
+
+        private final List<String> terminos;
+        private final int limite;
+        // El peor resultado primero: menor puntaje y, con igual puntaje, el evaluado más tarde
+        private final PriorityQueue<Candidato> mejores;
+        private final Set<Integer> vistos = new HashSet<>();
+        private int evaluados;
+
+        Busqueda(List<String> terminos, int limite) {
+            this.terminos = terminos;
+            this.limite = limite;
+            this.mejores = new PriorityQueue<>(limite + 1, Comparator.comparingInt(Candidato::puntaje)
+                    .thenComparing(Comparator.comparingInt(Candidato::orden).reversed()));
+        }
+
+        // Evalúa los ids de un grupo cuyo puntaje no puede superar maximo. Devuelve false cuando
+        // ningún candidato posterior puede entrar a los resultados o se alcanzó MAX_CANDIDATOS.
+        boolean evaluar(Set<Integer> ids, int maximo) {
+            if (ids == null) {
+                return true;
+            }
+            for (Integer id : ids) {
+                if (mejores.size() == limite && mejores.peek().puntaje() >= maximo) {
+                    return false;
+                }
+                if (evaluados == MAX_CANDIDATOS) {
+                    return false;
+                }
+                if (!vistos.add(id)) {
+                    continue;
+                }
+                Entrada entrada = entradas.get(id);
+                if (entrada == null) {
+                    continue;
+                }
+                evaluados++;
+                int puntaje = puntaje(entrada);
+                if (puntaje > 0) {
+                    mejores.add(new Candidato(entrada, puntaje, evaluados));
+                    if (mejores.size() > limite) {
+                        mejores.poll();
+                    }
+                }
+            }
+            return true;
+        }
+
+        private int puntaje(Entrada entrada) {
+            int total = 0;
+            for (String termino : terminos) {
+                int delTermino = IndiceNombres.puntaje(termino, entrada.palabras());
+                if (delTermino == 0) {
+                    return 0;
+                }
+                total += delTermino;
+            }
+            return total;
+        }
+
+        List<UsuarioView> resultados() {
+            return mejores.stream()
+                    .sorted(mejores.comparator().reversed())
+                    .map(candidato -> candidato.entrada().usuario())
+                    .toList();
+        }
+    }
+
+    // Palabras del vocabulario a distancia de edición permitida del término. Una edición cambia a lo
+    // sumo 3 trigramas y una transposición ("maira" por "maria") hasta 4, así que solo se comparan
+    // las palabras que comparten suficientes trigramas.
+    private List<String> parecidas(String termino) {
+        int distancia = distanciaPermitida(termino);
+        if (distancia == 0) {
+            return List.of();
+        }
+        List<String> trigramas = trigramas(termino);
+        Map<String, Integer> compartidos = new HashMap<>();
+        for (String trigrama : trigramas) {
+            for (String palabra : palabrasPorTrigrama.getOrDefault(trigrama, Set.of())) {
+                compartidos.merge(palabra, 1, Integer::sum);
+            }
+        }
+        int minimo = Math.max(1, trigramas.size() - 4 * distancia);
+        List<String> parecidas = new ArrayList<>();
+        compartidos.forEach((palabra, cantidad) -> {
+            if (cantidad >= minimo && !palabra.startsWith(termino)
+                    && distancia(termino, palabra, distancia) <= distancia) {
+                parecidas.add(palabra);
+            }
+        });
+        return parecidas;
+    }
+
+    private static int puntaje(String termino, String[] palabras) {
+        int mejor = 0;
+        int permitida = distanciaPermitida(termino);
+        for (String palabra : palabras) {
+            if (palabra.equals(termino)) {
+                return PUNTAJE_EXACTO;
+            }
+            if (palabra.startsWith(termino)) {
+                mejor = PUNTAJE_PREFIJO;
+            } else if (mejor == 0 && permitida > 0 && distancia(termino, palabra, permitida) <= permitida) {
+                mejor = PUNTAJE_DIFUSO;
+            }
+        }
+        return mejor;
+    }
+
+    // Sin errores bajo 4 letras, uno hasta 7 y dos desde 8
+    private static int distanciaPermitida(String termino) {
+        return termino.length() < 4 ? 0 : termino.length() < 8 ? 1 : 2;
+    }
+
+    // Trigramas con bordes: "ana" -> [$an, ana, na$]
+    private static List<String> trigramas(String palabra) {
+        String conBordes = "$" + palabra + "$";
+        List<String> trigramas = new ArrayList<>(conBordes.length() - 2);
+        for (int i = 0; i + 3 <= conBordes.length(); i++) {
+            trigramas.add(conBordes.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    // Distancia de Damerau-Levenshtein (con transposiciones); devuelve maximo + 1 en cuanto la supera
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] antepenultima = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, actual[j - 1] + 1), anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, antepenultima[j - 2] + 1);
+                }
+                actual[j] = valor;
+                minimoFila = Math.min(minimoFila, valor);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] libre = antepenultima;
+            antepenultima = anterior;
+            anterior = actual;
+            actual = libre;
+        }
+        return anterior[b.length()];
+    }
+
+}
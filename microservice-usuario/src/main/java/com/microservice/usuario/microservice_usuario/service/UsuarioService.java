@@ -1,13 +1,31 @@
 package com.microservice.usuario.microservice_usuario.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import com.microservice.usuario.microservice_usuario.config.CacheConfig;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.validation.Rut;
 
 import jakarta.transaction.Transactional;
 
@@ -15,27 +33,192 @@ import jakarta.transaction.Transactional;
 @Transactional
 public class UsuarioService {
 
+    public static final int MAX_IDS_POR_ELIMINACION = 1000;
+    public static final int MAX_IDS_POR_CONSULTA = 10_000;
+    // Ids por cada IN; una consulta de más ids se divide en varias
+    public static final int TAMANO_BLOQUE_CONSULTA = 1000;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private IndiceNombres indiceNombres;
+
     public List<Usuario> findAll(){
         return usuarioRepository.findAll();
     }
 
+    // Igual que findAll, pero sin materializar entidades
+    public List<UsuarioView> findAllViews(){
+        return usuarioRepository.findAllViews();
+    }
+
+    // Cambia cada vez que se crea, modifica o elimina un usuario
+    public String getHuella(){
+        UsuarioRepository.Huella huella = usuarioRepository.findHuella();
+        return huella.getCantidad() + "-" + huella.getSumaVersiones() + "-" + huella.getMaxId();
+    }
+
+    // sync: si varias peticiones buscan el mismo usuario sin estar en caché, solo una consulta la base de datos
+    @Cacheable(cacheNames = CacheConfig.USUARIOS, key = "#id_usuario", sync = true)
     public Optional<Usuario> getUserById(int id_usuario){
         return usuarioRepository.findById(id_usuario);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_VISTA, key = "#id_usuario", sync = true)
+    public Optional<UsuarioView> getUserViewById(int id_usuario){
+        return usuarioRepository.findViewById(id_usuario);
+    }
+
+    // Usuarios de los ids indicados, en el orden de los ids; los que no existen se omiten.
+    // Se consultan con un IN por cada TAMANO_BLOQUE_CONSULTA ids, en vez de una consulta por id.
+    public List<Usuario> findAllByIds(Collection<Integer> ids){
+        List<Integer> distintos = List.copyOf(new LinkedHashSet<>(ids));
+        Map<Integer, Usuario> encontrados = new HashMap<>(distintos.size() * 2);
+        for (int desde = 0; desde < distintos.size(); desde += TAMANO_BLOQUE_CONSULTA) {
+            List<Integer> bloque = distintos.subList(desde, Math.min(desde + TAMANO_BLOQUE_CONSULTA, distintos.size()));
+            usuarioRepository.findAllById(bloque).forEach(usuario -> encontrados.put(usuario.getId_usuario(), usuario));
+        }
+        return distintos.stream()
+                .map(encontrados::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Búsquedas por identidad. Las cachés IDS_POR_RUT e IDS_POR_CORREO guardan solo el id del usuario
+    // y el usuario se toma de la caché USUARIOS, que save, actualizarParcial y delete ya invalidan; si
+    // el usuario ya no está ahí o su RUT/correo cambió, se vuelve a consultar por el índice único.
+    // Así un acierto no toca la base de datos y una entrada antigua nunca entrega otro usuario.
+    // La clave por RUT es su cuerpo (ver Rut.cuerpo).
+    public Optional<Usuario> getUserByRut(int cuerpoRut){
+        return buscarPorIdentidad(CacheConfig.IDS_POR_RUT, cuerpoRut,
+                () -> usuarioRepository.findByRut(Rut.formatear(cuerpoRut)),
+                usuario -> Rut.cuerpo(usuario.getRut()));
+    }
+
+    // correo debe venir normalizado (ver normalizarCorreo)
+    public Optional<Usuario> getUserByCorreo(String correo){
+        return buscarPorIdentidad(CacheConfig.IDS_POR_CORREO, correo,
+                () -> usuarioRepository.findByCorreo(correo),
+                usuario -> normalizarCorreo(usuario.getCorreo()));
+    }
+
+    private <K> Optional<Usuario> buscarPorIdentidad(String indice, K clave,
+            Supplier<Optional<Usuario>> consulta, Function<Usuario, K> claveDe){
+        Cache ids = cacheManager.getCache(indice);
+        Cache usuarios = cacheManager.getCache(CacheConfig.USUARIOS);
+
+        Integer id = ids.get(clave, Integer.class);
+        if (id != null) {
+            Usuario enCache = usuarios.get(id, Usuario.class);
+            if (enCache != null && clave.equals(claveDe.apply(enCache))) {
+                return Optional.of(enCache);
+            }
+        }
+
+        Optional<Usuario> usuario = consulta.get();
+        if (usuario.isPresent()) {
+            ids.put(clave, usuario.get().getId_usuario());
+            // putIfAbsent: no reemplaza al usuario que getUserById ya haya cargado, que puede ser más nuevo
+            usuarios.putIfAbsent(usuario.get().getId_usuario(), usuario.get());
+        } else if (id != null) {
+            ids.evict(clave);
+        }
+        return usuario;
+    }
+
+    public static String normalizarCorreo(String correo){
+        return correo == null ? null : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
     public Usuario getUserById2(int id){
         return usuarioRepository.findById(id).get();
     }
 
+    // La entrada de la caché se invalida antes (por si la operación falla) y después del commit
+    // (por si otra petición volvió a cargar el valor anterior mientras tanto).
+    // Si el usuario trae versión y no coincide con la guardada, falla con OptimisticLockingFailureException;
+    // sin versión se modifica la versión actual.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#usuario.id_usuario", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#result.id_usuario")
+    })
     public Usuario save(Usuario usuario){
-        return usuarioRepository.save(usuario);
+        // Un mismo RUT se guarda siempre igual ("12.345.678-k" -> "12345678-K") para que el índice único lo detecte
+        usuario.setRut(Rut.normalizar(usuario.getRut()));
+        if (usuario.getId_usuario() != 0 && usuario.getVersion() == null) {
+            usuario.setVersion(usuarioRepository.findVersionById(usuario.getId_usuario()).orElse(0L));
+        }
+        Usuario guardado = usuarioRepository.save(usuario);
+        indiceNombres.guardar(new UsuarioView(guardado.getId_usuario(), guardado.getRut(), guardado.getNombres(),
+                guardado.getApellidos(), guardado.getCorreo()));
+        return guardado;
+    }
+
+    // Aplica solo los campos informados con un único UPDATE, sin cargar el usuario. Devuelve false
+    // si el usuario no existe; con versión distinta falla con OptimisticLockingFailureException.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario")
+    })
+    public boolean actualizarParcial(int id_usuario, UsuarioPatchDTO cambios, Long version){
+        cambios.setRut(Rut.normalizar(cambios.getRut()));
+        int filas = usuarioRepository.actualizarParcial(id_usuario, version, cambios.getRut(),
+                cambios.getNombres(), cambios.getApellidos(), cambios.getCorreo());
+        if (filas == 0) {
+            // Solo en el caso de error se consulta si el usuario existe
+            if (version != null && usuarioRepository.existsById(id_usuario)) {
+                throw new OptimisticLockingFailureException("El usuario " + id_usuario + " ya no está en la versión " + version);
+            }
+            return false;
+        }
+        indiceNombres.actualizar(id_usuario, cambios);
+        return true;
+    }
+
+    // Un solo DELETE; devuelve false si el usuario no existe
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario")
+    })
+    public boolean delete(int id_usuario){
+        if (usuarioRepository.deleteByIdDirecto(id_usuario) == 0) {
+            return false;
+        }
+        indiceNombres.eliminar(List.of(id_usuario));
+        return true;
+    }
+
+    // Elimina el usuario solo si sigue en la versión indicada. Devuelve false si el usuario no existe.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, key = "#id_usuario")
+    })
+    public boolean delete(int id_usuario, long version){
+        if (usuarioRepository.deleteByIdAndVersion(id_usuario, version) == 0) {
+            // Solo en el caso de error se consulta si el usuario existe
+            if (usuarioRepository.existsById(id_usuario)) {
+                throw new OptimisticLockingFailureException("El usuario " + id_usuario + " ya no está en la versión " + version);
+            }
+            return false;
+        }
+        indiceNombres.eliminar(List.of(id_usuario));
+        return true;
     }
 
-    public void delete(int id_usuario){
-        usuarioRepository.deleteById(id_usuario);
+    // Eliminación masiva para tareas de limpieza en un solo DELETE; los ids que no existen se ignoran.
+    // Se vacía la caché completa en vez de invalidar cada id.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA}, allEntries = true)
+    })
+    public int deleteAll(Collection<Integer> ids){
+        int eliminados = usuarioRepository.deleteByIdIn(ids);
+        indiceNombres.eliminar(ids);
+        return eliminados;
     }
 
 }
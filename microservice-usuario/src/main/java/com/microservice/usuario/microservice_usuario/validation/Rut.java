@@ -0,0 +1,105 @@
+package com.microservice.usuario.microservice_usuario.validation;
+
+// RUT chileno. Se lee carácter a carácter, sin expresiones regulares ni Strings intermedios, así que
+// validar o buscar por RUT no crea objetos. El cuerpo (el número sin dígito verificador) identifica
+// al RUT por sí solo y sirve como clave numérica: "12.345.678-5", "12345678-5" y "123456785" -> 12345678.
+public final class Rut {
+
+    public static final int INVALIDO = -1;
+    // 7 u 8 dígitos, como exigía el formato anterior
+    public static final int CUERPO_MINIMO = 1_000_000;
+
+    private Rut() {
+    }
+
+    // Cuerpo del RUT, o INVALIDO si no tiene forma de RUT o el dígito verificador no corresponde.
+    // Acepta puntos de miles (todos o ninguno), guion opcional, "k" o "K" y espacios alrededor.
+    public static int cuerpo(CharSequence rut) {
+        if (rut == null) {
+            return INVALIDO;
+        }
+        int inicio = 0;
+        int fin = rut.length();
+        while (inicio < fin && rut.charAt(inicio) == ' ') {
+            inicio++;
+        }
+        while (fin > inicio && rut.charAt(fin - 1) == ' ') {
+            fin--;
+        }
+        if (fin - inicio < 2) {
+            return INVALIDO;
+        }
+
+        char verificador = Character.toUpperCase(rut.charAt(--fin));
+        if (rut.charAt(fin - 1) == '-') {
+            fin--;
+        }
+
+        int cuerpo = 0;
+        int digitos = 0;
+        // Dígitos desde el último punto; -1 mientras no aparezca ninguno
+        int trasPunto = -1;
+        for (int i = inicio; i < fin; i++) {
+            char c = rut.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 8) {
+                    return INVALIDO;
+                }
+                cuerpo = cuerpo * 10 + (c - '0');
+                if (trasPunto >= 0) {
+                    trasPunto++;
+                }
+            } else if (c == '.') {
+                // El primer grupo tiene de 1 a 3 dígitos y los siguientes exactamente 3
+                if (trasPunto >= 0 ? trasPunto != 3 : digitos == 0 || digitos > 3) {
+                    return INVALIDO;
+                }
+                trasPunto = 0;
+            } else {
+                return INVALIDO;
+            }
+        }
+        if (trasPunto >= 0 && trasPunto != 3) {
+            return INVALIDO;
+        }
+        if (cuerpo < CUERPO_MINIMO || digitoVerificador(cuerpo) != verificador) {
+            return INVALIDO;
+        }
+        return cuerpo;
+    }
+
+    public static boolean esValido(CharSequence rut) {
+        return cuerpo(rut) != INVALIDO;
+    }
+
+    // Módulo 11: '0' a '9' o 'K'
+    public static char digitoVerificador(int cuerpo) {
+        int suma = 0;
+        int factor = 2;
+        for (int resto = cuerpo; resto > 0; resto /= 10) {
+            suma += resto % 10 * factor;
+            factor = factor == 7 ? 2 : factor + 1;
+        }
+        int digito = 11 - suma % 11;
+        return digito == 11 ? '0' : digito == 10 ? 'K' : (char) ('0' + digito);
+    }
+
+    // Forma en que se guarda: "12345678-5"
+    public static String formatear(int cuerpo) {
+        return cuerpo + "-" + digitoVerificador(cuerpo);
+    }
+
+    // El RUT en la forma en que se guarda. Si ya está en esa forma se devuelve el mismo String, y si
+    // no es válido se devuelve sin cambios para que lo rechace la validación.
+    public static String normalizar(String rut) {
+        int cuerpo = cuerpo(rut);
+        if (cuerpo == INVALIDO) {
+            return rut;
+        }
+        int largo = rut.length();
+        boolean guardado = largo == (cuerpo >= 10_000_000 ? 10 : 9)
+                && rut.charAt(largo - 2) == '-' && rut.charAt(largo - 1) != 'k';
+        return guardado ? rut : formatear(cuerpo);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.microservice.usuario.microservice_usuario.validation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+// RUT con formato válido y dígito verificador correcto (ver Rut.cuerpo). null se considera válido;
+// para exigirlo se combina con @NotBlank.
+@Documented
+@Constraint(validatedBy = RutValidoValidator.class)
+@Target({ ElementType.FIELD, ElementType.PARAMETER })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RutValido {
+
+    String message() default "El rut debe tener formato 12345678-5 o 12.345.678-5 (Chile) y un dígito verificador válido";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+}
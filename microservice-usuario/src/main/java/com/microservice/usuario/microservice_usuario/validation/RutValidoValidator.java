@@ -0,0 +1,13 @@
+package com.microservice.usuario.microservice_usuario.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class RutValidoValidator implements ConstraintValidator<RutValido, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence rut, ConstraintValidatorContext context) {
+        return rut == null || Rut.esValido(rut);
+    }
+
+}
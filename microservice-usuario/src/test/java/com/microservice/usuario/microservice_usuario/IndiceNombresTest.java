@@ -0,0 +1,84 @@
+package com.microservice.usuario.microservice_usuario;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
+import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
+
+@ExtendWith(MockitoExtension.class)
+public class IndiceNombresTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private IndiceNombres indiceNombres;
+
+    @BeforeEach
+    void setUp() {
+        when(usuarioRepository.findAllViews()).thenReturn(List.of(
+            new UsuarioView(1, "11111111-1", "María", "Penaloza Soto", "maria@mail.com"),
+            new UsuarioView(2, "12345678-5", "José Luis", "Peña González", "jose@mail.com"),
+            new UsuarioView(3, "22222222-2", "Pedro", "Gonzalo Rojas", "pedro@mail.com")));
+        indiceNombres.construir();
+    }
+
+    @Test
+    void testBuscar_SinTildesNiMayusculas() {
+        assertEquals(List.of(2), ids(indiceNombres.buscar("JOSÉ peña", 10)));
+        assertEquals(List.of(1), ids(indiceNombres.buscar("maria", 10)));
+    }
+
+    @Test
+    void testBuscar_ExactaAntesQuePrefijo() {
+        // "pena" es exacta para Peña y prefijo de Penaloza
+        assertEquals(List.of(2, 1), ids(indiceNombres.buscar("pena", 10)));
+        // Con igual puntaje, los prefijos en orden alfabético: pena antes que penaloza
+        assertEquals(List.of(2, 1), ids(indiceNombres.buscar("pen", 10)));
+        assertEquals(List.of(2), ids(indiceNombres.buscar("pena", 1)));
+    }
+
+    @Test
+    void testBuscar_ErrorDeTipeoYTodasLasPalabras() {
+        assertEquals(List.of(2), ids(indiceNombres.buscar("gonzlez", 10)));
+        assertEquals(List.of(3), ids(indiceNombres.buscar("pedro gonzalo", 10)));
+        assertTrue(indiceNombres.buscar("maria rojas", 10).isEmpty());
+    }
+
+    @Test
+    void testBuscar_LetrasTranspuestas() {
+        // Solo comparten el trigrama "$ma": la transposición cambia 4 de los 5
+        assertEquals(List.of(1), ids(indiceNombres.buscar("maira", 10)));
+        assertEquals(List.of(3), ids(indiceNombres.buscar("perdo", 10)));
+    }
+
+    @Test
+    void testActualizarYEliminar() {
+        UsuarioPatchDTO cambios = new UsuarioPatchDTO();
+        cambios.setApellidos("Rojas");
+        indiceNombres.actualizar(1, cambios);
+        indiceNombres.eliminar(List.of(3));
+
+        assertEquals(List.of(1), ids(indiceNombres.buscar("maria rojas", 10)));
+        assertTrue(indiceNombres.buscar("pedro", 10).isEmpty());
+        assertTrue(indiceNombres.buscar("penaloza", 10).isEmpty());
+        assertEquals(2, indiceNombres.getCantidad());
+    }
+
+    private static List<Integer> ids(List<UsuarioView> usuarios) {
+        return usuarios.stream().map(UsuarioView::getId_usuario).toList();
+    }
+
+}
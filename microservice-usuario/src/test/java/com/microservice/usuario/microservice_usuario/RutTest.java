@@ -0,0 +1,47 @@
+package com.microservice.usuario.microservice_usuario;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+import com.microservice.usuario.microservice_usuario.validation.Rut;
+
+public class RutTest {
+
+    @Test
+    void testCuerpo_FormatosAceptados() {
+        assertEquals(12345678, Rut.cuerpo("12345678-5"));
+        assertEquals(12345678, Rut.cuerpo("12.345.678-5"));
+        assertEquals(12345678, Rut.cuerpo("123456785"));
+        assertEquals(21150403, Rut.cuerpo(" 21.150.403-k "));
+        assertEquals(1000005, Rut.cuerpo("1.000.005-K"));
+    }
+
+    @Test
+    void testCuerpo_Invalidos() {
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("12345678-9"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("12.34.5678-5"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("12.345678-5"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("123456-0"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("123456789-2"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("12345678-"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo("abc"));
+        assertEquals(Rut.INVALIDO, Rut.cuerpo(null));
+    }
+
+    @Test
+    void testDigitoVerificador() {
+        assertEquals('5', Rut.digitoVerificador(12345678));
+        assertEquals('K', Rut.digitoVerificador(21150403));
+        assertEquals('0', Rut.digitoVerificador(11111117));
+    }
+
+    @Test
+    void testNormalizar() {
+        String guardado = "12345678-5";
+        assertSame(guardado, Rut.normalizar(guardado));
+        assertEquals("21150403-K", Rut.normalizar("21.150.403-k"));
+        assertEquals("no-es-rut", Rut.normalizar("no-es-rut"));
+    }
+
+}
@@ -5,7 +5,6 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +22,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.microservice.usuario.microservice_usuario.controller.UsuarioController;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 import com.microservice.usuario.microservice_usuario.service.UsuarioService;
 
@@ -37,17 +37,11 @@ public class UsuarioControllerTest {
 
     @Test
     void testGetAllUsers() throws Exception {
-        List<Usuario> lista = List.of(
-                Usuario.builder()
-                        .id_usuario(1)
-                        .rut("12345678-9")
-                        .nombres("Héctor")
-                        .apellidos("Robledo")
-                        .correo("hector@mail.com")
-                        .build()
+        List<UsuarioView> lista = List.of(
+                new UsuarioView(1, "12345678-5", "Héctor", "Robledo", "hector@mail.com")
         );
 
-        when(usuarioService.findAll()).thenReturn(lista);
+        when(usuarioService.findAllViews()).thenReturn(lista);
 
         mockMvc.perform(get("/api/v1/usuarios/listar"))
                 .andExpect(status().isOk())
@@ -57,25 +51,22 @@ public class UsuarioControllerTest {
 
     @Test
     void testGetUserById_found() throws Exception {
-        Usuario usuario = Usuario.builder()
-                .id_usuario(1)
-                .rut("12345678-9")
-                .nombres("Héctor")
-                .apellidos("Robledo")
-                .correo("hector@mail.com")
-                .build();
+        UsuarioView usuario = new UsuarioView(1, "12345678-5", "Héctor", "Robledo", "hector@mail.com");
 
-        when(usuarioService.getUserById(1)).thenReturn(Optional.of(usuario));
+        when(usuarioService.getUserViewById(1)).thenReturn(Optional.of(usuario));
 
         mockMvc.perform(get("/api/v1/usuarios/1"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id_usuario").value(1))
+                .andExpect(jsonPath("$.rut").value("12345678-5"))
                 .andExpect(jsonPath("$.nombres").value("Héctor"))
+                .andExpect(jsonPath("$.correo").value("hector@mail.com"))
                 .andExpect(header().exists("mi-encabezado"));
     }
 
     @Test
     void testGetUserById_notFound() throws Exception {
-        when(usuarioService.getUserById(99)).thenReturn(Optional.empty());
+        when(usuarioService.getUserViewById(99)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/usuarios/99"))
                 .andExpect(status().isNotFound())
@@ -87,7 +78,7 @@ public class UsuarioControllerTest {
     void testSaveUser() throws Exception {
         Usuario usuario = Usuario.builder()
                 .id_usuario(1)
-                .rut("12345678-9")
+                .rut("12345678-5")
                 .nombres("Héctor")
                 .apellidos("Robledo")
                 .correo("hector@mail.com")
@@ -98,7 +89,7 @@ public class UsuarioControllerTest {
 
         String requestBody = """
             {
-                "rut": "12345678-9",
+                "rut": "12345678-5",
                 "nombres": "Héctor",
                 "apellidos": "Robledo",
                 "correo": "hector@mail.com"
@@ -120,7 +111,7 @@ public class UsuarioControllerTest {
 
         String requestBody = """
                 {
-                "rut": "12345678-9",
+                "rut": "12345678-5",
                 "nombres": "Héctor",
                 "apellidos": "Robledo",
                 "correo": "hector@mail.com"
@@ -139,7 +130,7 @@ public class UsuarioControllerTest {
     void testUpdateUser() throws Exception {
         Usuario usuarioActualizado = Usuario.builder()
                 .id_usuario(1)
-                .rut("12345678-9")
+                .rut("12345678-5")
                 .nombres("Héctor")
                 .apellidos("Actualizado")
                 .correo("hector@mail.com")
@@ -150,7 +141,7 @@ public class UsuarioControllerTest {
 
         String requestBody = """
                 {
-                "rut": "12345678-9",
+                "rut": "12345678-5",
                 "nombres": "Héctor",
                 "apellidos": "Actualizado",
                 "correo": "hector@mail.com"
@@ -166,12 +157,20 @@ public class UsuarioControllerTest {
 
         @Test
         void testDeleteUser() throws Exception {
-        doNothing().when(usuarioService).delete(1);
+        when(usuarioService.delete(1)).thenReturn(true);
 
         mockMvc.perform(delete("/api/v1/usuarios/1"))
                 .andExpect(status().isNoContent());
         }
 
+    @Test
+    void testDeleteUser_noExiste() throws Exception {
+        when(usuarioService.delete(1)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/v1/usuarios/1"))
+                .andExpect(status().isNotFound());
+    }
+
 
     @Test
     void testUpdateUser_notFound() throws Exception {
@@ -180,7 +179,7 @@ public class UsuarioControllerTest {
 
         String requestBody = """
                 {
-                "rut": "12345678-9",
+                "rut": "12345678-5",
                 "nombres": "Héctor",
                 "apellidos": "Robledo",
                 "correo": "hector@mail.com"
@@ -2,25 +2,33 @@ package com.microservice.usuario.microservice_usuario;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.hateoas.EntityModel;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,7 +36,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservice.usuario.microservice_usuario.assemblers.usuarioModelAssembler;
 import com.microservice.usuario.microservice_usuario.controller.UsuarioControllerV2;
 import com.microservice.usuario.microservice_usuario.dto.UsuarioDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
 import com.microservice.usuario.microservice_usuario.service.UsuarioService;
 
 @WebMvcTest(UsuarioControllerV2.class)
@@ -43,12 +54,15 @@ public class UsuarioControllerV2Test {
     @MockBean
     private usuarioModelAssembler usuarioAssembler;
 
+    @MockBean
+    private IndiceNombres indiceNombres;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testGetUsuarioPorId_200OK() throws Exception {
-        Usuario usuario = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com");
+        Usuario usuario = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
         when(usuarioService.getUserById(1)).thenReturn(Optional.of(usuario));
         when(usuarioAssembler.toModel(usuario)).thenReturn(EntityModel.of(usuario));
 
@@ -68,8 +82,8 @@ public class UsuarioControllerV2Test {
 
     @Test
     void testGetAllUsuarios_200OK() throws Exception {
-        Usuario usuario1 = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com");
-        Usuario usuario2 = new Usuario(2, "25236325-4", "Ana Maria", "Esmeralda Aguilar","ana@mail.com");
+        Usuario usuario1 = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
+        Usuario usuario2 = new Usuario(2, "25236325-4", "Ana Maria", "Esmeralda Aguilar","ana@mail.com", null);
 
         when(usuarioService.findAll()).thenReturn(List.of(usuario1, usuario2));
         when(usuarioAssembler.toModel(usuario1)).thenReturn(EntityModel.of(usuario1));
@@ -81,10 +95,58 @@ public class UsuarioControllerV2Test {
                 .andExpect(jsonPath("_embedded.usuarioList[1].id_usuario").value(2));
     }
 
+    @Test
+    void testGetUsuario_NoModificado() throws Exception {
+        Usuario usuario = Usuario.builder().id_usuario(1).nombres("Juan").version(4L).build();
+        when(usuarioService.getUserById(1)).thenReturn(Optional.of(usuario));
+
+        mockMvc.perform(get("/api/v2/usuarios/1").header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(usuarioAssembler, never()).toModel(any(Usuario.class));
+    }
+
+    @Test
+    void testGetAllUsuarios_NoModificados() throws Exception {
+        when(usuarioService.getHuella()).thenReturn("2-5-9");
+
+        mockMvc.perform(get("/api/v2/usuarios").header(HttpHeaders.IF_NONE_MATCH, "\"2-5-9\""))
+                .andExpect(status().isNotModified());
+
+        verify(usuarioService, never()).findAll();
+    }
+
+    @Test
+    void testActualizarUsuario_IfMatchDesactualizado() throws Exception {
+        UsuarioDTO dto = new UsuarioDTO();
+        dto.setRut("12345678-5");
+        dto.setNombres("Juan");
+        dto.setApellidos("Pérez");
+        dto.setCorreo("juan@example.com");
+
+        when(usuarioService.getUserById(1)).thenReturn(Optional.of(Usuario.builder().id_usuario(1).build()));
+        when(usuarioService.save(any(Usuario.class))).thenThrow(new OptimisticLockingFailureException("versión distinta"));
+
+        mockMvc.perform(put("/api/v2/usuarios/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testEliminarUsuario_IfMatchDesactualizado() throws Exception {
+        doThrow(new OptimisticLockingFailureException("versión distinta")).when(usuarioService).delete(1, 2L);
+
+        mockMvc.perform(delete("/api/v2/usuarios/1").header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void testCrearUsuarioSuccess() throws Exception {
         UsuarioDTO dto = new UsuarioDTO();
-        dto.setRut("12345678-9");
+        dto.setRut("12345678-5");
         dto.setNombres("Juan");
         dto.setApellidos("Pérez");
         dto.setCorreo("juan@example.com");
@@ -99,7 +161,7 @@ public class UsuarioControllerV2Test {
 
         when(usuarioService.save(any(Usuario.class))).thenReturn(creado);
         when(usuarioAssembler.toModel(any(Usuario.class))).thenReturn(
-            EntityModel.of(creado, linkTo(methodOn(UsuarioControllerV2.class).getUsuario(1)).withSelfRel())
+            EntityModel.of(creado, linkTo(methodOn(UsuarioControllerV2.class).getUsuario(1, null)).withSelfRel())
         );
 
         mockMvc.perform(post("/api/v2/usuarios")
@@ -115,7 +177,7 @@ public class UsuarioControllerV2Test {
     void testActualizarUsuarioSuccess() throws Exception {
         int id = 1;
         UsuarioDTO dto = new UsuarioDTO();
-        dto.setRut("12345678-9");
+        dto.setRut("12345678-5");
         dto.setNombres("Juan");
         dto.setApellidos("Pérez");
         dto.setCorreo("juan@example.com");
@@ -139,7 +201,7 @@ public class UsuarioControllerV2Test {
         when(usuarioService.getUserById(id)).thenReturn(Optional.of(existente));
         when(usuarioService.save(any(Usuario.class))).thenReturn(actualizado);
         when(usuarioAssembler.toModel(any(Usuario.class))).thenReturn(
-            EntityModel.of(actualizado, linkTo(methodOn(UsuarioControllerV2.class).getUsuario(id)).withSelfRel())
+            EntityModel.of(actualizado, linkTo(methodOn(UsuarioControllerV2.class).getUsuario(id, null)).withSelfRel())
         );
 
         mockMvc.perform(put("/api/v2/usuarios/{id}", id)
@@ -153,27 +215,21 @@ public class UsuarioControllerV2Test {
     @Test
     void testEliminarUsuarioSuccess() throws Exception {
         int id = 1;
-        Usuario usuario = Usuario.builder()
-            .id_usuario(id)
-            .rut("12345678-9")
-            .nombres("Juan")
-            .apellidos("Pérez")
-            .correo("juan@example.com")
-            .build();
 
-        when(usuarioService.getUserById(id)).thenReturn(Optional.of(usuario));
-        doNothing().when(usuarioService).delete(id);
+        when(usuarioService.delete(id)).thenReturn(true);
 
         mockMvc.perform(delete("/api/v2/usuarios/{id}", id))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.mensaje").value("Usuario eliminado exitosamente"))
             .andExpect(jsonPath("$.links").exists());
+
+        verify(usuarioService, never()).getUserById(anyInt());
     }
 
     @Test
     void testCrearUsuarioConflict() throws Exception {
         UsuarioDTO dto = new UsuarioDTO();
-        dto.setRut("12345678-9");
+        dto.setRut("12345678-5");
         dto.setNombres("Juan");
         dto.setApellidos("Pérez");
         dto.setCorreo("duplicado@example.com");
@@ -193,7 +249,7 @@ public class UsuarioControllerV2Test {
     void testActualizarUsuarioNotFound() throws Exception {
         int id = 999;
         UsuarioDTO dto = new UsuarioDTO();
-        dto.setRut("12345678-9");
+        dto.setRut("12345678-5");
         dto.setNombres("Nuevo");
         dto.setApellidos("Nombre");
         dto.setCorreo("nuevo@correo.com");
@@ -210,12 +266,180 @@ public class UsuarioControllerV2Test {
     void testEliminarUsuarioNotFound() throws Exception {
         int id = 999;
 
-        when(usuarioService.getUserById(id)).thenReturn(Optional.empty());
+        when(usuarioService.delete(id)).thenReturn(false);
 
         mockMvc.perform(delete("/api/v2/usuarios/{id}", id))
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testEliminarUsuarios_PorIds() throws Exception {
+        when(usuarioService.deleteAll(any())).thenReturn(1);
+
+        mockMvc.perform(delete("/api/v2/usuarios").param("ids", "4,5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.eliminados").value(1))
+            .andExpect(jsonPath("$.noEncontrados").value(1));
+    }
+
+    @Test
+    void testEliminarUsuarios_SinIds() throws Exception {
+        mockMvc.perform(delete("/api/v2/usuarios").param("ids", ""))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).deleteAll(any());
+    }
+
+    @Test
+    void testGetUsuariosPorIds() throws Exception {
+        Usuario usuario1 = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
+        Usuario usuario3 = new Usuario(3, "25236325-4", "Ana Maria", "Esmeralda Aguilar", "ana@mail.com", null);
+
+        when(usuarioService.findAllByIds(any())).thenReturn(List.of(usuario3, usuario1));
+        when(usuarioAssembler.toModel(usuario1)).thenReturn(EntityModel.of(usuario1));
+        when(usuarioAssembler.toModel(usuario3)).thenReturn(EntityModel.of(usuario3));
 
+        mockMvc.perform(get("/api/v2/usuarios").param("ids", "3,1,3,2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.usuarioList[0].id_usuario").value(3))
+            .andExpect(jsonPath("_embedded.usuarioList[1].id_usuario").value(1));
+
+        verify(usuarioService).findAllByIds(argThat(ids -> List.copyOf(ids).equals(List.of(3, 1, 2))));
+        verify(usuarioService, never()).findAll();
+    }
+
+    @Test
+    void testPostUsuariosPorIds() throws Exception {
+        Usuario usuario = new Usuario(7, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
+        when(usuarioService.findAllByIds(any())).thenReturn(List.of(usuario));
+        when(usuarioAssembler.toModel(usuario)).thenReturn(EntityModel.of(usuario));
+
+        mockMvc.perform(post("/api/v2/usuarios/por-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[7, 8]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.usuarioList[0].id_usuario").value(7));
+    }
+
+    @Test
+    void testPostUsuariosPorIds_Demasiados() throws Exception {
+        List<Integer> ids = IntStream.rangeClosed(1, UsuarioService.MAX_IDS_POR_CONSULTA + 1).boxed().toList();
+
+        mockMvc.perform(post("/api/v2/usuarios/por-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).findAllByIds(any());
+    }
+
+    @Test
+    void testBuscarUsuarios() throws Exception {
+        UsuarioView usuario = new UsuarioView(4, "21150403-K", "José", "Peña", "jose@mail.com");
+        when(indiceNombres.buscar("jose pe", 5)).thenReturn(List.of(usuario));
+
+        mockMvc.perform(get("/api/v2/usuarios/buscar").param("q", "jose pe").param("limite", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.usuarioViewList[0].id_usuario").value(4))
+            .andExpect(jsonPath("_embedded.usuarioViewList[0]._links.self.href").value("http://localhost/api/v2/usuarios/4"));
+
+        verify(usuarioService, never()).findAll();
+    }
+
+    @Test
+    void testBuscarUsuarios_ConsultaMuyCorta() throws Exception {
+        mockMvc.perform(get("/api/v2/usuarios/buscar").param("q", " é "))
+            .andExpect(status().isBadRequest());
+
+        verify(indiceNombres, never()).buscar(any(), anyInt());
+    }
+
+    @Test
+    void testGetUsuarioPorRut_Normaliza() throws Exception {
+        Usuario usuario = new Usuario(1, "21150403-K", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
+        when(usuarioService.getUserByRut(21150403)).thenReturn(Optional.of(usuario));
+        when(usuarioAssembler.toModel(usuario)).thenReturn(EntityModel.of(usuario));
+
+        mockMvc.perform(get("/api/v2/usuarios/rut/21.150.403-k"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.id_usuario").value(1));
+    }
+
+    @Test
+    void testGetUsuarioPorRut_Invalido() throws Exception {
+        mockMvc.perform(get("/api/v2/usuarios/rut/21150403-1"))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).getUserByRut(anyInt());
+    }
+
+    @Test
+    void testGetUsuarioPorCorreo_NotFound() throws Exception {
+        when(usuarioService.getUserByCorreo("juan@mail.com")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v2/usuarios/correo/Juan@Mail.com"))
+            .andExpect(status().isNotFound());
+
+        verify(usuarioService).getUserByCorreo("juan@mail.com");
+    }
+
+
+
+    @Test
+    void testActualizarParcialUsuario_SinContenido() throws Exception {
+        when(usuarioService.actualizarParcial(anyInt(), any(UsuarioPatchDTO.class), any())).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v2/usuarios/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"correo\":\"nuevo@mail.com\"}"))
+            .andExpect(status().isNoContent())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(usuarioService, never()).getUserById(anyInt());
+    }
+
+    @Test
+    void testActualizarParcialUsuario_NoEncontrado() throws Exception {
+        when(usuarioService.actualizarParcial(anyInt(), any(UsuarioPatchDTO.class), any())).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v2/usuarios/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombres\":\"Pedro\"}"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testActualizarParcialUsuario_IfMatchDesactualizado() throws Exception {
+        when(usuarioService.actualizarParcial(anyInt(), any(UsuarioPatchDTO.class), any()))
+            .thenThrow(new OptimisticLockingFailureException("versión distinta"));
+
+        mockMvc.perform(patch("/api/v2/usuarios/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombres\":\"Pedro\"}"))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testActualizarParcialUsuario_CorreoInvalido() throws Exception {
+        mockMvc.perform(patch("/api/v2/usuarios/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"correo\":\"no-es-correo\"}"))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).actualizarParcial(anyInt(), any(UsuarioPatchDTO.class), any());
+    }
+
+    @Test
+    void testActualizarParcialUsuario_RutConDigitoVerificadorIncorrecto() throws Exception {
+        mockMvc.perform(patch("/api/v2/usuarios/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rut\":\"12.345.678-9\"}"))
+            .andExpect(status().isBadRequest());
+
+        verify(usuarioService, never()).actualizarParcial(anyInt(), any(UsuarioPatchDTO.class), any());
+    }
 
 }
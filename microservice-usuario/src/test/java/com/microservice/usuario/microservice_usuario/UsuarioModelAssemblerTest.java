@@ -1,8 +1,12 @@
 package com.microservice.usuario.microservice_usuario;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.microservice.usuario.microservice_usuario.assemblers.usuarioModelAssembler;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
@@ -14,7 +18,7 @@ public class UsuarioModelAssemblerTest {
     @Test
     void toModel_agregaTodosLosLinksCorrectos() {
         // Arrange
-        Usuario usuario = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com");
+        Usuario usuario = new Usuario(1, "21150403-k", "Juan Enrique", "Perez Peña", "juan@mail.com", null);
 
         // Act
         EntityModel<Usuario> model = assembler.toModel(usuario);
@@ -43,4 +47,24 @@ public class UsuarioModelAssemblerTest {
             .asString()
             .isEqualTo("http://localhost:8080/api/v2/ventas/usuario/1");
     }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void toModel_mismaPeticionReemplazaElIdDeCadaUsuario() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName("api.perfulandia.cl");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        EntityModel<Usuario> primero = assembler.toModel(Usuario.builder().id_usuario(1).build());
+        EntityModel<Usuario> segundo = assembler.toModel(Usuario.builder().id_usuario(2).build());
+
+        assertThat(primero.getRequiredLink("self").getHref()).isEqualTo("http://api.perfulandia.cl/api/v2/usuarios/1");
+        assertThat(segundo.getRequiredLink("self").getHref()).isEqualTo("http://api.perfulandia.cl/api/v2/usuarios/2");
+        assertThat(segundo.getRequiredLink("actualizar").getHref()).isEqualTo("http://api.perfulandia.cl/api/v2/usuarios/2");
+        assertThat(segundo.getRequiredLink("usuarios").getHref()).isEqualTo("http://api.perfulandia.cl/api/v2/usuarios");
+    }
 }
\ No newline at end of file
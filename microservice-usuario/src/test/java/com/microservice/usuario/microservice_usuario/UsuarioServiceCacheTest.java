@@ -0,0 +1,166 @@
+package com.microservice.usuario.microservice_usuario;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.microservice.usuario.microservice_usuario.config.CacheConfig;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
+import com.microservice.usuario.microservice_usuario.model.Usuario;
+import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
+import com.microservice.usuario.microservice_usuario.service.UsuarioService;
+
+@SpringJUnitConfig
+public class UsuarioServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, UsuarioService.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.USUARIOS, CacheConfig.USUARIOS_VISTA,
+                CacheConfig.IDS_POR_RUT, CacheConfig.IDS_POR_CORREO);
+        }
+    }
+
+    @MockBean
+    private UsuarioRepository usuarioRepository;
+
+    @MockBean
+    private IndiceNombres indiceNombres;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USUARIOS).clear();
+        cacheManager.getCache(CacheConfig.USUARIOS_VISTA).clear();
+        cacheManager.getCache(CacheConfig.IDS_POR_RUT).clear();
+        cacheManager.getCache(CacheConfig.IDS_POR_CORREO).clear();
+        usuario = Usuario.builder().id_usuario(1).rut("12345678-5").nombres("Juan").build();
+    }
+
+    @Test
+    void testGetUserById_SegundaLecturaDesdeCache() {
+        when(usuarioRepository.findById(1)).thenReturn(Optional.of(usuario));
+
+        usuarioService.getUserById(1);
+        Optional<Usuario> resultado = usuarioService.getUserById(1);
+
+        assertEquals("Juan", resultado.get().getNombres());
+        verify(usuarioRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void testSave_InvalidaLaEntrada() {
+        when(usuarioRepository.findById(1)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        usuarioService.getUserById(1);
+        usuarioService.save(Usuario.builder().id_usuario(1).nombres("Pedro").build());
+        usuarioService.getUserById(1);
+
+        verify(usuarioRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void testDelete_InvalidaLaEntrada() {
+        when(usuarioRepository.findById(1)).thenReturn(Optional.of(usuario));
+
+        usuarioService.getUserById(1);
+        usuarioService.delete(1);
+        usuarioService.getUserById(1);
+
+        verify(usuarioRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void testSave_InvalidaLaVista() {
+        UsuarioView vista = new UsuarioView(1, "12345678-5", "Juan", "Soto", "juan@mail.com");
+        when(usuarioRepository.findViewById(1)).thenReturn(Optional.of(vista));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        usuarioService.getUserViewById(1);
+        usuarioService.getUserViewById(1);
+        usuarioService.save(Usuario.builder().id_usuario(1).nombres("Pedro").build());
+        usuarioService.getUserViewById(1);
+
+        verify(usuarioRepository, times(2)).findViewById(1);
+    }
+
+    @Test
+    void testGetUserByRut_SegundaLecturaDesdeCache() {
+        when(usuarioRepository.findByRut("12345678-5")).thenReturn(Optional.of(usuario));
+
+        usuarioService.getUserByRut(12345678);
+        Optional<Usuario> resultado = usuarioService.getUserByRut(12345678);
+
+        assertEquals("Juan", resultado.get().getNombres());
+        verify(usuarioRepository, times(1)).findByRut("12345678-5");
+        verify(usuarioRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetUserByRut_NoReemplazaAlUsuarioYaEnCache() {
+        Usuario actual = Usuario.builder().id_usuario(1).rut("12345678-5").nombres("Pedro").build();
+        when(usuarioRepository.findById(1)).thenReturn(Optional.of(actual));
+        when(usuarioRepository.findByRut("12345678-5")).thenReturn(Optional.of(usuario));
+
+        usuarioService.getUserById(1);
+        usuarioService.getUserByRut(12345678);
+
+        assertEquals("Pedro", usuarioService.getUserById(1).get().getNombres());
+        verify(usuarioRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void testGetUserByRut_RutCambiadoNoEntregaAlUsuario() {
+        when(usuarioRepository.findByRut("12345678-5")).thenReturn(Optional.of(usuario)).thenReturn(Optional.empty());
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        usuarioService.getUserByRut(12345678);
+        usuarioService.save(Usuario.builder().id_usuario(1).rut("11111111-1").nombres("Juan").build());
+        Optional<Usuario> resultado = usuarioService.getUserByRut(12345678);
+
+        assertTrue(resultado.isEmpty());
+        verify(usuarioRepository, times(2)).findByRut("12345678-5");
+    }
+
+    @Test
+    void testGetUserByCorreo_DeleteInvalidaLaEntrada() {
+        usuario.setCorreo("juan@mail.com");
+        when(usuarioRepository.findByCorreo("juan@mail.com")).thenReturn(Optional.of(usuario)).thenReturn(Optional.empty());
+
+        usuarioService.getUserByCorreo("juan@mail.com");
+        usuarioService.delete(1);
+        Optional<Usuario> resultado = usuarioService.getUserByCorreo("juan@mail.com");
+
+        assertTrue(resultado.isEmpty());
+        verify(usuarioRepository, times(2)).findByCorreo("juan@mail.com");
+    }
+
+}
@@ -2,22 +2,34 @@ package com.microservice.usuario.microservice_usuario;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import com.microservice.usuario.microservice_usuario.dto.UsuarioPatchDTO;
+import com.microservice.usuario.microservice_usuario.dto.UsuarioView;
 import com.microservice.usuario.microservice_usuario.model.Usuario;
 import com.microservice.usuario.microservice_usuario.repository.UsuarioRepository;
+import com.microservice.usuario.microservice_usuario.service.IndiceNombres;
 import com.microservice.usuario.microservice_usuario.service.UsuarioService;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +38,9 @@ public class UsuarioServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private IndiceNombres indiceNombres;
+
     @InjectMocks
     private UsuarioService usuarioService;
 
@@ -39,14 +54,14 @@ public class UsuarioServiceTest {
         List<Usuario> listaMock = List.of(
             Usuario.builder()
                     .id_usuario(1)
-                    .rut("12345678-9")
+                    .rut("12345678-5")
                     .nombres("Héctor")
                     .apellidos("Robledo")
                     .correo("hector@mail.com")
                     .build(),
             Usuario.builder()
                     .id_usuario(2)
-                    .rut("98765432-1")
+                    .rut("98765432-5")
                     .nombres("Laura")
                     .apellidos("Gómez")
                     .correo("laura@mail.com")
@@ -67,7 +82,7 @@ public class UsuarioServiceTest {
     void testGetUserById() {
         Usuario usuario = Usuario.builder()
                 .id_usuario(1)
-                .rut("12345678-9")
+                .rut("12345678-5")
                 .nombres("Héctor")
                 .apellidos("Robledo")
                 .correo("hector@mail.com")
@@ -81,6 +96,18 @@ public class UsuarioServiceTest {
         assertEquals("Héctor", resultado.get().getNombres());
     }
     
+    @Test
+    void testFindAllViews() {
+        when(usuarioRepository.findAllViews()).thenReturn(List.of(
+            new UsuarioView(1, "12345678-5", "Héctor", "Robledo", "hector@mail.com")
+        ));
+
+        List<UsuarioView> resultado = usuarioService.findAllViews();
+
+        assertEquals(1, resultado.size());
+        assertEquals("Héctor", resultado.get(0).getNombres());
+    }
+
     @Test
     void testGetUserById2() {
         Usuario usuario = Usuario.builder()
@@ -126,4 +153,109 @@ public class UsuarioServiceTest {
         // (alternativamente puedes usar verify si quieres test estricto)
         assertDoesNotThrow(() -> usuarioService.delete(id));
     }
+
+    @Test
+    void testSaveUsuario_SinVersionUsaLaGuardada() {
+        Usuario usuario = Usuario.builder().id_usuario(5).nombres("Ana").build();
+
+        when(usuarioRepository.findVersionById(5)).thenReturn(Optional.of(3L));
+        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+
+        usuarioService.save(usuario);
+
+        assertEquals(3L, usuario.getVersion());
+    }
+
+    @Test
+    void testDeleteConVersion_VersionDistinta() {
+        when(usuarioRepository.deleteByIdAndVersion(5, 2L)).thenReturn(0);
+        when(usuarioRepository.existsById(5)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> usuarioService.delete(5, 2L));
+    }
+
+    @Test
+    void testDeleteConVersion_NoExiste() {
+        when(usuarioRepository.deleteByIdAndVersion(5, 2L)).thenReturn(0);
+        when(usuarioRepository.existsById(5)).thenReturn(false);
+
+        assertFalse(usuarioService.delete(5, 2L));
+    }
+
+    @Test
+    void testDelete_UnSoloDelete() {
+        when(usuarioRepository.deleteByIdDirecto(10)).thenReturn(1);
+
+        assertTrue(usuarioService.delete(10));
+        verify(usuarioRepository, never()).findById(anyInt());
+        verify(usuarioRepository, never()).deleteById(anyInt());
+        verify(indiceNombres).eliminar(List.of(10));
+    }
+
+    @Test
+    void testDeleteAll() {
+        when(usuarioRepository.deleteByIdIn(List.of(1, 2, 3))).thenReturn(2);
+
+        assertEquals(2, usuarioService.deleteAll(List.of(1, 2, 3)));
+    }
+
+    @Test
+    void testFindAllByIds_OrdenDeLaPeticion() {
+        Usuario ana = Usuario.builder().id_usuario(1).nombres("Ana").build();
+        Usuario pedro = Usuario.builder().id_usuario(3).nombres("Pedro").build();
+        when(usuarioRepository.findAllById(List.of(3, 2, 1))).thenReturn(List.of(ana, pedro));
+
+        List<Usuario> resultado = usuarioService.findAllByIds(List.of(3, 2, 1, 3));
+
+        assertEquals(List.of(pedro, ana), resultado);
+    }
+
+    @Test
+    void testFindAllByIds_UnaConsultaPorBloque() {
+        List<Integer> ids = IntStream.rangeClosed(1, UsuarioService.TAMANO_BLOQUE_CONSULTA * 2 + 1).boxed().toList();
+        when(usuarioRepository.findAllById(anyList())).thenReturn(List.of());
+
+        usuarioService.findAllByIds(ids);
+
+        verify(usuarioRepository, times(3)).findAllById(anyList());
+        verify(usuarioRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testGetHuella() {
+        UsuarioRepository.Huella huella = new UsuarioRepository.Huella() {
+            public Long getCantidad() { return 2L; }
+            public Long getSumaVersiones() { return 5L; }
+            public Integer getMaxId() { return 9; }
+        };
+        when(usuarioRepository.findHuella()).thenReturn(huella);
+
+        assertEquals("2-5-9", usuarioService.getHuella());
+    }
+
+    @Test
+    void testActualizarParcial() {
+        UsuarioPatchDTO cambios = UsuarioPatchDTO.builder().nombres("Pedro").build();
+        when(usuarioRepository.actualizarParcial(5, null, null, "Pedro", null, null)).thenReturn(1);
+
+        assertTrue(usuarioService.actualizarParcial(5, cambios, null));
+    }
+
+    @Test
+    void testActualizarParcial_VersionDistinta() {
+        UsuarioPatchDTO cambios = UsuarioPatchDTO.builder().nombres("Pedro").build();
+        when(usuarioRepository.actualizarParcial(5, 2L, null, "Pedro", null, null)).thenReturn(0);
+        when(usuarioRepository.existsById(5)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> usuarioService.actualizarParcial(5, cambios, 2L));
+    }
+
+    @Test
+    void testActualizarParcial_NoExiste() {
+        UsuarioPatchDTO cambios = UsuarioPatchDTO.builder().nombres("Pedro").build();
+        when(usuarioRepository.actualizarParcial(5, 2L, null, "Pedro", null, null)).thenReturn(0);
+        when(usuarioRepository.existsById(5)).thenReturn(false);
+
+        assertFalse(usuarioService.actualizarParcial(5, cambios, 2L));
+    }
 }
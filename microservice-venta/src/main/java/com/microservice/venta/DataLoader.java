@@ -17,18 +17,18 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import com.microservice.venta.model.Venta;
-import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.VentaService;
 
 import net.datafaker.Faker;
 
 @Component
 public class DataLoader implements CommandLineRunner{
 
-    private final VentaRepository ventaRepository;
+    private final VentaService ventaService;
     private final DataSource dataSource;
 
-    public DataLoader(VentaRepository ventaRepository, DataSource dataSource) {
-        this.ventaRepository = ventaRepository;
+    public DataLoader(VentaService ventaService, DataSource dataSource) {
+        this.ventaService = ventaService;
         this.dataSource = dataSource;
     }
 
@@ -63,13 +63,14 @@ public class DataLoader implements CommandLineRunner{
             Venta venta = Venta.builder()
                     .idUsuario(idUsuarios.get(random.nextInt(idUsuarios.size())))
                     .nroBoleta(nroBoleta)
-                    .fechaCompra(LocalDate.now().minusDays(random.nextInt(30)).toString())
+                    .fechaCompra(LocalDate.now().minusDays(random.nextInt(30)))
                     .producto(faker.commerce().productName())
                     .cantidad(cantidad)
                     .total(total)
                     .build();
 
-            ventaRepository.save(venta);
+            // A través del servicio para que también se actualice el resumen por usuario
+            ventaService.save(venta);
         }
 
         System.out.println("✅ Se generaron 30 ventas aleatorias asociadas a usuarios.");
@@ -2,26 +2,36 @@ package com.microservice.venta.assemblers;
 
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.microservice.venta.controller.VentaControllerV2;
 import com.microservice.venta.model.Venta;
 
+// Los links se construyen con linkTo(methodOn(...)) una sola vez por petición, usando un id de
+// marca; para cada venta solo se reemplaza la marca por el id real. En una colección de miles
+// de ventas esto evita un proxy y una construcción de URI por link y por fila.
 @Component
 public class ventaModelAssembler implements RepresentationModelAssembler<Venta, EntityModel<Venta>> {
 
+    private static final int ID_MARCA = Integer.MIN_VALUE;
+    private static final String ATRIBUTO_PLANTILLAS = ventaModelAssembler.class.getName() + ".plantillas";
+
     @Override
     public EntityModel<Venta> toModel(Venta venta) {
+        Plantillas plantillas = plantillas();
         return EntityModel.of(venta,
-            linkTo(methodOn(VentaControllerV2.class).getVentaById(venta.getId_venta())).withSelfRel(),
-            linkTo(methodOn(VentaControllerV2.class).getVentasByUsuario(venta.getIdUsuario())).withRel("ventas-del-usuario"),
-            linkTo(methodOn(VentaControllerV2.class).getAllVentas()).withRel("todas-las-ventas"),
+            plantillas.self().con(venta.getId_venta()),
+            plantillas.ventasDelUsuario().con(venta.getIdUsuario()),
+            plantillas.todasLasVentas(),
             linkToUsuario(venta.getIdUsuario()),
-            linkTo(methodOn(VentaControllerV2.class).actualizarVenta(venta.getId_venta(), null)).withRel("actualizar"),
-            linkTo(methodOn(VentaControllerV2.class).eliminarVenta(venta.getId_venta())).withRel("eliminar")
+            plantillas.actualizar().con(venta.getId_venta()),
+            plantillas.eliminar().con(venta.getId_venta())
         );
     }
 
@@ -30,4 +40,46 @@ public class ventaModelAssembler implements RepresentationModelAssembler<Venta,
         return Link.of(href, "usuario");
     }
 
+    // Reutiliza las plantillas de la petición en curso; fuera de una petición se crean cada vez
+    private static Plantillas plantillas() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return Plantillas.crear();
+        }
+        Plantillas plantillas = (Plantillas) atributos.getAttribute(ATRIBUTO_PLANTILLAS, RequestAttributes.SCOPE_REQUEST);
+        if (plantillas == null) {
+            plantillas = Plantillas.crear();
+            atributos.setAttribute(ATRIBUTO_PLANTILLAS, plantillas, RequestAttributes.SCOPE_REQUEST);
+        }
+        return plantillas;
+    }
+
+    private record Plantillas(Plantilla self, Plantilla ventasDelUsuario, Link todasLasVentas,
+            Plantilla actualizar, Plantilla eliminar) {
+
+        static Plantillas crear() {
+            return new Plantillas(
+                Plantilla.de(linkTo(methodOn(VentaControllerV2.class).getVentaById(ID_MARCA, null)).withSelfRel()),
+                Plantilla.de(linkTo(methodOn(VentaControllerV2.class).getVentasByUsuario(ID_MARCA, null, null, null, null)).withRel("ventas-del-usuario")),
+                linkTo(methodOn(VentaControllerV2.class).getAllVentas(null, null, null, null, null, null)).withRel("todas-las-ventas"),
+                Plantilla.de(linkTo(methodOn(VentaControllerV2.class).actualizarVenta(ID_MARCA, null, null)).withRel("actualizar")),
+                Plantilla.de(linkTo(methodOn(VentaControllerV2.class).eliminarVenta(ID_MARCA, null)).withRel("eliminar")));
+        }
+    }
+
+    // href partido en el id de marca: el link de cada fila es antes + id + despues
+    private record Plantilla(String antes, String despues, LinkRelation rel) {
+
+        static Plantilla de(Link link) {
+            String href = link.getHref();
+            int inicio = href.indexOf(String.valueOf(ID_MARCA));
+            return new Plantilla(href.substring(0, inicio),
+                href.substring(inicio + String.valueOf(ID_MARCA).length()), link.getRel());
+        }
+
+        Link con(int id) {
+            return Link.of(antes + id + despues, rel);
+        }
+    }
+
 }
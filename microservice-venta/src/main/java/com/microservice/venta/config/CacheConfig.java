@@ -0,0 +1,18 @@
+package com.microservice.venta.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// La caché (Caffeine, configurada en spring.cache.*) se aplica por fuera de la transacción:
+// un acierto no abre una transacción y las invalidaciones posteriores a save/delete
+// se ejecutan después del commit.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String VENTAS = "ventas";
+    // Lecturas de la API v1, guardadas como VentaView inmutables
+    public static final String VENTAS_VISTA = "ventas-vista";
+
+}
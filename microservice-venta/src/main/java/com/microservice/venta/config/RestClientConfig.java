@@ -0,0 +1,39 @@
+package com.microservice.venta.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+// Cliente HTTP hacia microservice-usuario. Las URL usan el nombre registrado en Eureka
+// (http://msvc-usuario/...) y el balanceador elige la instancia.
+@Configuration
+public class RestClientConfig {
+
+    public static final Duration ESPERA_CONEXION = Duration.ofMillis(300);
+    public static final Duration ESPERA_RESPUESTA = Duration.ofSeconds(2);
+
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder usuariosRestClientBuilder(RestClientBuilderConfigurer configurer) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(ESPERA_CONEXION)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(ESPERA_RESPUESTA);
+        return configurer.configure(RestClient.builder()).requestFactory(requestFactory);
+    }
+
+    @Bean
+    public RestClient usuariosRestClient(@Qualifier("usuariosRestClientBuilder") RestClient.Builder builder) {
+        return builder.baseUrl("http://msvc-usuario").build();
+    }
+
+}
@@ -1,6 +1,13 @@
 package com.microservice.venta.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -9,7 +16,9 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,11 +27,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import com.microservice.venta.dto.VentaDTO;
+import com.microservice.venta.dto.VentaMapper;
+import com.microservice.venta.dto.VentaView;
 import com.microservice.venta.model.Venta;
+import com.microservice.venta.service.IndiceBoletas;
 import com.microservice.venta.service.VentaService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,18 +53,120 @@ import jakarta.validation.Valid;
 @Tag(name = "Ventas", description = "Operaciones relacionadas con las ventas")
 public class VentaController {
 
+    // Cada cuántas filas se envía lo acumulado al cliente durante una exportación
+    private static final int FILAS_POR_FLUSH = 500;
+
     @Autowired
     private VentaService ventaService;
 
-    //localhost:9090/api/v1/ventas/listar
+    @Autowired
+    private IndiceBoletas indiceBoletas;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //localhost:9090/api/v1/ventas/listar?after={id_venta}&size={n}
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
         @ApiResponse(responseCode = "404", description = "Ventas no encontradas")
     })
-    @Operation(summary = "Obtener todas las ventas", description ="Obtiene una lista de todas las ventas")
+    @Operation(summary = "Obtener todas las ventas", description ="Obtiene una página de ventas ordenadas por id, a partir del cursor 'after'. El link a la página siguiente se entrega en el encabezado Link")
     @GetMapping("/listar")
-    public List<Venta> getAllUsers() {
-        return ventaService.findAll();
+    public ResponseEntity<List<VentaView>> getAllUsers(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer size) {
+
+        List<VentaView> ventas = ventaService.findViewPageAfter(after, size);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (ventas.size() == VentaService.pageSize(size)) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", ventas.get(ventas.size() - 1).getId_venta())
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return respuesta.body(ventas);
+    }
+
+    //localhost:9090/api/v1/ventas/exportar?formato=ndjson|csv
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    @Operation(summary = "Exportar todas las ventas", description ="Transmite todas las ventas como NDJSON o CSV a medida que se leen de la base de datos, sin cargarlas en memoria")
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato) {
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(this::escribirNdjson);
+        }
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ventas.csv\"")
+                    .body(this::escribirCsv);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    private void escribirNdjson(OutputStream salida) throws IOException {
+        JsonGenerator generador = objectMapper.getFactory().createGenerator(salida);
+        generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generador.setRootValueSeparator(null);
+
+        int[] filas = {0};
+        ventaService.forEachVenta(venta -> {
+            try {
+                generador.writeObject(venta);
+                generador.writeRaw('\n');
+                if (vaciar(++filas[0])) {
+                    generador.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generador.close();
+    }
+
+    private void escribirCsv(OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write("id_venta,id_usuario,nro_boleta,fecha_compra,producto,cantidad,total\n");
+        escritor.flush();
+
+        int[] filas = {0};
+        ventaService.forEachVenta(venta -> {
+            try {
+                escritor.write(venta.getId_venta() + "," + venta.getIdUsuario() + "," + venta.getNroBoleta() + ","
+                        + campoCsv(venta.getFechaCompra()) + "," + campoCsv(venta.getProducto()) + ","
+                        + venta.getCantidad() + "," + venta.getTotal() + "\n");
+                if (vaciar(++filas[0])) {
+                    escritor.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        escritor.flush();
+    }
+
+    // La primera fila se envía apenas está lista, para que el cliente reciba datos sin esperar un bloque
+    // completo; después se envía cada FILAS_POR_FLUSH filas. Igual para NDJSON y CSV
+    private static boolean vaciar(int fila) {
+        return fila == 1 || fila % FILAS_POR_FLUSH == 0;
+    }
+
+    // Encierra el valor entre comillas solo si contiene separadores, comillas o saltos de línea
+    private static String campoCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return "\"" + texto.replace("\"", "\"\"") + "\"";
     }
 
     //localhost:9090/api/v1/ventas/{id_venta}
@@ -59,19 +178,9 @@ public class VentaController {
     @GetMapping("/{id_venta}")
     public ResponseEntity<?> getVentaById(@PathVariable Integer id_venta) {
         
-        Optional<Venta> venta = ventaService.getVentaById(id_venta);
+        Optional<VentaView> venta = ventaService.getVentaViewById(id_venta);
 
         if(venta.isPresent()){
-            
-            VentaDTO dto = new VentaDTO();
-            dto.setId_venta(venta.get().getId_venta());
-            dto.setId_usuario(venta.get().getIdUsuario());
-            dto.setNroBoleta(venta.get().getNroBoleta());
-            dto.setFechaCompra(venta.get().getFechaCompra());
-            dto.setProducto(venta.get().getProducto());
-            dto.setCantidad(venta.get().getCantidad());
-            dto.setTotal(venta.get().getTotal());
-
 
             return ResponseEntity.ok()
                         .header("mi-encabezado","valor")
@@ -93,26 +202,15 @@ public class VentaController {
     @Operation(summary = "Crear venta", description ="Ingresa una venta nueva")
     @PostMapping
         public ResponseEntity<?> save(@Valid @RequestBody VentaDTO ventaDTO) {
+        // Un reintento con una boleta ya registrada se rechaza sin abrir la transacción de escritura
+        if (indiceBoletas.estaRegistrada(ventaDTO.getNroBoleta())) {
+            return boletaDuplicada();
+        }
         try{
 
-            Venta venta = new Venta();
-            venta.setIdUsuario(ventaDTO.getId_usuario());
-            venta.setNroBoleta(ventaDTO.getNroBoleta());
-            venta.setFechaCompra(ventaDTO.getFechaCompra());
-            venta.setProducto(ventaDTO.getProducto());
-            venta.setCantidad(ventaDTO.getCantidad());
-            venta.setTotal(ventaDTO.getTotal());
-
-            Venta ventaGuardada = ventaService.save(venta);
-
-            VentaDTO responseDTO = new VentaDTO();
-            responseDTO.setId_venta(ventaGuardada.getId_venta());
-            responseDTO.setId_usuario(ventaGuardada.getIdUsuario());
-            responseDTO.setNroBoleta(ventaGuardada.getNroBoleta());
-            responseDTO.setFechaCompra(ventaGuardada.getFechaCompra());
-            responseDTO.setProducto(ventaGuardada.getProducto());
-            responseDTO.setCantidad(ventaGuardada.getCantidad());
-            responseDTO.setTotal(ventaGuardada.getTotal());
+            Venta ventaGuardada = ventaService.save(VentaMapper.aEntidad(ventaDTO));
+
+            VentaDTO responseDTO = VentaMapper.aDto(ventaGuardada);
 
             URI location = ServletUriComponentsBuilder
                     .fromCurrentRequest()
@@ -124,12 +222,16 @@ public class VentaController {
 
         } catch (DataIntegrityViolationException e) {
             // Da error si hay un campo único duplicado
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "El número de boleta ya está registrado");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            return boletaDuplicada();
         }
     }
 
+    private static ResponseEntity<Map<String, String>> boletaDuplicada() {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "El número de boleta ya está registrado");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
 
 
     //localhost:9090/api/v1/ventas/{id_venta}
@@ -142,25 +244,9 @@ public class VentaController {
     public ResponseEntity<VentaDTO> update(@PathVariable int id_venta, @RequestBody VentaDTO ventaDTO) {
         try {
             
-            Venta venta = new Venta();
-            venta.setId_venta(id_venta);
-            venta.setIdUsuario(ventaDTO.getId_usuario());
-            venta.setNroBoleta(ventaDTO.getNroBoleta());
-            venta.setFechaCompra(ventaDTO.getFechaCompra());
-            venta.setProducto(ventaDTO.getProducto());
-            venta.setCantidad(ventaDTO.getCantidad());
-            venta.setTotal(ventaDTO.getTotal());
-
-            Venta ventaActualizada = ventaService.save(venta);
+            Venta ventaActualizada = ventaService.save(VentaMapper.aEntidad(id_venta, ventaDTO));
         
-            VentaDTO responseDTO = new VentaDTO();
-            responseDTO.setId_venta(ventaActualizada.getId_venta());
-            responseDTO.setId_usuario(ventaActualizada.getIdUsuario());
-            responseDTO.setNroBoleta(ventaActualizada.getNroBoleta());
-            responseDTO.setFechaCompra(ventaActualizada.getFechaCompra());
-            responseDTO.setProducto(ventaActualizada.getProducto());
-            responseDTO.setCantidad(ventaActualizada.getCantidad());
-            responseDTO.setTotal(ventaActualizada.getTotal());
+            VentaDTO responseDTO = VentaMapper.aDto(ventaActualizada);
             
             return ResponseEntity.ok(responseDTO);
 
@@ -181,7 +267,9 @@ public class VentaController {
     public ResponseEntity<?> eliminar(@PathVariable int id_venta){
         try{
 
-            ventaService.delete(id_venta);
+            if (!ventaService.delete(id_venta)) {
+                return ResponseEntity.notFound().build();
+            }
             return ResponseEntity.noContent().build();
 
         }catch(Exception ex){
@@ -192,7 +280,7 @@ public class VentaController {
     @Operation(summary = "Obtener ventas por ID de usuario", description = "Lista todas las ventas asociadas a un usuario")
     @GetMapping("/usuario/{id_usuario}")
     public ResponseEntity<?> getVentasByUsuarioId(@PathVariable Integer id_usuario) {
-        List<Venta> ventas = ventaService.getVentasByUsuarioId(id_usuario);
+        List<VentaView> ventas = ventaService.getVentasByUsuarioId(id_usuario);
 
         if (ventas.isEmpty()) {
             Map<String, String> body = new HashMap<>();
@@ -1,31 +1,60 @@
 package com.microservice.venta.controller;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.hateoas.CollectionModel;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.PagedModel;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.microservice.comun.web.ControlDeVersiones;
 import com.microservice.venta.assemblers.ventaModelAssembler;
+import com.microservice.venta.dto.Comprador;
+import com.microservice.venta.dto.VentaConComprador;
 import com.microservice.venta.dto.VentaDTO;
+import com.microservice.venta.dto.VentaMapper;
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaPatchDTO;
+import com.microservice.venta.model.ResumenVentasUsuario;
 import com.microservice.venta.model.Venta;
+import com.microservice.venta.service.CompradoresService;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.IngresoDiferidoVentas;
+import com.microservice.venta.service.RegistroIdempotencia;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaBatchService;
 import com.microservice.venta.service.VentaService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,68 +68,275 @@ import jakarta.validation.Valid;
 @Tag(name = "Ventas V2", description = "Operaciones relacionadas con las ventas")
 public class VentaControllerV2 {
 
+    private static final ControlDeVersiones VERSIONES = new ControlDeVersiones(
+        "La venta no está en la versión indicada en If-Match", "La venta fue modificada por otra petición");
+
     @Autowired
     private VentaService ventaService;
 
+    @Autowired
+    private VentaBatchService ventaBatchService;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
     @Autowired
     private ventaModelAssembler ventaAssembler;
 
+    @Autowired
+    private IndiceBoletas indiceBoletas;
+
+    @Autowired
+    private RegistroIdempotencia registroIdempotencia;
+
+    @Autowired
+    private IngresoDiferidoVentas ingresoDiferidoVentas;
+
+    @Autowired
+    private CompradoresService compradoresService;
+
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "La venta no cambió desde el ETag enviado en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Ventas no encontradas")
     })
-    @Operation(summary = "Obtener ventas por id", description ="Obtiene la venta deseada por id")
+    @Operation(summary = "Obtener ventas por id", description ="Obtiene la venta deseada por id. El ETag de la respuesta corresponde a la versión de la venta")
     @GetMapping("/{id}")
-    public EntityModel<Venta> getVentaById(@PathVariable int id) {
+    public ResponseEntity<EntityModel<Venta>> getVentaById(@PathVariable int id, WebRequest request) {
         Venta venta = ventaService.getVentaById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Venta no encontrada"));
-        return ventaAssembler.toModel(venta);
+
+        String etag = ControlDeVersiones.etag(venta.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ventaAssembler.toModel(venta));
     }
 
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "304", description = "Las ventas del usuario no cambiaron desde el ETag enviado en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Ventas no encontradas")
     })
-    @Operation(summary = "Obtener ventas por usuario", description ="Obtiene una lista de todas las ventas hechas por el usuario buscado")
+    @Operation(summary = "Obtener ventas por usuario", description ="Obtiene una página de las ventas hechas por el usuario buscado, de la más reciente a la más antigua. "
+        + "Se navega con el link next (cursores 'beforeFecha' y 'before')")
     @GetMapping("/usuario/{id_usuario}")
-    public CollectionModel<EntityModel<Venta>> getVentasByUsuario(@PathVariable int id_usuario) {
-        List<EntityModel<Venta>> ventas = ventaService.getVentasByUsuarioId(id_usuario).stream()
+    public ResponseEntity<PagedModel<EntityModel<Venta>>> getVentasByUsuario(
+            @PathVariable int id_usuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeFecha,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+
+        if ((beforeFecha == null) != (before == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Los cursores 'beforeFecha' y 'before' deben enviarse juntos");
+        }
+
+        // La revisión se lee antes que la página: si cambia entre ambas lecturas, el ETag
+        // queda más antiguo que el contenido y el cliente solo pierde un 304
+        String etag = ControlDeVersiones.etag(resumenVentasService.getRevision(id_usuario));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        List<Venta> pagina = ventaService.findPageByUsuario(id_usuario, beforeFecha, before, size);
+        List<EntityModel<Venta>> ventas = pagina.stream()
             .map(ventaAssembler::toModel)
             .toList();
 
-        return CollectionModel.of(ventas,
-            linkTo(methodOn(VentaController.class).getVentasByUsuarioId(id_usuario)).withSelfRel());
+        List<Link> links = new ArrayList<>();
+        links.add(linkToHistorial(id_usuario, beforeFecha, before, size, IanaLinkRelations.SELF));
+        links.add(linkToHistorial(id_usuario, null, null, size, IanaLinkRelations.FIRST));
+        if (pagina.size() == VentaService.pageSize(size)) {
+            Venta ultima = pagina.get(pagina.size() - 1);
+            links.add(linkToHistorial(id_usuario, ultima.getFechaCompra(), ultima.getId_venta(), size, IanaLinkRelations.NEXT));
+        }
+
+        return ResponseEntity.ok().eTag(etag).body(PagedModel.of(ventas, (PagedModel.PageMetadata) null, links));
+    }
+
+    private Link linkToHistorial(int idUsuario, LocalDate beforeFecha, Integer before, Integer size, LinkRelation rel) {
+        return linkTo(methodOn(VentaControllerV2.class).getVentasByUsuario(idUsuario, beforeFecha, before, size, null)).withRel(rel).expand();
+    }
+
+    @ApiResponse(responseCode = "200", description = "Operación exitosa")
+    @Operation(summary = "Obtener resumen de ventas por usuario", description ="Obtiene la cantidad de compras, el total gastado, las unidades compradas y la fecha de la última compra del usuario")
+    @GetMapping("/usuario/{id_usuario}/resumen")
+    public EntityModel<ResumenVentasUsuario> getResumenByUsuario(@PathVariable int id_usuario) {
+        return EntityModel.of(resumenVentasService.getResumen(id_usuario),
+            linkTo(methodOn(VentaControllerV2.class).getResumenByUsuario(id_usuario)).withSelfRel(),
+            linkTo(methodOn(VentaControllerV2.class).getVentasByUsuario(id_usuario, null, null, null, null)).withRel("ventas-del-usuario"));
     }
 
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
         @ApiResponse(responseCode = "404", description = "Ventas no encontradas")
     })
-    @Operation(summary = "Obtener todas las ventas", description ="Obtiene una lista de todas las ventas")
+    @Operation(summary = "Obtener todas las ventas", description ="Obtiene una página de ventas ordenadas por id. Se navega con los links next/prev (cursores 'after' y 'before'). "
+        + "Con 'desde' y 'hasta' (yyyy-MM-dd) entrega solo las ventas de ese rango de fechas, ordenadas por fecha de compra; "
+        + "en ese caso el cursor del link next son 'afterFecha' y 'after', y 'desde'/'hasta' siguen siendo el rango pedido")
     @GetMapping
-    public CollectionModel<EntityModel<Venta>> getAllVentas() {
-        List<EntityModel<Venta>> ventas = ventaService.findAll().stream()
+    public PagedModel<EntityModel<Venta>> getAllVentas(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterFecha,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        if (desde != null || hasta != null) {
+            return getVentasPorFecha(desde, hasta, afterFecha, after, size);
+        }
+
+        boolean haciaAtras = after == null && before != null;
+        List<Venta> pagina = haciaAtras
+            ? ventaService.findPageBefore(before, size)
+            : ventaService.findPageAfter(after, size);
+
+        List<EntityModel<Venta>> ventas = pagina.stream()
             .map(ventaAssembler::toModel)
             .toList();
 
-        return CollectionModel.of(ventas,
-            linkTo(methodOn(VentaController.class).getAllUsers()).withSelfRel());
+        int limite = VentaService.pageSize(size);
+        List<Link> links = new ArrayList<>();
+        links.add(linkToPagina(after, null, before, size, null, null, IanaLinkRelations.SELF));
+        links.add(linkToPagina(null, null, null, size, null, null, IanaLinkRelations.FIRST));
+
+        if (!pagina.isEmpty()) {
+            int primero = pagina.get(0).getId_venta();
+            int ultimo = pagina.get(pagina.size() - 1).getId_venta();
+            boolean paginaLlena = pagina.size() == limite;
+
+            if (haciaAtras || paginaLlena) {
+                links.add(linkToPagina(ultimo, null, null, size, null, null, IanaLinkRelations.NEXT));
+            }
+            if ((haciaAtras && paginaLlena) || (!haciaAtras && after != null && after > 0)) {
+                links.add(linkToPagina(null, null, primero, size, null, null, IanaLinkRelations.PREV));
+            }
+        }
+
+        return PagedModel.of(ventas, (PagedModel.PageMetadata) null, links);
+    }
+
+    // La página siguiente continúa desde la fecha y el id de la última venta entregada
+    private PagedModel<EntityModel<Venta>> getVentasPorFecha(LocalDate desde, LocalDate hasta, LocalDate afterFecha, Integer after, Integer size) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Se requieren 'desde' y 'hasta', con 'desde' menor o igual a 'hasta'");
+        }
+
+        List<Venta> pagina = ventaService.findPageByFechaCompra(desde, hasta, afterFecha, after, size);
+        List<EntityModel<Venta>> ventas = pagina.stream()
+            .map(ventaAssembler::toModel)
+            .toList();
+
+        List<Link> links = new ArrayList<>();
+        links.add(linkToPagina(after, afterFecha, null, size, desde, hasta, IanaLinkRelations.SELF));
+        links.add(linkToPagina(null, null, null, size, desde, hasta, IanaLinkRelations.FIRST));
+        if (pagina.size() == VentaService.pageSize(size)) {
+            Venta ultima = pagina.get(pagina.size() - 1);
+            links.add(linkToPagina(ultima.getId_venta(), ultima.getFechaCompra(), null, size, desde, hasta, IanaLinkRelations.NEXT));
+        }
+
+        return PagedModel.of(ventas, (PagedModel.PageMetadata) null, links);
+    }
+
+    private Link linkToPagina(Integer after, LocalDate afterFecha, Integer before, Integer size, LocalDate desde, LocalDate hasta, LinkRelation rel) {
+        return linkTo(methodOn(VentaControllerV2.class).getAllVentas(after, afterFecha, before, size, desde, hasta)).withRel(rel).expand();
     }
 
     @ApiResponse(responseCode = "200", description = "Operación exitosa")
+    @Operation(summary = "Obtener ventas con su comprador", description = "Obtiene una página de ventas ordenadas por id, cada una con los datos "
+        + "de su comprador. Los compradores se piden a microservice-usuario en una sola consulta por página; si no responde a tiempo, "
+        + "'comprador' queda en null y la venta conserva el link 'usuario'. Se navega con el link next (cursor 'after')")
+    @GetMapping("/con-comprador")
+    public PagedModel<EntityModel<VentaConComprador>> getVentasConComprador(
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer size) {
+
+        List<Venta> pagina = ventaService.findPageAfter(after, size);
+        Map<Integer, Comprador> compradores = compradoresService.buscar(pagina.stream().map(Venta::getIdUsuario).toList());
+
+        List<EntityModel<VentaConComprador>> ventas = pagina.stream()
+            .map(venta -> EntityModel.of(
+                new VentaConComprador(venta, compradores.get(venta.getIdUsuario())),
+                ventaAssembler.toModel(venta).getLinks()))
+            .toList();
+
+        List<Link> links = new ArrayList<>();
+        links.add(linkToConComprador(after, size, IanaLinkRelations.SELF));
+        links.add(linkToConComprador(null, size, IanaLinkRelations.FIRST));
+        if (pagina.size() == VentaService.pageSize(size)) {
+            links.add(linkToConComprador(pagina.get(pagina.size() - 1).getId_venta(), size, IanaLinkRelations.NEXT));
+        }
+
+        return PagedModel.of(ventas, (PagedModel.PageMetadata) null, links);
+    }
+
+    private Link linkToConComprador(Integer after, Integer size, LinkRelation rel) {
+        return linkTo(methodOn(VentaControllerV2.class).getVentasConComprador(after, size)).withRel(rel).expand();
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Venta creada, o respuesta original de una petición anterior con la misma Idempotency-Key"),
+        @ApiResponse(responseCode = "400", description = "Idempotency-Key vacía o demasiado larga"),
+        @ApiResponse(responseCode = "409", description = "El N° de boleta ya está registrado, o hay una petición con la misma Idempotency-Key en curso"),
+        @ApiResponse(responseCode = "422", description = "La Idempotency-Key ya se usó con otra venta")
+    })
     @PostMapping
-    @Operation(summary = "Crear nueva venta", description = "Crea una nueva venta en la base de datos")
-    public ResponseEntity<?> crearVenta(@Valid @RequestBody VentaDTO dto) {
+    @Operation(summary = "Crear nueva venta", description = "Crea una nueva venta en la base de datos. Con el header Idempotency-Key, "
+        + "un reintento con la misma clave y la misma venta recibe la respuesta original (header Idempotent-Replayed) sin volver a registrarla")
+    public ResponseEntity<?> crearVenta(
+            @Valid @RequestBody VentaDTO dto,
+            @RequestHeader(value = RegistroIdempotencia.HEADER, required = false) String claveIdempotencia) {
+
+        if (claveIdempotencia == null) {
+            return registrarVenta(dto);
+        }
+        if (claveIdempotencia.isBlank() || claveIdempotencia.length() > RegistroIdempotencia.LARGO_MAXIMO_CLAVE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "La Idempotency-Key debe tener entre 1 y " + RegistroIdempotencia.LARGO_MAXIMO_CLAVE + " caracteres");
+        }
+
+        RegistroIdempotencia.Consulta consulta = registroIdempotencia.iniciar(claveIdempotencia, dto);
+        switch (consulta.estado()) {
+            case COMPLETADA:
+                return repeticion(consulta.respuesta());
+            case EN_CURSO:
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Hay una petición con la misma Idempotency-Key en curso");
+            case OTRA_PETICION:
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "La Idempotency-Key ya se usó con otra venta");
+            default:
+                break;
+        }
+
+        // Solo se recuerda una venta creada; ante un error el cliente puede reintentar con la misma clave
+        ResponseEntity<?> respuesta = null;
+        try {
+            respuesta = registrarVenta(dto);
+        } finally {
+            if (respuesta != null && respuesta.getStatusCode() == HttpStatus.CREATED) {
+                registroIdempotencia.completar(claveIdempotencia, dto, respuesta);
+            } else {
+                registroIdempotencia.liberar(claveIdempotencia);
+            }
+        }
+        return respuesta;
+    }
+
+    private static ResponseEntity<?> repeticion(ResponseEntity<?> original) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(original.getHeaders());
+        headers.set("Idempotent-Replayed", "true");
+        return ResponseEntity.status(original.getStatusCode()).headers(headers).body(original.getBody());
+    }
+
+    private ResponseEntity<?> registrarVenta(VentaDTO dto) {
+        // Un reintento con una boleta ya registrada se rechaza sin abrir la transacción de escritura
+        if (indiceBoletas.estaRegistrada(dto.getNroBoleta())) {
+            return boletaDuplicada();
+        }
         try {
-            Venta venta = new Venta();
-            venta.setIdUsuario(dto.getId_usuario());
-            venta.setNroBoleta(dto.getNroBoleta());
-            venta.setFechaCompra(dto.getFechaCompra());
-            venta.setProducto(dto.getProducto());
-            venta.setCantidad(dto.getCantidad());
-            venta.setTotal(dto.getTotal());
-
-            Venta creada = ventaService.save(venta);
+            Venta creada = ventaService.save(VentaMapper.aEntidad(dto));
             EntityModel<Venta> ventaModel = ventaAssembler.toModel(creada);
 
             return ResponseEntity
@@ -108,56 +344,236 @@ public class VentaControllerV2 {
                 .body(ventaModel);
 
         } catch (DataIntegrityViolationException e) {
+            return boletaDuplicada();
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> boletaDuplicada() {
+        Map<String, Object> error = new HashMap<>();
+        error.put("mensaje", "El N° de boleta ya está registrado");
+        error.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Todas las ventas fueron creadas"),
+        @ApiResponse(responseCode = "207", description = "Algunas ventas no fueron creadas, ver el resultado de cada ítem"),
+        @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande")
+    })
+    @PostMapping("/batch")
+    @Operation(summary = "Crear ventas en lote", description = "Registra muchas ventas en una sola petición e informa el resultado de cada una")
+    public ResponseEntity<?> crearVentasEnLote(@RequestBody List<VentaDTO> dtos) {
+        if (dtos.isEmpty() || dtos.size() > VentaBatchService.MAX_VENTAS_POR_LOTE) {
             Map<String, Object> error = new HashMap<>();
-            error.put("mensaje", "El N° de boleta ya está registrado");
+            error.put("mensaje", "El lote debe tener entre 1 y " + VentaBatchService.MAX_VENTAS_POR_LOTE + " ventas");
             error.put("timestamp", LocalDateTime.now().toString());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            return ResponseEntity.badRequest().body(error);
         }
+
+        List<Venta> ventas = dtos.stream().map(VentaMapper::aEntidad).toList();
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(ventas);
+        long creadas = resultados.stream().filter(r -> r.getEstado() == VentaLoteResultado.Estado.CREADA).count();
+
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("creadas", creadas);
+        respuesta.put("rechazadas", resultados.size() - creadas);
+        respuesta.put("resultados", resultados);
+        respuesta.put("timestamp", LocalDateTime.now().toString());
+
+        HttpStatus estado = creadas == resultados.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(estado).body(respuesta);
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Venta aceptada; su resultado se consulta en la URL del header Location"),
+        @ApiResponse(responseCode = "409", description = "El N° de boleta ya está registrado"),
+        @ApiResponse(responseCode = "503", description = "La cola de ingreso está llena, reintentar después de Retry-After")
+    })
+    @PostMapping("/diferidas")
+    @Operation(summary = "Crear venta en diferido", description = "Encola la venta y responde sin esperar el commit. "
+        + "Las ventas encoladas se guardan en grupos, en una transacción por grupo")
+    public ResponseEntity<?> crearVentaDiferida(@Valid @RequestBody VentaDTO dto) {
+        if (indiceBoletas.estaRegistrada(dto.getNroBoleta())) {
+            return boletaDuplicada();
+        }
+
+        Optional<IngresoDiferidoVentas.Ingreso> ingreso = ingresoDiferidoVentas.encolar(VentaMapper.aEntidad(dto));
+        if (ingreso.isEmpty()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("mensaje", "Hay demasiadas ventas pendientes, intente nuevamente en unos segundos");
+            error.put("timestamp", LocalDateTime.now().toString());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+        }
+
+        String ticket = ingreso.get().ticket();
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("mensaje", "Venta aceptada");
+        respuesta.put("ticket", ticket);
+        respuesta.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity
+            .accepted()
+            .location(linkTo(methodOn(VentaControllerV2.class).getVentaDiferida(ticket)).toUri())
+            .body(respuesta);
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultado de la venta; si fue creada, el header Location apunta a ella"),
+        @ApiResponse(responseCode = "202", description = "La venta aún no se guarda"),
+        @ApiResponse(responseCode = "404", description = "Ticket desconocido o expirado")
+    })
+    @GetMapping("/diferidas/{ticket}")
+    @Operation(summary = "Consultar venta en diferido", description = "Informa si una venta encolada ya se guardó")
+    public ResponseEntity<?> getVentaDiferida(@PathVariable String ticket) {
+        CompletableFuture<VentaLoteResultado> futuro = ingresoDiferidoVentas.consultar(ticket)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket no encontrado"));
+
+        if (!futuro.isDone()) {
+            Map<String, Object> respuesta = new HashMap<>();
+            respuesta.put("mensaje", "Venta pendiente");
+            respuesta.put("ticket", ticket);
+            respuesta.put("timestamp", LocalDateTime.now().toString());
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "1").body(respuesta);
+        }
+
+        VentaLoteResultado resultado = futuro.join();
+        if (resultado.getEstado() == VentaLoteResultado.Estado.CREADA) {
+            return ResponseEntity.ok()
+                .location(linkTo(methodOn(VentaControllerV2.class).getVentaById(resultado.getId_venta(), null)).toUri())
+                .body(resultado);
+        }
+        return ResponseEntity.ok(resultado);
     }
 
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Operación exitosa"),
-        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "409", description = "La venta fue modificada por otra petición"),
+        @ApiResponse(responseCode = "412", description = "La venta ya no está en la versión enviada en If-Match")
     })
     @PutMapping("/{id}")
-    @Operation(summary = "Actualizar venta", description = "Actualiza los datos de una venta existente")
+    @Operation(summary = "Actualizar venta", description = "Actualiza los datos de una venta existente. Con If-Match solo se actualiza si la venta sigue en esa versión")
     public ResponseEntity<EntityModel<Venta>> actualizarVenta(
             @PathVariable int id,
-            @Valid @RequestBody VentaDTO dto) {
+            @Valid @RequestBody VentaDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Venta existente = ventaService.getVentaById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "venta no encontrada"));
 
-        existente.setIdUsuario(dto.getId_usuario());
-        existente.setNroBoleta(dto.getNroBoleta());
-        existente.setFechaCompra(dto.getFechaCompra());
-        existente.setProducto(dto.getProducto());
-        existente.setCantidad(dto.getCantidad());
-        existente.setTotal(dto.getTotal());
+        // Se guarda una instancia nueva: la existente puede estar compartida por la caché
+        Venta cambios = VentaMapper.aEntidad(existente.getId_venta(), dto);
+        cambios.setVersion(VERSIONES.versionEsperada(ifMatch));
 
-        Venta actualizada = ventaService.save(existente);
+        Venta actualizada;
+        try {
+            actualizada = ventaService.save(cambios);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        }
         EntityModel<Venta> ventaModel = ventaAssembler.toModel(actualizada);
 
-        return ResponseEntity.ok(ventaModel);
+        return ResponseEntity.ok().eTag(ControlDeVersiones.etag(actualizada.getVersion())).body(ventaModel);
     }
 
-    @ApiResponse(responseCode = "200", description = "Operación exitosa")
-    @DeleteMapping("/{id}")
-    @Operation(summary = "Eliminar venta", description = "Elimina una venta por su ID")
-    public ResponseEntity<?> eliminarVenta(@PathVariable int id) {
-        Venta venta = ventaService.getVentaById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Venta actualizada"),
+        @ApiResponse(responseCode = "400", description = "No se indicó ningún campo o algún valor no es válido"),
+        @ApiResponse(responseCode = "404", description = "Venta no encontrada"),
+        @ApiResponse(responseCode = "409", description = "El N° de boleta ya está registrado o la venta fue modificada por otra petición"),
+        @ApiResponse(responseCode = "412", description = "La venta ya no está en la versión enviada en If-Match")
+    })
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente una venta", description = "Modifica solo los campos enviados con un único UPDATE, sin leer la venta antes. "
+        + "Con If-Match solo se actualiza si la venta sigue en esa versión, y la respuesta trae el ETag de la nueva versión")
+    public ResponseEntity<Void> actualizarParcialVenta(
+            @PathVariable int id,
+            @Valid @RequestBody VentaPatchDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        if (dto.getId_usuario() == null && dto.getNroBoleta() == null && dto.getFechaCompra() == null
+                && dto.getProducto() == null && dto.getCantidad() == null && dto.getTotal() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Se debe indicar al menos un campo a modificar");
+        }
+
+        Long version = VERSIONES.versionEsperada(ifMatch);
+        boolean actualizada;
+        try {
+            actualizada = ventaService.actualizarParcial(id, dto, version);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El N° de boleta ya está registrado");
+        }
+        if (!actualizada) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Venta no encontrada");
+        }
 
-        ventaService.delete(id);
+        ResponseEntity.HeadersBuilder<?> respuesta = ResponseEntity.noContent();
+        if (version != null) {
+            respuesta.eTag(ControlDeVersiones.etag(version + 1));
+        }
+        return respuesta.build();
+    }
+
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "404", description = "Venta no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La venta fue modificada por otra petición"),
+        @ApiResponse(responseCode = "412", description = "La venta ya no está en la versión enviada en If-Match")
+    })
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Eliminar venta", description = "Elimina una venta por su ID. Con If-Match solo se elimina si la venta sigue en esa versión")
+    public ResponseEntity<?> eliminarVenta(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long version = VERSIONES.versionEsperada(ifMatch);
+        boolean eliminada;
+        try {
+            eliminada = version == null
+                ? ventaService.delete(id)
+                : ventaService.delete(id, version);
+        } catch (OptimisticLockingFailureException e) {
+            throw VERSIONES.conflictoDeVersion(ifMatch);
+        }
+        if (!eliminada) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Venta no encontrada");
+        }
 
         Map<String, Object> respuesta = new HashMap<>();
         respuesta.put("mensaje", "Venta eliminada exitosamente");
         respuesta.put("timestamp", LocalDateTime.now().toString());
         respuesta.put("links", List.of(
-            linkTo(methodOn(VentaControllerV2.class).getAllVentas()).withRel("ventas").getHref()
+            linkTo(methodOn(VentaControllerV2.class).getAllVentas(null, null, null, null, null, null)).withRel("ventas").expand().getHref()
         ));
 
         return ResponseEntity.ok(respuesta);
     }
 
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Operación exitosa"),
+        @ApiResponse(responseCode = "400", description = "No se indicaron ids o son demasiados")
+    })
+    @DeleteMapping
+    @Operation(summary = "Eliminar varias ventas", description = "Elimina en una sola operación las ventas indicadas en 'ids' (hasta "
+        + VentaService.MAX_IDS_POR_ELIMINACION + "). Los ids que no existen se ignoran; la respuesta indica cuántas se eliminaron")
+    public ResponseEntity<Map<String, Object>> eliminarVentas(@RequestParam List<Integer> ids) {
+        Set<Integer> distintos = new LinkedHashSet<>(ids);
+        if (distintos.isEmpty() || distintos.size() > VentaService.MAX_IDS_POR_ELIMINACION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Se deben indicar entre 1 y " + VentaService.MAX_IDS_POR_ELIMINACION + " ids");
+        }
+
+        int eliminadas = ventaService.deleteAll(distintos);
+
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("mensaje", "Ventas eliminadas exitosamente");
+        respuesta.put("eliminadas", eliminadas);
+        respuesta.put("noEncontradas", distintos.size() - eliminadas);
+        respuesta.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.ok(respuesta);
+    }
+
 }
\ No newline at end of file
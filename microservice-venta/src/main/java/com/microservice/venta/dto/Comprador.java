@@ -0,0 +1,24 @@
+package com.microservice.venta.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Datos del usuario que hizo una venta, tal como los entrega microservice-usuario
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Comprador {
+
+    private int id_usuario;
+    private String rut;
+    private String nombres;
+    private String apellidos;
+    private String correo;
+
+}
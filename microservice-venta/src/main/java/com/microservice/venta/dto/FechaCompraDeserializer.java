@@ -0,0 +1,36 @@
+package com.microservice.venta.dto;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+// Fecha de compra en yyyy-MM-dd o en dd/MM/yyyy, el formato que enviaban los clientes
+// cuando fechaCompra era texto
+public class FechaCompraDeserializer extends StdScalarDeserializer<LocalDate> {
+
+    private static final DateTimeFormatter DIA_MES_ANIO = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    public FechaCompraDeserializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String texto = p.getValueAsString();
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        texto = texto.trim();
+        try {
+            return texto.indexOf('/') >= 0 ? LocalDate.parse(texto, DIA_MES_ANIO) : LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            return (LocalDate) ctxt.handleWeirdStringValue(LocalDate.class, texto,
+                    "La fecha de compra debe tener formato yyyy-MM-dd o dd/MM/yyyy");
+        }
+    }
+}
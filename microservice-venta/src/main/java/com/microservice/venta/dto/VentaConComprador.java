@@ -0,0 +1,22 @@
+package com.microservice.venta.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.microservice.venta.model.Venta;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Venta con su comprador incluido. Si no se pudo obtener el comprador, comprador es null
+// y queda solo el link "usuario" de la venta.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaConComprador {
+
+    @JsonUnwrapped
+    private Venta venta;
+
+    private Comprador comprador;
+
+}
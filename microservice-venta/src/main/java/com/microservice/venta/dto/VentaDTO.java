@@ -1,6 +1,12 @@
 package com.microservice.venta.dto;
 
+import java.time.LocalDate;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +21,11 @@ public class VentaDTO {
     private int id_venta;
     private int id_usuario;
     private int nroBoleta;
-    private String fechaCompra;
+    @NotNull(message = "La fecha de compra es obligatoria")
+    @JsonDeserialize(using = FechaCompraDeserializer.class)
+    @Schema(type = "string", example = "2025-12-25", description = "Formato yyyy-MM-dd; también se acepta dd/MM/yyyy")
+    private LocalDate fechaCompra;
+    @NotBlank(message = "El producto es obligatorio")
     private String producto;
     private int cantidad;
     private int total;
@@ -0,0 +1,23 @@
+package com.microservice.venta.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaLoteResultado {
+
+    public enum Estado { CREADA, DUPLICADA, INVALIDA, ERROR }
+
+    private int indice;
+    private Estado estado;
+    private Integer id_venta;
+    private int nroBoleta;
+    private String mensaje;
+
+}
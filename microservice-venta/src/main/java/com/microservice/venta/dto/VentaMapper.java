@@ -0,0 +1,40 @@
+package com.microservice.venta.dto;
+
+import com.microservice.venta.model.Venta;
+
+// Copia entre VentaDTO y la entidad Venta, la misma para los controladores v1 y v2 y el ingreso en lote
+public final class VentaMapper {
+
+    private VentaMapper() {
+    }
+
+    // Venta nueva (id 0) con los datos del DTO
+    public static Venta aEntidad(VentaDTO dto) {
+        return aEntidad(0, dto);
+    }
+
+    public static Venta aEntidad(int id_venta, VentaDTO dto) {
+        Venta venta = new Venta();
+        venta.setId_venta(id_venta);
+        venta.setIdUsuario(dto.getId_usuario());
+        venta.setNroBoleta(dto.getNroBoleta());
+        venta.setFechaCompra(dto.getFechaCompra());
+        venta.setProducto(dto.getProducto());
+        venta.setCantidad(dto.getCantidad());
+        venta.setTotal(dto.getTotal());
+        return venta;
+    }
+
+    public static VentaDTO aDto(Venta venta) {
+        VentaDTO dto = new VentaDTO();
+        dto.setId_venta(venta.getId_venta());
+        dto.setId_usuario(venta.getIdUsuario());
+        dto.setNroBoleta(venta.getNroBoleta());
+        dto.setFechaCompra(venta.getFechaCompra());
+        dto.setProducto(venta.getProducto());
+        dto.setCantidad(venta.getCantidad());
+        dto.setTotal(venta.getTotal());
+        return dto;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.microservice.venta.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cambios parciales de una venta: solo se modifican los campos que vienen con valor (no null)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaPatchDTO {
+
+    private Integer id_usuario;
+    private Integer nroBoleta;
+    @JsonDeserialize(using = FechaCompraDeserializer.class)
+    @Schema(type = "string", example = "2025-12-25", description = "Formato yyyy-MM-dd; también se acepta dd/MM/yyyy")
+    private LocalDate fechaCompra;
+
+    @Size(min=2, max=100, message="El nombre deben tener entre 2 y 100 caracteres")
+    private String producto;
+
+    private Integer cantidad;
+    private Integer total;
+
+}
@@ -0,0 +1,20 @@
+package com.microservice.venta.dto;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+
+// Venta de solo lectura que las consultas construyen directamente (SELECT new ...), sin pasar
+// por una entidad administrada. Se serializa igual que la entidad Venta.
+@Value
+public class VentaView {
+
+    int id_venta;
+    int idUsuario;
+    int nroBoleta;
+    LocalDate fechaCompra;
+    String producto;
+    int cantidad;
+    int total;
+
+}
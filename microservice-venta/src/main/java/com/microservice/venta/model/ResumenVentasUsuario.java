@@ -0,0 +1,47 @@
+package com.microservice.venta.model;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Totales de ventas por usuario. Se actualizan en la misma transacción que cada
+// alta, modificación o eliminación de una venta (ver ResumenVentasService).
+@Entity
+@Table(name = "resumen_ventas_usuario")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentasUsuario {
+
+    @Id
+    @Column(name = "id_usuario")
+    private int idUsuario;
+
+    @Column(nullable=false)
+    private long cantidadVentas;
+
+    @Column(nullable=false)
+    private long totalGastado;
+
+    @Column(nullable=false)
+    private long unidadesCompradas;
+
+    @Column(name = "ultima_compra")
+    private LocalDate ultimaCompra;
+
+    // Aumenta con cada cambio en las ventas del usuario; es el ETag de su historial de ventas
+    @Column(nullable=false)
+    @JsonIgnore
+    private long revision;
+
+}
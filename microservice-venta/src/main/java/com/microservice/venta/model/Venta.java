@@ -1,12 +1,20 @@
 package com.microservice.venta.model;
 
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,15 +22,24 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "venta")
+@Table(name = "venta", indexes = {
+    // Consultas por rango de fechas, paginadas por (fecha_compra, id_venta)
+    @Index(name = "idx_venta_fecha_compra", columnList = "fecha_compra, id_venta"),
+    // Historial de compras de un usuario, de la más reciente a la más antigua
+    @Index(name = "idx_venta_usuario_fecha", columnList = "id_usuario, fecha_compra, id_venta")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Venta {
 
+    // Con IDENTITY Hibernate debe ejecutar cada INSERT por separado para conocer el id.
+    // La secuencia (emulada con una tabla en MySQL) reserva ids de a 50 y permite agrupar
+    // los INSERT en lotes JDBC.
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy= GenerationType.SEQUENCE, generator = "venta_seq")
+    @SequenceGenerator(name = "venta_seq", sequenceName = "venta_seq", allocationSize = 50)
     private int id_venta;
 
     @Column(nullable=false)
@@ -32,9 +49,11 @@ public class Venta {
     private int nroBoleta;
 
     @Column(name = "fecha_compra", nullable = false)
-    private String fechaCompra;
+    @NotNull(message = "La fecha de compra es obligatoria")
+    private LocalDate fechaCompra;
 
     @Column(nullable=false)
+    @NotBlank(message = "El producto es obligatorio")
     @Size(min=2, max=100, message="El nombre deben tener entre 2 y 100 caracteres")
     private String producto;
 
@@ -44,4 +63,11 @@ public class Venta {
     @Column(nullable=false)
     private int total;
 
+    // Aumenta con cada modificación. Es el ETag de la venta y con If-Match permite rechazar
+    // una actualización basada en una versión que ya cambió. Null indica que quien guarda
+    // no conoce la versión (ver VentaService.save).
+    @Version
+    @JsonIgnore
+    private Long version;
+
 }
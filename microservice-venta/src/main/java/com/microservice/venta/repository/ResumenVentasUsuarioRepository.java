@@ -0,0 +1,60 @@
+package com.microservice.venta.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.microservice.venta.model.ResumenVentasUsuario;
+
+@Repository
+public interface ResumenVentasUsuarioRepository extends JpaRepository<ResumenVentasUsuario,Integer>{
+
+    // Crea el resumen del usuario o acumula sobre el existente en una sola sentencia atómica
+    @Modifying
+    @Query(value = """
+            INSERT INTO resumen_ventas_usuario (id_usuario, cantidad_ventas, total_gastado, unidades_compradas, ultima_compra, revision)
+            VALUES (:idUsuario, :ventas, :total, :cantidad, :fechaCompra, 1)
+            ON DUPLICATE KEY UPDATE
+                revision = revision + 1,
+                cantidad_ventas = cantidad_ventas + :ventas,
+                total_gastado = total_gastado + :total,
+                unidades_compradas = unidades_compradas + :cantidad,
+                ultima_compra = GREATEST(COALESCE(ultima_compra, :fechaCompra), :fechaCompra)
+            """, nativeQuery = true)
+    int sumarVentas(@Param("idUsuario") int idUsuario, @Param("ventas") long ventas,
+            @Param("total") long total, @Param("cantidad") long cantidad, @Param("fechaCompra") LocalDate fechaCompra);
+
+    // Se ejecuta después de escribir el cambio en venta (flushAutomatically) para que la
+    // última fecha de compra se recalcule sin la venta eliminada o modificada
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE resumen_ventas_usuario
+            SET revision = revision + 1,
+                cantidad_ventas = cantidad_ventas - :ventas,
+                total_gastado = total_gastado - :total,
+                unidades_compradas = unidades_compradas - :cantidad,
+                ultima_compra = (SELECT MAX(v.fecha_compra) FROM venta v WHERE v.id_usuario = :idUsuario)
+            WHERE id_usuario = :idUsuario
+            """, nativeQuery = true)
+    int descontarVentas(@Param("idUsuario") int idUsuario, @Param("ventas") long ventas,
+            @Param("total") long total, @Param("cantidad") long cantidad);
+
+    // Un cambio que no altera los totales (producto, boleta) igual cambia el historial del usuario
+    // dueño de la venta: solo se avanza la revisión
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE resumen_ventas_usuario
+            SET revision = revision + 1
+            WHERE id_usuario = (SELECT v.id_usuario FROM venta v WHERE v.id_venta = :idVenta)
+            """, nativeQuery = true)
+    int avanzarRevisionPorVenta(@Param("idVenta") int idVenta);
+
+    @Query("SELECT r.revision FROM ResumenVentasUsuario r WHERE r.idUsuario = :idUsuario")
+    Optional<Long> findRevisionById(@Param("idUsuario") int idUsuario);
+
+}
@@ -1,15 +1,136 @@
 package com.microservice.venta.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.microservice.venta.dto.VentaView;
 import com.microservice.venta.model.Venta;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface VentaRepository extends JpaRepository<Venta,Integer>{
 
-    List<Venta> findByIdUsuario(Integer idUsuario);
+    String VISTA = "SELECT new com.microservice.venta.dto.VentaView(v.id_venta, v.idUsuario, v.nroBoleta, "
+            + "v.fechaCompra, v.producto, v.cantidad, v.total) FROM Venta v ";
+
+    // Valores de una venta tal como están guardados en la base de datos
+    interface Snapshot {
+        int getIdUsuario();
+        int getNroBoleta();
+        LocalDate getFechaCompra();
+        int getCantidad();
+        int getTotal();
+        Long getVersion();
+    }
+
+    // Consultas de solo lectura: devuelven VentaView sin cargar entidades en el contexto de persistencia
+    @Query(VISTA + "WHERE v.id_venta = :id")
+    Optional<VentaView> findViewById(@Param("id") int id);
+
+    @Query(VISTA + "WHERE v.idUsuario = :idUsuario")
+    List<VentaView> findViewsByIdUsuario(@Param("idUsuario") int idUsuario);
+
+    @Query(VISTA + "WHERE v.id_venta > :after ORDER BY v.id_venta ASC")
+    List<VentaView> findViewPageAfter(@Param("after") int after, Pageable pageable);
+
+    // FlushMode COMMIT: lee la fila de la base de datos sin escribir antes los cambios
+    // pendientes de la misma venta, para conocer sus valores previos a una actualización
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT v.idUsuario AS idUsuario, v.nroBoleta AS nroBoleta, v.fechaCompra AS fechaCompra, "
+            + "v.cantidad AS cantidad, v.total AS total, v.version AS version FROM Venta v WHERE v.id_venta = :id")
+    Optional<Snapshot> findSnapshotById(@Param("id") int id);
+
+    // Valores de varias ventas, bloqueadas hasta el fin de la transacción para que no cambien
+    // antes de eliminarlas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v.idUsuario AS idUsuario, v.nroBoleta AS nroBoleta, v.fechaCompra AS fechaCompra, "
+            + "v.cantidad AS cantidad, v.total AS total, v.version AS version FROM Venta v WHERE v.id_venta IN :ids")
+    List<Snapshot> findSnapshotsForUpdate(@Param("ids") Collection<Integer> ids);
+
+    // Elimina solo si la versión no cambió; 0 filas indica una modificación concurrente
+    @Modifying
+    @Query("DELETE FROM Venta v WHERE v.id_venta = :id AND v.version = :version")
+    int deleteByIdAndVersion(@Param("id") int id, @Param("version") long version);
+
+    // Un solo DELETE, sin cargar las entidades como deleteAllById
+    @Modifying
+    @Query("DELETE FROM Venta v WHERE v.id_venta IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Modifica en una sola sentencia los campos que no son null y aumenta la versión. Con versión
+    // solo actualiza si la venta sigue en ella. Devuelve las filas modificadas: 0 si la venta no
+    // existe o cambió de versión.
+    @Modifying
+    @Query("UPDATE Venta v SET v.idUsuario = COALESCE(:idUsuario, v.idUsuario), "
+            + "v.nroBoleta = COALESCE(:nroBoleta, v.nroBoleta), "
+            + "v.fechaCompra = COALESCE(:fechaCompra, v.fechaCompra), "
+            + "v.producto = COALESCE(:producto, v.producto), "
+            + "v.cantidad = COALESCE(:cantidad, v.cantidad), "
+            + "v.total = COALESCE(:total, v.total), "
+            + "v.version = v.version + 1 "
+            + "WHERE v.id_venta = :id AND (:version IS NULL OR v.version = :version)")
+    int actualizarParcial(@Param("id") int id, @Param("version") Long version,
+            @Param("idUsuario") Integer idUsuario, @Param("nroBoleta") Integer nroBoleta,
+            @Param("fechaCompra") LocalDate fechaCompra, @Param("producto") String producto,
+            @Param("cantidad") Integer cantidad, @Param("total") Integer total);
+
+    boolean existsByNroBoleta(int nroBoleta);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.nroBoleta FROM Venta v")
+    Stream<Integer> streamNroBoletas();
+
+    @Query("SELECT v.nroBoleta FROM Venta v WHERE v.nroBoleta IN :boletas")
+    List<Integer> findNroBoletasIn(@Param("boletas") Collection<Integer> boletas);
+
+    // Paginación por cursor (keyset) sobre la clave primaria: el costo de cada página
+    // no depende de cuántas filas hay antes del cursor, a diferencia de OFFSET.
+    @Query("SELECT v FROM Venta v WHERE v.id_venta > :after ORDER BY v.id_venta ASC")
+    List<Venta> findPageAfter(@Param("after") int after, Pageable pageable);
+
+    @Query("SELECT v FROM Venta v WHERE v.id_venta < :before ORDER BY v.id_venta DESC")
+    List<Venta> findPageBefore(@Param("before") int before, Pageable pageable);
+
+    // Recorre el índice (fecha_compra, id_venta) desde la posición (afterFecha, after) hasta 'hasta',
+    // sin salir del rango [desde, hasta]
+    @Query("SELECT v FROM Venta v WHERE v.fechaCompra >= :desde AND v.fechaCompra <= :hasta "
+            + "AND (v.fechaCompra > :afterFecha OR (v.fechaCompra = :afterFecha AND v.id_venta > :after)) "
+            + "ORDER BY v.fechaCompra ASC, v.id_venta ASC")
+    List<Venta> findPageByFechaCompra(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+            @Param("afterFecha") LocalDate afterFecha, @Param("after") int after, Pageable pageable);
+
+    // Historial de un usuario de la compra más reciente a la más antigua. Ambas consultas
+    // recorren el índice (id_usuario, fecha_compra, id_venta) y se detienen al llenar la página.
+    @Query("SELECT v FROM Venta v WHERE v.idUsuario = :idUsuario "
+            + "ORDER BY v.fechaCompra DESC, v.id_venta DESC")
+    List<Venta> findUltimasByIdUsuario(@Param("idUsuario") int idUsuario, Pageable pageable);
+
+    @Query("SELECT v FROM Venta v WHERE v.idUsuario = :idUsuario "
+            + "AND (v.fechaCompra < :fecha OR (v.fechaCompra = :fecha AND v.id_venta < :before)) "
+            + "ORDER BY v.fechaCompra DESC, v.id_venta DESC")
+    List<Venta> findPageByIdUsuarioBefore(@Param("idUsuario") int idUsuario, @Param("fecha") LocalDate fecha,
+            @Param("before") int before, Pageable pageable);
+
+    // Recorre toda la tabla con un cursor del servidor (requiere useCursorFetch=true en la URL
+    // de MySQL): el driver trae las filas de a bloques en vez de cargar el resultado completo.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(VISTA + "ORDER BY v.id_venta ASC")
+    Stream<VentaView> streamAll();
 
 }
@@ -0,0 +1,107 @@
+package com.microservice.venta.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservice.venta.dto.Comprador;
+
+// Compradores de las ventas, obtenidos de microservice-usuario (POST /api/v2/usuarios/por-ids).
+// Los que no están en caché se piden en bloques de IDS_POR_PETICION, todos los bloques en paralelo,
+// y se espera a lo más ESPERA_MAXIMA: lo que no llegue a tiempo se omite (la venta queda solo con
+// su link) y, cuando llega, igual queda en caché para la siguiente petición.
+// Si una consulta falla o no responde a tiempo, durante PAUSA_TRAS_FALLA no se vuelve a consultar.
+@Service
+public class CompradoresService {
+
+    public static final int IDS_POR_PETICION = 200;
+    public static final Duration ESPERA_MAXIMA = Duration.ofMillis(500);
+    public static final Duration PAUSA_TRAS_FALLA = Duration.ofSeconds(5);
+    public static final Duration VIGENCIA = Duration.ofMinutes(5);
+
+    private final Cache<Integer, Comprador> compradores = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(VIGENCIA)
+            .build();
+
+    @Autowired
+    @Qualifier("usuariosRestClient")
+    private RestClient usuariosRestClient;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    private volatile long pausaHasta = System.nanoTime();
+
+    // Compradores encontrados, por id de usuario. Un id ausente no existe o no se pudo obtener a tiempo.
+    public Map<Integer, Comprador> buscar(Collection<Integer> idsUsuario) {
+        List<Integer> distintos = idsUsuario.stream().distinct().toList();
+        Map<Integer, Comprador> encontrados = new HashMap<>(compradores.getAllPresent(distintos));
+        List<Integer> faltantes = distintos.stream().filter(id -> !encontrados.containsKey(id)).toList();
+        if (faltantes.isEmpty() || System.nanoTime() - pausaHasta < 0) {
+            return encontrados;
+        }
+
+        List<CompletableFuture<List<Comprador>>> consultas = new ArrayList<>();
+        for (int desde = 0; desde < faltantes.size(); desde += IDS_POR_PETICION) {
+            List<Integer> bloque = faltantes.subList(desde, Math.min(desde + IDS_POR_PETICION, faltantes.size()));
+            consultas.add(CompletableFuture.supplyAsync(() -> consultar(bloque), taskExecutor));
+        }
+
+        long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+        for (CompletableFuture<List<Comprador>> consulta : consultas) {
+            try {
+                consulta.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        .forEach(comprador -> encontrados.put(comprador.getId_usuario(), comprador));
+            } catch (TimeoutException | ExecutionException e) {
+                pausaHasta = System.nanoTime() + PAUSA_TRAS_FALLA.toNanos();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return encontrados;
+    }
+
+    private List<Comprador> consultar(List<Integer> ids) {
+        RespuestaUsuarios respuesta = usuariosRestClient.post()
+                .uri("/api/v2/usuarios/por-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ids)
+                .retrieve()
+                .body(RespuestaUsuarios.class);
+
+        List<Comprador> recibidos = respuesta == null || respuesta.embebidos() == null || respuesta.embebidos().usuarioList() == null
+                ? List.of()
+                : respuesta.embebidos().usuarioList();
+        recibidos.forEach(comprador -> compradores.put(comprador.getId_usuario(), comprador));
+        return recibidos;
+    }
+
+    // Colección HAL de microservice-usuario; sin usuarios no trae _embedded
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record RespuestaUsuarios(@JsonProperty("_embedded") Embebidos embebidos) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Embebidos(List<Comprador> usuarioList) {}
+
+}
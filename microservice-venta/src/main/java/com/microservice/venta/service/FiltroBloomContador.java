@@ -0,0 +1,123 @@
+package com.microservice.venta.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom con contadores de 4 bits (16 por long) para números enteros. Responde si un valor
+// "puede estar" o "seguro no está" usando una fracción de la memoria de un conjunto exacto, y a
+// diferencia de un filtro de bits admite quitar valores. Un contador que llega a 15 queda saturado
+// y ya no se modifica: nunca produce falsos negativos, a lo más falsos positivos adicionales.
+// Es seguro entre hilos sin bloqueos (cada contador se actualiza con compareAndSet).
+public final class FiltroBloomContador {
+
+    private static final int CONTADORES_POR_LONG = 16;
+    private static final long MAXIMO = 0xF;
+
+    private final AtomicLongArray contadores;
+    private final int cantidadContadores;
+    private final int funciones;
+
+    // Tamaño óptimo para la capacidad y la probabilidad de falsos positivos pedidas:
+    // m = -n ln(p) / ln(2)^2 contadores y k = (m / n) ln(2) funciones de hash
+    public FiltroBloomContador(long capacidadEsperada, double probabilidadFalsoPositivo) {
+        if (capacidadEsperada <= 0 || probabilidadFalsoPositivo <= 0 || probabilidadFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Capacidad o probabilidad de falsos positivos inválida");
+        }
+        double m = Math.ceil(-capacidadEsperada * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        if (m > Integer.MAX_VALUE - CONTADORES_POR_LONG) {
+            throw new IllegalArgumentException("Filtro demasiado grande para la capacidad pedida");
+        }
+        this.cantidadContadores = (int) m;
+        this.funciones = Math.max(1, (int) Math.round(m / capacidadEsperada * Math.log(2)));
+        this.contadores = new AtomicLongArray((cantidadContadores + CONTADORES_POR_LONG - 1) / CONTADORES_POR_LONG);
+    }
+
+    public void agregar(int valor) {
+        long hash = mezclar(valor);
+        for (int i = 0; i < funciones; i++) {
+            incrementar(indice(hash, i));
+        }
+    }
+
+    // Quitar un valor que nunca se agregó descontaría contadores de otros valores; por eso
+    // solo se quita si todos sus contadores están en uso
+    public void quitar(int valor) {
+        if (!puedeContener(valor)) {
+            return;
+        }
+        long hash = mezclar(valor);
+        for (int i = 0; i < funciones; i++) {
+            decrementar(indice(hash, i));
+        }
+    }
+
+    public boolean puedeContener(int valor) {
+        long hash = mezclar(valor);
+        for (int i = 0; i < funciones; i++) {
+            if (contador(indice(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getCantidadContadores() {
+        return cantidadContadores;
+    }
+
+    public int getFunciones() {
+        return funciones;
+    }
+
+    public long getMemoriaEnBytes() {
+        return (long) contadores.length() * Long.BYTES;
+    }
+
+    // Doble hash (Kirsch-Mitzenmacher): las k posiciones se derivan de las dos mitades de un solo hash
+    private int indice(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return (int) Math.floorMod(h1 + (long) i * h2, (long) cantidadContadores);
+    }
+
+    // Finalizador de SplitMix64: reparte bien valores consecutivos como los N° de boleta
+    private static long mezclar(int valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long contador(int indice) {
+        return (contadores.get(indice / CONTADORES_POR_LONG) >>> desplazamiento(indice)) & MAXIMO;
+    }
+
+    private void incrementar(int indice) {
+        int posicion = indice / CONTADORES_POR_LONG;
+        int desplazamiento = desplazamiento(indice);
+        while (true) {
+            long actual = contadores.get(posicion);
+            if (((actual >>> desplazamiento) & MAXIMO) == MAXIMO
+                    || contadores.compareAndSet(posicion, actual, actual + (1L << desplazamiento))) {
+                return;
+            }
+        }
+    }
+
+    private void decrementar(int indice) {
+        int posicion = indice / CONTADORES_POR_LONG;
+        int desplazamiento = desplazamiento(indice);
+        while (true) {
+            long actual = contadores.get(posicion);
+            long contador = (actual >>> desplazamiento) & MAXIMO;
+            if (contador == 0 || contador == MAXIMO
+                    || contadores.compareAndSet(posicion, actual, actual - (1L << desplazamiento))) {
+                return;
+            }
+        }
+    }
+
+    private static int desplazamiento(int indice) {
+        return (indice % CONTADORES_POR_LONG) * 4;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.microservice.venta.service;
+
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservice.venta.repository.VentaRepository;
+
+// N° de boleta registrados, en un filtro de Bloom en memoria (unos 5 MB para un millón de boletas).
+// Una boleta que el filtro no conoce es nueva y se inserta sin consultas previas. Si el filtro la
+// conoce se confirma con una consulta por el índice único, fuera de toda transacción, antes de
+// intentar el INSERT: así un reintento duplicado no llega a abrir una transacción de escritura.
+// El filtro es solo de esta instancia: una boleta registrada por otra instancia o durante la carga
+// inicial no se detecta aquí y la sigue rechazando la restricción única de la base de datos.
+@Service
+public class IndiceBoletas {
+
+    public static final long CAPACIDAD_ESPERADA = 1_000_000;
+    public static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+
+    private final FiltroBloomContador filtro = new FiltroBloomContador(CAPACIDAD_ESPERADA, PROBABILIDAD_FALSO_POSITIVO);
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Carga las boletas existentes al iniciar, recorriendo la tabla con un cursor
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        lectura.executeWithoutResult(status -> {
+            try (Stream<Integer> boletas = ventaRepository.streamNroBoletas()) {
+                boletas.forEach(filtro::agregar);
+            }
+        });
+    }
+
+    public void registrar(int nroBoleta) {
+        filtro.agregar(nroBoleta);
+    }
+
+    public void quitar(int nroBoleta) {
+        filtro.quitar(nroBoleta);
+    }
+
+    // false: la boleta seguro no está registrada (según esta instancia)
+    public boolean puedeEstarRegistrada(int nroBoleta) {
+        return filtro.puedeContener(nroBoleta);
+    }
+
+    // true solo si la base de datos confirma la boleta
+    public boolean estaRegistrada(int nroBoleta) {
+        return filtro.puedeContener(nroBoleta) && ventaRepository.existsByNroBoleta(nroBoleta);
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.microservice.venta.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.model.Venta;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Ingreso diferido de ventas. Las ventas aceptadas quedan en una cola acotada en memoria y un único
+// escritor las guarda en grupos de hasta TAMANO_GRUPO, o con las que haya tras ESPERA_MAXIMA, en una
+// sola transacción por grupo (VentaBatchService). Así el costo del commit se reparte entre todas las
+// ventas del grupo. Si la cola está llena la venta se rechaza en lugar de esperar.
+// Una venta aceptada todavía no está confirmada: si la instancia cae antes del commit se pierde.
+@Slf4j
+@Service
+public class IngresoDiferidoVentas {
+
+    public static final int CAPACIDAD_COLA = 10_000;
+    public static final int TAMANO_GRUPO = 200;
+    public static final Duration ESPERA_MAXIMA = Duration.ofMillis(20);
+    public static final Duration VIGENCIA_RESULTADOS = Duration.ofHours(1);
+
+    public record Ingreso(String ticket, CompletableFuture<VentaLoteResultado> resultado) {}
+
+    private record Pendiente(Venta venta, CompletableFuture<VentaLoteResultado> resultado) {}
+
+    private final BlockingQueue<Pendiente> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+
+    // Resultado de cada ticket, pendiente o terminado, para consultarlo después de responder 202
+    private final Cache<String, CompletableFuture<VentaLoteResultado>> resultados = Caffeine.newBuilder()
+            .maximumSize(10L * CAPACIDAD_COLA)
+            .expireAfterWrite(VIGENCIA_RESULTADOS)
+            .build();
+
+    @Autowired
+    private VentaBatchService ventaBatchService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile boolean activo;
+    private Thread escritor;
+
+    private Counter rechazadas;
+    private Counter guardadas;
+    private DistributionSummary tamanoGrupo;
+    private Timer escrituraGrupo;
+
+    @PostConstruct
+    public void iniciar() {
+        Gauge.builder("ventas.diferidas.cola", cola, BlockingQueue::size)
+                .description("Ventas aceptadas que esperan ser guardadas")
+                .register(meterRegistry);
+        rechazadas = Counter.builder("ventas.diferidas.rechazadas")
+                .description("Ventas rechazadas porque la cola estaba llena")
+                .register(meterRegistry);
+        guardadas = Counter.builder("ventas.diferidas.guardadas")
+                .description("Ventas guardadas por el escritor")
+                .register(meterRegistry);
+        tamanoGrupo = DistributionSummary.builder("ventas.diferidas.grupo")
+                .description("Ventas por commit")
+                .register(meterRegistry);
+        escrituraGrupo = Timer.builder("ventas.diferidas.escritura")
+                .description("Duración de la transacción de cada grupo")
+                .register(meterRegistry);
+
+        activo = true;
+        escritor = new Thread(this::escribir, "ventas-diferidas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    // Deja de aceptar ventas y espera a que el escritor guarde las que quedan en la cola
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    // Vacío si la cola está llena: quien llama debe pedir al cliente que reintente más tarde
+    public Optional<Ingreso> encolar(Venta venta) {
+        CompletableFuture<VentaLoteResultado> resultado = new CompletableFuture<>();
+        if (!activo || !cola.offer(new Pendiente(venta, resultado))) {
+            rechazadas.increment();
+            return Optional.empty();
+        }
+        String ticket = UUID.randomUUID().toString();
+        resultados.put(ticket, resultado);
+        return Optional.of(new Ingreso(ticket, resultado));
+    }
+
+    // Vacío si el ticket no existe o su resultado ya expiró
+    public Optional<CompletableFuture<VentaLoteResultado>> consultar(String ticket) {
+        return Optional.ofNullable(resultados.getIfPresent(ticket));
+    }
+
+    public int pendientes() {
+        return cola.size();
+    }
+
+    private void escribir() {
+        List<Pendiente> grupo = new ArrayList<>(TAMANO_GRUPO);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Pendiente primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                grupo.add(primera);
+                long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+                while (grupo.size() < TAMANO_GRUPO) {
+                    if (cola.drainTo(grupo, TAMANO_GRUPO - grupo.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    grupo.add(siguiente);
+                }
+                guardar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void guardar(List<Pendiente> grupo) {
+        List<Venta> ventas = grupo.stream().map(Pendiente::venta).toList();
+        long inicio = System.nanoTime();
+        List<VentaLoteResultado> resultadosGrupo;
+        try {
+            resultadosGrupo = ventaBatchService.guardarLote(ventas);
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar un grupo de {} ventas diferidas", ventas.size(), e);
+            // Se reintenta cada venta en su propia transacción: solo queda con ERROR la que vuelva a fallar
+            resultadosGrupo = ventas.size() == 1
+                    ? List.of(error(ventas.get(0)))
+                    : ventas.stream().map(this::guardarIndividual).toList();
+        } finally {
+            // Antes de completar los resultados, para que quien espera uno ya vea el grupo en las métricas
+            escrituraGrupo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            tamanoGrupo.record(grupo.size());
+        }
+
+        for (int i = 0; i < grupo.size(); i++) {
+            VentaLoteResultado resultado = resultadosGrupo.get(i);
+            // El índice es la posición dentro del grupo, que no le dice nada a quien encoló la venta
+            resultado.setIndice(0);
+            if (resultado.getEstado() == VentaLoteResultado.Estado.CREADA) {
+                guardadas.increment();
+            }
+            grupo.get(i).resultado().complete(resultado);
+        }
+    }
+
+    private VentaLoteResultado guardarIndividual(Venta venta) {
+        try {
+            return ventaBatchService.guardarLote(List.of(venta)).get(0);
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar la venta diferida con boleta {}", venta.getNroBoleta(), e);
+            return error(venta);
+        }
+    }
+
+    private static VentaLoteResultado error(Venta venta) {
+        return VentaLoteResultado.builder()
+                .estado(VentaLoteResultado.Estado.ERROR)
+                .nroBoleta(venta.getNroBoleta())
+                .mensaje("No se pudo registrar la venta")
+                .build();
+    }
+
+}
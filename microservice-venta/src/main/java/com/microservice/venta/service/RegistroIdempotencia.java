@@ -0,0 +1,69 @@
+package com.microservice.venta.service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Respuestas recientes de peticiones con Idempotency-Key. Un reintento con la misma clave y el
+// mismo contenido recibe la respuesta original sin volver a ejecutar la operación. El registro es
+// acotado (las claves más antiguas se descartan al llenarse) y cada clave expira a las 24 horas.
+// Es local a la instancia: un reintento que llega a otra instancia se procesa como nuevo.
+@Service
+public class RegistroIdempotencia {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int LARGO_MAXIMO_CLAVE = 255;
+    public static final long MAXIMO_CLAVES = 100_000;
+    public static final Duration VIGENCIA = Duration.ofHours(24);
+
+    public enum Estado {
+        // Clave nueva: quien la recibe debe ejecutar la operación y luego llamar a completar o liberar
+        NUEVA,
+        // Otra petición con la misma clave aún no termina
+        EN_CURSO,
+        // La clave ya se usó con un contenido distinto
+        OTRA_PETICION,
+        // La operación ya se ejecutó; la respuesta original viene en la consulta
+        COMPLETADA
+    }
+
+    public record Consulta(Estado estado, ResponseEntity<?> respuesta) {}
+
+    // respuesta null mientras la operación está en curso
+    private record Entrada(Object peticion, ResponseEntity<?> respuesta) {}
+
+    private final Cache<String, Entrada> entradas = Caffeine.newBuilder()
+            .maximumSize(MAXIMO_CLAVES)
+            .expireAfterWrite(VIGENCIA)
+            .build();
+
+    // Reserva la clave para esta petición si nadie la ha usado; si no, informa en qué estado está
+    public Consulta iniciar(String clave, Object peticion) {
+        Entrada existente = entradas.asMap().putIfAbsent(clave, new Entrada(peticion, null));
+        if (existente == null) {
+            return new Consulta(Estado.NUEVA, null);
+        }
+        if (!Objects.equals(existente.peticion(), peticion)) {
+            return new Consulta(Estado.OTRA_PETICION, null);
+        }
+        if (existente.respuesta() == null) {
+            return new Consulta(Estado.EN_CURSO, null);
+        }
+        return new Consulta(Estado.COMPLETADA, existente.respuesta());
+    }
+
+    public void completar(String clave, Object peticion, ResponseEntity<?> respuesta) {
+        entradas.put(clave, new Entrada(peticion, respuesta));
+    }
+
+    // La operación no se completó: un reintento con la misma clave se vuelve a ejecutar
+    public void liberar(String clave) {
+        entradas.invalidate(clave);
+    }
+
+}
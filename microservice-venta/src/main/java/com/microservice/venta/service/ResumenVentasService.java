@@ -0,0 +1,73 @@
+package com.microservice.venta.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.microservice.venta.model.ResumenVentasUsuario;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.ResumenVentasUsuarioRepository;
+import com.microservice.venta.repository.VentaRepository;
+
+import jakarta.transaction.Transactional;
+
+@Service
+@Transactional
+public class ResumenVentasService {
+
+    @Autowired
+    private ResumenVentasUsuarioRepository resumenRepository;
+
+    public ResumenVentasUsuario getResumen(int idUsuario){
+        return resumenRepository.findById(idUsuario)
+                .orElseGet(() -> ResumenVentasUsuario.builder().idUsuario(idUsuario).build());
+    }
+
+    // 0 si el usuario aún no tiene ventas
+    public long getRevision(int idUsuario){
+        return resumenRepository.findRevisionById(idUsuario).orElse(0L);
+    }
+
+    public void registrar(Venta venta){
+        resumenRepository.sumarVentas(venta.getIdUsuario(), 1, venta.getTotal(), venta.getCantidad(), venta.getFechaCompra());
+    }
+
+    // Un solo upsert por usuario distinto del lote
+    public void registrar(Collection<Venta> ventas){
+        Map<Integer, List<Venta>> porUsuario = ventas.stream().collect(Collectors.groupingBy(Venta::getIdUsuario));
+        porUsuario.forEach((idUsuario, delUsuario) -> resumenRepository.sumarVentas(
+                idUsuario,
+                delUsuario.size(),
+                delUsuario.stream().mapToLong(Venta::getTotal).sum(),
+                delUsuario.stream().mapToLong(Venta::getCantidad).sum(),
+                delUsuario.stream().map(Venta::getFechaCompra).filter(Objects::nonNull)
+                        .max(Comparator.naturalOrder()).orElse(null)));
+    }
+
+    public void descontar(VentaRepository.Snapshot anterior){
+        resumenRepository.descontarVentas(anterior.getIdUsuario(), 1, anterior.getTotal(), anterior.getCantidad());
+    }
+
+    // La venta cambió sin afectar los totales; su historial sí cambió y el ETag debe cambiar
+    public void registrarModificacion(int idVenta){
+        resumenRepository.avanzarRevisionPorVenta(idVenta);
+    }
+
+    // Un solo UPDATE por usuario distinto de las ventas eliminadas
+    public void descontar(Collection<VentaRepository.Snapshot> anteriores){
+        Map<Integer, List<VentaRepository.Snapshot>> porUsuario = anteriores.stream()
+                .collect(Collectors.groupingBy(VentaRepository.Snapshot::getIdUsuario));
+        porUsuario.forEach((idUsuario, delUsuario) -> resumenRepository.descontarVentas(
+                idUsuario,
+                delUsuario.size(),
+                delUsuario.stream().mapToLong(VentaRepository.Snapshot::getTotal).sum(),
+                delUsuario.stream().mapToLong(VentaRepository.Snapshot::getCantidad).sum()));
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.microservice.venta.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaLoteResultado.Estado;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.VentaRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// Ingreso masivo de ventas. Cada bloque se inserta en su propia transacción usando lotes JDBC,
+// de modo que una boleta duplicada solo afecta a su propio ítem y no a todo el lote.
+@Service
+public class VentaBatchService {
+
+    public static final int MAX_VENTAS_POR_LOTE = 5000;
+    public static final int TAMANO_BLOQUE = 500;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private IndiceBoletas indiceBoletas;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<VentaLoteResultado> guardarLote(List<Venta> ventas) {
+        VentaLoteResultado[] resultados = new VentaLoteResultado[ventas.size()];
+        Set<Integer> boletasDelLote = new HashSet<>();
+        List<Integer> pendientes = new ArrayList<>();
+
+        for (int i = 0; i < ventas.size(); i++) {
+            Venta venta = ventas.get(i);
+            Set<ConstraintViolation<Venta>> errores = validator.validate(venta);
+            if (!errores.isEmpty()) {
+                resultados[i] = resultado(i, venta, Estado.INVALIDA, errores.iterator().next().getMessage());
+            } else if (!boletasDelLote.add(venta.getNroBoleta())) {
+                resultados[i] = resultado(i, venta, Estado.DUPLICADA, "El N° de boleta está repetido dentro del lote");
+            } else {
+                pendientes.add(i);
+            }
+        }
+
+        for (int desde = 0; desde < pendientes.size(); desde += TAMANO_BLOQUE) {
+            List<Integer> bloque = pendientes.subList(desde, Math.min(desde + TAMANO_BLOQUE, pendientes.size()));
+            guardarBloque(ventas, bloque, resultados);
+        }
+
+        return List.of(resultados);
+    }
+
+    private void guardarBloque(List<Venta> ventas, List<Integer> bloque, VentaLoteResultado[] resultados) {
+        // Solo se consultan las boletas que el índice no descarta; si descarta todas no hay consulta
+        List<Integer> boletas = bloque.stream()
+                .map(i -> ventas.get(i).getNroBoleta())
+                .filter(indiceBoletas::puedeEstarRegistrada)
+                .toList();
+        Set<Integer> existentes = boletas.isEmpty() ? Set.of() : new HashSet<>(ventaRepository.findNroBoletasIn(boletas));
+
+        List<Integer> nuevas = new ArrayList<>();
+        for (int i : bloque) {
+            if (existentes.contains(ventas.get(i).getNroBoleta())) {
+                resultados[i] = resultado(i, ventas.get(i), Estado.DUPLICADA, "El N° de boleta ya está registrado");
+            } else {
+                nuevas.add(i);
+            }
+        }
+        if (nuevas.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        try {
+            transaccion.executeWithoutResult(status -> {
+                List<Venta> aGuardar = nuevas.stream().map(ventas::get).toList();
+                // Por el repositorio y no por el EntityManager: así un INSERT que falla en el flush llega
+                // traducido como DataIntegrityViolationException y no como la excepción de Hibernate
+                ventaRepository.saveAllAndFlush(aGuardar);
+                entityManager.clear();
+                resumenVentasService.registrar(aGuardar);
+            });
+            for (int i : nuevas) {
+                indiceBoletas.registrar(ventas.get(i).getNroBoleta());
+                resultados[i] = resultado(i, ventas.get(i), Estado.CREADA, null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición registró alguna de las boletas entre la consulta y el INSERT:
+            // se reintenta el bloque ítem por ítem para identificar cuáles fallan.
+            for (int i : nuevas) {
+                resultados[i] = guardarIndividual(transaccion, i, ventas.get(i));
+            }
+        }
+    }
+
+    private VentaLoteResultado guardarIndividual(TransactionTemplate transaccion, int indice, Venta venta) {
+        // El intento en bloque ya le asignó id y versión, que se perdieron con el rollback
+        venta.setId_venta(0);
+        venta.setVersion(null);
+        try {
+            transaccion.executeWithoutResult(status -> {
+                ventaRepository.saveAndFlush(venta);
+                resumenVentasService.registrar(venta);
+            });
+            indiceBoletas.registrar(venta.getNroBoleta());
+            return resultado(indice, venta, Estado.CREADA, null);
+        } catch (DataIntegrityViolationException e) {
+            // La única restricción que puede fallar con una venta válida es la boleta única; cualquier otra
+            // (una columna que la validación no cubre) es un problema de la venta y no un duplicado
+            if (ventaRepository.existsByNroBoleta(venta.getNroBoleta())) {
+                return resultado(indice, venta, Estado.DUPLICADA, "El N° de boleta ya está registrado");
+            }
+            return resultado(indice, venta, Estado.INVALIDA, "La venta no cumple las restricciones de la base de datos");
+        } catch (RuntimeException e) {
+            return resultado(indice, venta, Estado.ERROR, "No se pudo registrar la venta");
+        }
+    }
+
+    private static VentaLoteResultado resultado(int indice, Venta venta, Estado estado, String mensaje) {
+        return VentaLoteResultado.builder()
+                .indice(indice)
+                .estado(estado)
+                .id_venta(estado == Estado.CREADA ? venta.getId_venta() : null)
+                .nroBoleta(venta.getNroBoleta())
+                .mensaje(mensaje)
+                .build();
+    }
+
+}
@@ -1,11 +1,25 @@
 package com.microservice.venta.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.microservice.venta.config.CacheConfig;
+import com.microservice.venta.dto.VentaPatchDTO;
+import com.microservice.venta.dto.VentaView;
 import com.microservice.venta.model.Venta;
 import com.microservice.venta.repository.VentaRepository;
 
@@ -15,31 +29,226 @@ import jakarta.transaction.Transactional;
 @Transactional
 public class VentaService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_IDS_POR_ELIMINACION = 1000;
+
     @Autowired
     private VentaRepository ventaRepository;
 
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private IndiceBoletas indiceBoletas;
+
     public List<Venta> findAll(){
         return ventaRepository.findAll();
     }
 
+    // Ajusta el tamaño de página pedido al rango permitido
+    public static int pageSize(Integer size){
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Ventas con id mayor al cursor, en orden ascendente
+    public List<Venta> findPageAfter(Integer after, Integer size){
+        return ventaRepository.findPageAfter(after == null ? 0 : after, Pageable.ofSize(pageSize(size)));
+    }
+
+    // Ventas con id menor al cursor, devueltas también en orden ascendente
+    public List<Venta> findPageBefore(int before, Integer size){
+        List<Venta> ventas = new ArrayList<>(ventaRepository.findPageBefore(before, Pageable.ofSize(pageSize(size))));
+        Collections.reverse(ventas);
+        return ventas;
+    }
+
+    // Igual que findPageAfter, pero sin materializar entidades
+    public List<VentaView> findViewPageAfter(Integer after, Integer size){
+        return ventaRepository.findViewPageAfter(after == null ? 0 : after, Pageable.ofSize(pageSize(size)));
+    }
+
+    // Entrega cada venta al consumidor a medida que llega desde la base de datos. Son proyecciones,
+    // así que el contexto de persistencia no crece durante la exportación.
+    public void forEachVenta(Consumer<VentaView> consumidor){
+        try (Stream<VentaView> ventas = ventaRepository.streamAll()) {
+            ventas.forEach(consumidor);
+        }
+    }
+
+    // Ventas con fecha de compra entre 'desde' y 'hasta' (inclusive), ordenadas por fecha e id.
+    // El cursor es la fecha y el id de la última venta entregada ('afterFecha' y 'after'); sin
+    // 'afterFecha' se continúa dentro del día 'desde'. El cursor no cambia el rango.
+    public List<Venta> findPageByFechaCompra(LocalDate desde, LocalDate hasta, LocalDate afterFecha, Integer after, Integer size){
+        return ventaRepository.findPageByFechaCompra(desde, hasta, afterFecha != null ? afterFecha : desde,
+                after == null ? 0 : after, Pageable.ofSize(pageSize(size)));
+    }
+
+    // sync: si varias peticiones buscan la misma venta sin estar en caché, solo una consulta la base de datos
+    @Cacheable(cacheNames = CacheConfig.VENTAS, key = "#id_venta", sync = true)
     public Optional<Venta> getVentaById(int id_venta){
         return ventaRepository.findById(id_venta);
     }
 
+    @Cacheable(cacheNames = CacheConfig.VENTAS_VISTA, key = "#id_venta", sync = true)
+    public Optional<VentaView> getVentaViewById(int id_venta){
+        return ventaRepository.findViewById(id_venta);
+    }
+
     public Venta getVentaById2(int id){
         return ventaRepository.findById(id).get();
     }
 
+    // Guarda la venta y actualiza el resumen del usuario en la misma transacción.
+    // En una modificación se descuentan primero los valores anteriores de la venta.
+    // La entrada de la caché se invalida antes (por si la operación falla) y después del commit
+    // (por si otra petición volvió a cargar el valor anterior mientras tanto).
+    // Si la venta trae versión y no coincide con la guardada, falla con OptimisticLockingFailureException;
+    // sin versión se modifica la versión actual.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#venta.id_venta", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#result.id_venta")
+    })
     public Venta save(Venta venta){
-        return ventaRepository.save(venta);
+        Optional<VentaRepository.Snapshot> anterior = venta.getId_venta() == 0
+                ? Optional.empty()
+                : ventaRepository.findSnapshotById(venta.getId_venta());
+        if (venta.getId_venta() != 0 && venta.getVersion() == null) {
+            venta.setVersion(anterior.map(VentaRepository.Snapshot::getVersion).orElse(0L));
+        }
+
+        Venta guardada = ventaRepository.save(venta);
+
+        anterior.ifPresent(resumenVentasService::descontar);
+        resumenVentasService.registrar(guardada);
+
+        if (anterior.isEmpty() || anterior.get().getNroBoleta() != guardada.getNroBoleta()) {
+            anterior.ifPresent(previa -> indiceBoletas.quitar(previa.getNroBoleta()));
+            indiceBoletas.registrar(guardada.getNroBoleta());
+        }
+        return guardada;
+    }
+
+    // Aplica solo los campos informados con un único UPDATE, sin cargar la venta. Devuelve false si
+    // la venta no existe. Si cambia usuario, cantidad, total o fecha también hay que corregir el
+    // resumen: se leen los valores anteriores y el UPDATE exige que la versión no haya cambiado
+    // entretanto (con versión distinta falla con OptimisticLockingFailureException, igual que save).
+    // Cualquier otro cambio solo avanza la revisión del resumen, que es el ETag del historial.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta")
+    })
+    public boolean actualizarParcial(int id_venta, VentaPatchDTO cambios, Long version){
+        boolean afectaResumen = cambios.getId_usuario() != null || cambios.getCantidad() != null
+                || cambios.getTotal() != null || cambios.getFechaCompra() != null;
+
+        Optional<VentaRepository.Snapshot> anterior = Optional.empty();
+        if (afectaResumen) {
+            anterior = ventaRepository.findSnapshotById(id_venta);
+            if (anterior.isEmpty()) {
+                return false;
+            }
+            if (version == null) {
+                version = anterior.get().getVersion();
+            }
+        }
+
+        int filas = ventaRepository.actualizarParcial(id_venta, version, cambios.getId_usuario(), cambios.getNroBoleta(),
+                cambios.getFechaCompra(), cambios.getProducto(), cambios.getCantidad(), cambios.getTotal());
+        if (filas == 0) {
+            // Solo en el caso de error se consulta si la venta existe
+            if (version != null && ventaRepository.existsById(id_venta)) {
+                throw new OptimisticLockingFailureException("La venta " + id_venta + " ya no está en la versión " + version);
+            }
+            return false;
+        }
+
+        // La boleta anterior no se conoce sin leerla; queda en el índice como un falso positivo más
+        if (cambios.getNroBoleta() != null) {
+            indiceBoletas.registrar(cambios.getNroBoleta());
+        }
+
+        if (anterior.isEmpty()) {
+            resumenVentasService.registrarModificacion(id_venta);
+            return true;
+        }
+        VentaRepository.Snapshot previa = anterior.get();
+        resumenVentasService.descontar(previa);
+        resumenVentasService.registrar(Venta.builder()
+                .idUsuario(cambios.getId_usuario() != null ? cambios.getId_usuario() : previa.getIdUsuario())
+                .fechaCompra(cambios.getFechaCompra() != null ? cambios.getFechaCompra() : previa.getFechaCompra())
+                .cantidad(cambios.getCantidad() != null ? cambios.getCantidad() : previa.getCantidad())
+                .total(cambios.getTotal() != null ? cambios.getTotal() : previa.getTotal())
+                .build());
+        return true;
+    }
+
+    // Elimina la venta sin cargarla: se leen solo los valores que hay que descontar del resumen y
+    // el DELETE exige que la venta siga en la versión leída. Devuelve false si la venta no existe.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta")
+    })
+    public boolean delete(int id_venta){
+        return eliminar(id_venta, null);
+    }
+
+    // Elimina la venta solo si sigue en la versión indicada
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta", beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, key = "#id_venta")
+    })
+    public boolean delete(int id_venta, long version){
+        return eliminar(id_venta, version);
+    }
+
+    private boolean eliminar(int id_venta, Long version){
+        Optional<VentaRepository.Snapshot> anterior = ventaRepository.findSnapshotById(id_venta);
+        if (anterior.isEmpty()) {
+            return false;
+        }
+        long esperada = version != null ? version : anterior.get().getVersion();
+        if (ventaRepository.deleteByIdAndVersion(id_venta, esperada) == 0) {
+            throw new OptimisticLockingFailureException("La venta " + id_venta + " ya no está en la versión " + esperada);
+        }
+        resumenVentasService.descontar(anterior.get());
+        indiceBoletas.quitar(anterior.get().getNroBoleta());
+        return true;
+    }
+
+    // Eliminación masiva para tareas de limpieza: un SELECT ... FOR UPDATE de los valores a descontar,
+    // un DELETE y un UPDATE del resumen por usuario. Los ids que no existen se ignoran.
+    // Se vacía la caché completa en vez de invalidar cada id.
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA}, allEntries = true)
+    })
+    public int deleteAll(Collection<Integer> ids){
+        List<VentaRepository.Snapshot> anteriores = ventaRepository.findSnapshotsForUpdate(ids);
+        if (anteriores.isEmpty()) {
+            return 0;
+        }
+        int eliminadas = ventaRepository.deleteByIdIn(ids);
+        resumenVentasService.descontar(anteriores);
+        anteriores.forEach(anterior -> indiceBoletas.quitar(anterior.getNroBoleta()));
+        return eliminadas;
     }
 
-    public void delete(int id_venta){
-        ventaRepository.deleteById(id_venta);
+    public List<VentaView> getVentasByUsuarioId(Integer idUsuario) {
+        return ventaRepository.findViewsByIdUsuario(idUsuario);
     }
 
-    public List<Venta> getVentasByUsuarioId(Integer idUsuario) {
-        return ventaRepository.findByIdUsuario(idUsuario);
+    // Página del historial de un usuario, de la compra más reciente a la más antigua. El cursor
+    // es la fecha y el id de la última venta de la página anterior; sin cursor parte desde el inicio.
+    public List<Venta> findPageByUsuario(int idUsuario, LocalDate beforeFecha, Integer before, Integer size) {
+        Pageable pagina = Pageable.ofSize(pageSize(size));
+        if (beforeFecha == null || before == null) {
+            return ventaRepository.findUltimasByIdUsuario(idUsuario, pagina);
+        }
+        return ventaRepository.findPageByIdUsuarioBefore(idUsuario, beforeFecha, before, pagina);
     }
 
 
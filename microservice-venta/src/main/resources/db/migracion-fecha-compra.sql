@@ -0,0 +1,31 @@
+-- Migración de venta.fecha_compra de VARCHAR a DATE (MySQL).
+--
+-- Con ddl-auto: create el esquema se vuelve a crear en cada arranque y no hace falta.
+-- Este script es para bases de datos que conservan ventas creadas con la columna antigua,
+-- donde la fecha se guardaba como texto en formato yyyy-MM-dd o dd/MM/yyyy.
+--
+-- Solo migra fecha_compra y crea idx_venta_fecha_compra. No es una actualización completa del
+-- esquema: la secuencia venta_seq, la columna version, el índice idx_venta_usuario_fecha y la
+-- tabla resumen_ventas_usuario solo se crean con ddl-auto: create, que es lo único soportado
+-- para esos cambios.
+
+ALTER TABLE venta ADD COLUMN fecha_compra_tmp DATE NULL;
+
+UPDATE venta
+SET fecha_compra_tmp = CASE
+    WHEN fecha_compra LIKE '____-__-__' THEN STR_TO_DATE(fecha_compra, '%Y-%m-%d')
+    WHEN fecha_compra LIKE '__/__/____' THEN STR_TO_DATE(fecha_compra, '%d/%m/%Y')
+END;
+
+-- Fechas que no se pudieron convertir: deben corregirse a mano en fecha_compra_tmp
+SELECT id_venta, fecha_compra FROM venta WHERE fecha_compra_tmp IS NULL;
+
+-- Si quedó alguna sin convertir, este ALTER falla ("Invalid use of NULL value") y el script se detiene
+-- antes de borrar la columna original. Con el modo estricto el NULL no se cambia en silencio por
+-- '0000-00-00'. Tras corregir las filas, se sigue desde aquí (sin mysql --force).
+SET SESSION sql_mode = CONCAT_WS(',', @@SESSION.sql_mode, 'STRICT_ALL_TABLES');
+ALTER TABLE venta MODIFY fecha_compra_tmp DATE NOT NULL;
+
+ALTER TABLE venta DROP COLUMN fecha_compra;
+ALTER TABLE venta RENAME COLUMN fecha_compra_tmp TO fecha_compra;
+CREATE INDEX idx_venta_fecha_compra ON venta (fecha_compra, id_venta);
@@ -0,0 +1,100 @@
+package com.microservice.venta;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import org.springframework.test.web.client.MockRestServiceServer;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import com.microservice.venta.dto.Comprador;
+import com.microservice.venta.service.CompradoresService;
+
+public class CompradoresServiceTest {
+
+    private static final String RESPUESTA = """
+        {"_embedded":{"usuarioList":[
+          {"id_usuario":1,"rut":"12345678-9","nombres":"Ana","apellidos":"López","correo":"ana@mail.com",
+           "_links":{"self":{"href":"http://localhost/api/v2/usuarios/1"}}},
+          {"id_usuario":2,"rut":"98765432-1","nombres":"Pedro","apellidos":"Soto","correo":"pedro@mail.com"}
+        ]},"_links":{}}
+        """;
+
+    private CompradoresService compradoresService;
+    private MockRestServiceServer servidor;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://msvc-usuario");
+        servidor = MockRestServiceServer.bindTo(builder).build();
+        compradoresService = new CompradoresService();
+        ReflectionTestUtils.setField(compradoresService, "usuariosRestClient", builder.build());
+        ReflectionTestUtils.setField(compradoresService, "taskExecutor", new SyncTaskExecutor());
+    }
+
+    @Test
+    void testBuscar_UnaConsultaYLuegoCache() {
+        servidor.expect(once(), requestTo("http://msvc-usuario/api/v2/usuarios/por-ids"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(content().json("[1,2,3]"))
+            .andRespond(withSuccess(RESPUESTA, MediaType.APPLICATION_JSON));
+
+        Map<Integer, Comprador> primera = compradoresService.buscar(List.of(1, 2, 1, 3));
+        Map<Integer, Comprador> segunda = compradoresService.buscar(List.of(2, 1));
+
+        assertEquals("Ana", primera.get(1).getNombres());
+        assertEquals("Pedro", primera.get(2).getNombres());
+        assertEquals(2, primera.size());
+        assertEquals(2, segunda.size());
+        servidor.verify();
+    }
+
+    @Test
+    void testBuscar_UnaPeticionPorBloque() {
+        servidor.expect(times(3), requestTo("http://msvc-usuario/api/v2/usuarios/por-ids"))
+            .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        compradoresService.buscar(IntStream.rangeClosed(1, CompradoresService.IDS_POR_PETICION * 2 + 1).boxed().toList());
+
+        servidor.verify();
+    }
+
+    @Test
+    void testBuscar_FallaDevuelveSinCompradoresYPausaLasConsultas() {
+        servidor.expect(once(), requestTo("http://msvc-usuario/api/v2/usuarios/por-ids"))
+            .andRespond(withServerError());
+
+        assertTrue(compradoresService.buscar(List.of(1)).isEmpty());
+        assertTrue(compradoresService.buscar(List.of(1)).isEmpty());
+        servidor.verify();
+    }
+
+    @Test
+    void testBuscar_SinRespuestaATiempo() {
+        // Un ejecutor que nunca corre la consulta: la espera se agota
+        TaskExecutor sinEjecutar = tarea -> { };
+        ReflectionTestUtils.setField(compradoresService, "taskExecutor", sinEjecutar);
+
+        long inicio = System.nanoTime();
+        assertTrue(compradoresService.buscar(List.of(1)).isEmpty());
+
+        assertTrue(System.nanoTime() - inicio < CompradoresService.ESPERA_MAXIMA.toNanos() * 4);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.microservice.venta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.microservice.venta.service.FiltroBloomContador;
+
+public class FiltroBloomContadorTest {
+
+    @Test
+    void testTamanoOptimo() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000_000, 0.01);
+
+        assertEquals(7, filtro.getFunciones());
+        assertTrue(filtro.getCantidadContadores() > 9_500_000);
+        // 4 bits por contador
+        assertTrue(filtro.getMemoriaEnBytes() < 5_000_000);
+    }
+
+    @Test
+    void testSinFalsosNegativos() {
+        FiltroBloomContador filtro = new FiltroBloomContador(10_000, 0.01);
+        for (int boleta = 100_000; boleta < 110_000; boleta++) {
+            filtro.agregar(boleta);
+        }
+
+        for (int boleta = 100_000; boleta < 110_000; boleta++) {
+            assertTrue(filtro.puedeContener(boleta));
+        }
+    }
+
+    @Test
+    void testFalsosPositivosCercaDeLaProbabilidadPedida() {
+        FiltroBloomContador filtro = new FiltroBloomContador(10_000, 0.01);
+        for (int boleta = 0; boleta < 10_000; boleta++) {
+            filtro.agregar(boleta);
+        }
+
+        int falsosPositivos = 0;
+        for (int boleta = 1_000_000; boleta < 1_100_000; boleta++) {
+            if (filtro.puedeContener(boleta)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void testQuitar() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000, 0.01);
+        filtro.agregar(555);
+        filtro.agregar(777);
+
+        filtro.quitar(555);
+
+        assertFalse(filtro.puedeContener(555));
+        assertTrue(filtro.puedeContener(777));
+    }
+
+    @Test
+    void testQuitarUnValorNoAgregadoNoAfectaAOtros() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000, 0.01);
+        filtro.agregar(555);
+
+        filtro.quitar(999);
+
+        assertTrue(filtro.puedeContener(555));
+    }
+
+    @Test
+    void testContadoresSaturadosNoProducenFalsosNegativos() {
+        FiltroBloomContador filtro = new FiltroBloomContador(1_000, 0.01);
+        for (int i = 0; i < 20; i++) {
+            filtro.agregar(555);
+        }
+        for (int i = 0; i < 19; i++) {
+            filtro.quitar(555);
+        }
+
+        assertTrue(filtro.puedeContener(555));
+    }
+
+    @Test
+    void testParametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloomContador(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloomContador(1_000, 1));
+    }
+
+}
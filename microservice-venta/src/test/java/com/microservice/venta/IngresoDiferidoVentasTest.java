@@ -0,0 +1,147 @@
+package com.microservice.venta;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaLoteResultado.Estado;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.service.IngresoDiferidoVentas;
+import com.microservice.venta.service.VentaBatchService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class IngresoDiferidoVentasTest {
+
+    @Mock
+    private VentaBatchService ventaBatchService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IngresoDiferidoVentas ingresoDiferidoVentas;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingresoDiferidoVentas.detener();
+    }
+
+    private Venta venta(int nroBoleta) {
+        return Venta.builder().idUsuario(1).nroBoleta(nroBoleta).fechaCompra(LocalDate.of(2025, 6, 26))
+                .producto("Perfume").cantidad(1).total(1000).build();
+    }
+
+    private static VentaLoteResultado creada(int indice, int nroBoleta) {
+        return VentaLoteResultado.builder().indice(indice).estado(Estado.CREADA).id_venta(100 + indice).nroBoleta(nroBoleta).build();
+    }
+
+    @Test
+    void testEncolar_SeGuardanEnUnSoloGrupo() throws Exception {
+        // El escritor queda bloqueado en el primer grupo mientras se encolan las demás
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ventaBatchService.guardarLote(anyList())).thenAnswer(invocacion -> {
+            List<Venta> ventas = invocacion.getArgument(0);
+            liberar.await(5, TimeUnit.SECONDS);
+            return IntStream.range(0, ventas.size())
+                    .mapToObj(i -> creada(i, ventas.get(i).getNroBoleta())).toList();
+        });
+        ingresoDiferidoVentas.iniciar();
+
+        CompletableFuture<VentaLoteResultado> primera = ingresoDiferidoVentas.encolar(venta(1)).orElseThrow().resultado();
+        Thread.sleep(IngresoDiferidoVentas.ESPERA_MAXIMA.toMillis() * 3);
+        CompletableFuture<VentaLoteResultado> segunda = ingresoDiferidoVentas.encolar(venta(2)).orElseThrow().resultado();
+        CompletableFuture<VentaLoteResultado> tercera = ingresoDiferidoVentas.encolar(venta(3)).orElseThrow().resultado();
+        liberar.countDown();
+
+        assertEquals(1, primera.get(5, TimeUnit.SECONDS).getNroBoleta());
+        VentaLoteResultado resultado = tercera.get(5, TimeUnit.SECONDS);
+        assertEquals(Estado.CREADA, resultado.getEstado());
+        assertEquals(3, resultado.getNroBoleta());
+        assertEquals(0, resultado.getIndice());
+        assertEquals(Estado.CREADA, segunda.get(5, TimeUnit.SECONDS).getEstado());
+
+        verify(ventaBatchService, times(2)).guardarLote(anyList());
+        assertEquals(2, meterRegistry.get("ventas.diferidas.grupo").summary().count());
+        assertEquals(3.0, meterRegistry.get("ventas.diferidas.guardadas").counter().count());
+    }
+
+    @Test
+    void testEncolar_ErrorDelGrupoCompletaConError() throws Exception {
+        when(ventaBatchService.guardarLote(anyList())).thenThrow(new IllegalStateException("sin conexión"));
+        ingresoDiferidoVentas.iniciar();
+
+        IngresoDiferidoVentas.Ingreso ingreso = ingresoDiferidoVentas.encolar(venta(1)).orElseThrow();
+
+        assertEquals(Estado.ERROR, ingreso.resultado().get(5, TimeUnit.SECONDS).getEstado());
+        assertTrue(ingresoDiferidoVentas.consultar(ingreso.ticket()).orElseThrow().isDone());
+    }
+
+    @Test
+    void testEncolar_ErrorDelGrupoSoloMarcaLaVentaQueFalla() throws Exception {
+        // Un grupo con la boleta 2 falla entero; por separado solo falla ella
+        when(ventaBatchService.guardarLote(anyList())).thenAnswer(invocacion -> {
+            List<Venta> ventas = invocacion.getArgument(0);
+            if (ventas.stream().anyMatch(v -> v.getNroBoleta() == 2)) {
+                throw new IllegalStateException("fila inválida");
+            }
+            return IntStream.range(0, ventas.size())
+                    .mapToObj(i -> creada(i, ventas.get(i).getNroBoleta())).toList();
+        });
+        ingresoDiferidoVentas.iniciar();
+
+        CompletableFuture<VentaLoteResultado> primera = ingresoDiferidoVentas.encolar(venta(1)).orElseThrow().resultado();
+        CompletableFuture<VentaLoteResultado> segunda = ingresoDiferidoVentas.encolar(venta(2)).orElseThrow().resultado();
+        CompletableFuture<VentaLoteResultado> tercera = ingresoDiferidoVentas.encolar(venta(3)).orElseThrow().resultado();
+
+        assertEquals(Estado.CREADA, primera.get(5, TimeUnit.SECONDS).getEstado());
+        assertEquals(Estado.ERROR, segunda.get(5, TimeUnit.SECONDS).getEstado());
+        assertEquals(Estado.CREADA, tercera.get(5, TimeUnit.SECONDS).getEstado());
+        assertEquals(2.0, meterRegistry.get("ventas.diferidas.guardadas").counter().count());
+    }
+
+    @Test
+    void testEncolar_ColaLlenaRechaza() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ventaBatchService.guardarLote(anyList())).thenAnswer(invocacion -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            List<Venta> ventas = invocacion.getArgument(0);
+            return ventas.stream().map(v -> creada(0, v.getNroBoleta())).toList();
+        });
+        ingresoDiferidoVentas.iniciar();
+
+        // El escritor retiene a lo más un grupo; el resto llena la cola
+        int intentos = IngresoDiferidoVentas.CAPACIDAD_COLA + IngresoDiferidoVentas.TAMANO_GRUPO + 1;
+        int aceptadas = 0;
+        for (int i = 0; i < intentos; i++) {
+            if (ingresoDiferidoVentas.encolar(venta(i)).isPresent()) {
+                aceptadas++;
+            }
+        }
+        liberar.countDown();
+
+        assertTrue(aceptadas < intentos);
+        assertEquals(intentos - aceptadas, meterRegistry.get("ventas.diferidas.rechazadas").counter().count());
+    }
+
+}
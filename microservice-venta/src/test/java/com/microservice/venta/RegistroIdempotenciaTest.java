@@ -0,0 +1,55 @@
+package com.microservice.venta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.microservice.venta.service.RegistroIdempotencia;
+import com.microservice.venta.service.RegistroIdempotencia.Estado;
+
+public class RegistroIdempotenciaTest {
+
+    private final RegistroIdempotencia registro = new RegistroIdempotencia();
+
+    @Test
+    void testIniciar_ClaveNueva() {
+        assertEquals(Estado.NUEVA, registro.iniciar("a", "venta").estado());
+    }
+
+    @Test
+    void testIniciar_MismaPeticionEnCurso() {
+        registro.iniciar("a", "venta");
+
+        assertEquals(Estado.EN_CURSO, registro.iniciar("a", "venta").estado());
+    }
+
+    @Test
+    void testIniciar_CompletadaDevuelveLaRespuestaOriginal() {
+        ResponseEntity<String> respuesta = ResponseEntity.status(201).body("creada");
+        registro.iniciar("a", "venta");
+        registro.completar("a", "venta", respuesta);
+
+        RegistroIdempotencia.Consulta consulta = registro.iniciar("a", "venta");
+
+        assertEquals(Estado.COMPLETADA, consulta.estado());
+        assertSame(respuesta, consulta.respuesta());
+    }
+
+    @Test
+    void testIniciar_OtraPeticionConLaMismaClave() {
+        registro.iniciar("a", "venta");
+        registro.completar("a", "venta", ResponseEntity.status(201).build());
+
+        assertEquals(Estado.OTRA_PETICION, registro.iniciar("a", "otra venta").estado());
+    }
+
+    @Test
+    void testLiberar_PermiteReintentar() {
+        registro.iniciar("a", "venta");
+        registro.liberar("a");
+
+        assertEquals(Estado.NUEVA, registro.iniciar("a", "venta").estado());
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.microservice.venta;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservice.venta.model.ResumenVentasUsuario;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.ResumenVentasUsuarioRepository;
+import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.ResumenVentasService;
+
+@ExtendWith(MockitoExtension.class)
+public class ResumenVentasServiceTest {
+
+    @Mock
+    private ResumenVentasUsuarioRepository resumenRepository;
+
+    @InjectMocks
+    private ResumenVentasService resumenVentasService;
+
+    @Test
+    void testGetResumen_Existente() {
+        ResumenVentasUsuario resumen = new ResumenVentasUsuario(10, 2, 5000, 3, LocalDate.of(2025, 6, 26), 0);
+        when(resumenRepository.findById(10)).thenReturn(Optional.of(resumen));
+
+        assertEquals(resumen, resumenVentasService.getResumen(10));
+    }
+
+    @Test
+    void testGetResumen_SinVentasDevuelveCeros() {
+        when(resumenRepository.findById(10)).thenReturn(Optional.empty());
+
+        ResumenVentasUsuario resumen = resumenVentasService.getResumen(10);
+
+        assertEquals(10, resumen.getIdUsuario());
+        assertEquals(0, resumen.getCantidadVentas());
+        assertEquals(0, resumen.getTotalGastado());
+        assertNull(resumen.getUltimaCompra());
+    }
+
+    @Test
+    void testRegistrar_Venta() {
+        Venta venta = Venta.builder().idUsuario(10).total(2000).cantidad(2).fechaCompra(LocalDate.of(2025, 6, 26)).build();
+
+        resumenVentasService.registrar(venta);
+
+        verify(resumenRepository, times(1)).sumarVentas(10, 1, 2000, 2, LocalDate.of(2025, 6, 26));
+    }
+
+    @Test
+    void testRegistrar_LoteAgrupaPorUsuario() {
+        List<Venta> ventas = List.of(
+                Venta.builder().idUsuario(10).total(1000).cantidad(1).fechaCompra(LocalDate.of(2025, 6, 1)).build(),
+                Venta.builder().idUsuario(10).total(2000).cantidad(2).fechaCompra(LocalDate.of(2025, 6, 20)).build(),
+                Venta.builder().idUsuario(20).total(500).cantidad(5).fechaCompra(LocalDate.of(2025, 5, 1)).build());
+
+        resumenVentasService.registrar(ventas);
+
+        verify(resumenRepository, times(1)).sumarVentas(10, 2, 3000, 3, LocalDate.of(2025, 6, 20));
+        verify(resumenRepository, times(1)).sumarVentas(20, 1, 500, 5, LocalDate.of(2025, 5, 1));
+    }
+
+    @Test
+    void testDescontar() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getIdUsuario()).thenReturn(10);
+        when(anterior.getTotal()).thenReturn(1500);
+        when(anterior.getCantidad()).thenReturn(3);
+
+        resumenVentasService.descontar(anterior);
+
+        verify(resumenRepository, times(1)).descontarVentas(10, 1, 1500, 3);
+    }
+
+    @Test
+    void testDescontar_VariasAgrupaPorUsuario() {
+        VentaRepository.Snapshot primera = snapshot(10, 1500, 3);
+        VentaRepository.Snapshot segunda = snapshot(10, 500, 1);
+        VentaRepository.Snapshot otra = snapshot(20, 700, 2);
+
+        resumenVentasService.descontar(List.of(primera, segunda, otra));
+
+        verify(resumenRepository, times(1)).descontarVentas(10, 2, 2000, 4);
+        verify(resumenRepository, times(1)).descontarVentas(20, 1, 700, 2);
+    }
+
+    private static VentaRepository.Snapshot snapshot(int idUsuario, int total, int cantidad) {
+        VentaRepository.Snapshot snapshot = mock(VentaRepository.Snapshot.class);
+        when(snapshot.getIdUsuario()).thenReturn(idUsuario);
+        when(snapshot.getTotal()).thenReturn(total);
+        when(snapshot.getCantidad()).thenReturn(cantidad);
+        return snapshot;
+    }
+
+}
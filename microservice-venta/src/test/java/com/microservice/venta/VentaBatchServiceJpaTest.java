@@ -0,0 +1,74 @@
+package com.microservice.venta;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaLoteResultado.Estado;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaBatchService;
+
+// Contra H2 (MODE=MySQL) para que la boleta duplicada la rechace de verdad el índice único en el flush
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:ventas;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ VentaBatchService.class, ResumenVentasService.class, IndiceBoletas.class })
+// Sin la transacción de la prueba: VentaBatchService abre y revierte las suyas
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class VentaBatchServiceJpaTest {
+
+    @Autowired
+    private VentaBatchService ventaBatchService;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    private Venta venta(int idUsuario, int nroBoleta) {
+        return Venta.builder()
+                .idUsuario(idUsuario)
+                .nroBoleta(nroBoleta)
+                .fechaCompra(LocalDate.of(2025, 6, 26))
+                .producto("Perfume " + nroBoleta)
+                .cantidad(1)
+                .total(1000)
+                .build();
+    }
+
+    @Test
+    void testGuardarLote_BoletaRegistradaPorOtraInstanciaSoloFallaSuItem() {
+        // Registrada sin pasar por el índice de esta instancia: el lote no la consulta y el INSERT falla en el flush
+        ventaRepository.saveAndFlush(venta(7, 100));
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(List.of(venta(8, 100), venta(8, 200)));
+
+        assertEquals(Estado.DUPLICADA, resultados.get(0).getEstado());
+        assertNull(resultados.get(0).getId_venta());
+        assertEquals(Estado.CREADA, resultados.get(1).getEstado());
+        assertNotNull(resultados.get(1).getId_venta());
+        assertEquals(2, ventaRepository.count());
+        assertEquals(1, resumenVentasService.getResumen(8).getCantidadVentas());
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.microservice.venta;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaLoteResultado.Estado;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaBatchService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@ExtendWith(MockitoExtension.class)
+public class VentaBatchServiceTest {
+
+    @Mock
+    private VentaRepository ventaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ResumenVentasService resumenVentasService;
+
+    @Spy
+    private IndiceBoletas indiceBoletas = new IndiceBoletas();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private VentaBatchService ventaBatchService;
+
+    private Venta venta(int nroBoleta, String producto) {
+        return Venta.builder()
+                .idUsuario(1)
+                .nroBoleta(nroBoleta)
+                .fechaCompra(LocalDate.of(2025, 6, 26))
+                .producto(producto)
+                .cantidad(1)
+                .total(1000)
+                .build();
+    }
+
+    @Test
+    void testGuardarLote_ReportaResultadoPorItem() {
+        List<Venta> ventas = List.of(
+                venta(100, "Perfume A"),
+                venta(100, "Perfume B"),
+                venta(200, "X"),
+                venta(300, "Perfume C"));
+
+        indiceBoletas.registrar(100);
+        indiceBoletas.registrar(300);
+        when(ventaRepository.findNroBoletasIn(List.of(100, 300))).thenReturn(List.of(300));
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(ventas);
+
+        assertEquals(Estado.CREADA, resultados.get(0).getEstado());
+        assertEquals(Estado.DUPLICADA, resultados.get(1).getEstado());
+        assertEquals(Estado.INVALIDA, resultados.get(2).getEstado());
+        assertEquals(Estado.DUPLICADA, resultados.get(3).getEstado());
+        assertNull(resultados.get(3).getId_venta());
+
+        verify(ventaRepository, times(1)).saveAllAndFlush(argThat(lista -> ((List<?>) lista).size() == 1));
+        verify(resumenVentasService, times(1)).registrar(List.of(ventas.get(0)));
+    }
+
+    @Test
+    void testGuardarLote_InsertaEnBloques() {
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < VentaBatchService.TAMANO_BLOQUE + 1; i++) {
+            ventas.add(venta(1000 + i, "Perfume " + i));
+        }
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(ventas);
+
+        assertEquals(ventas.size(), resultados.stream().filter(r -> r.getEstado() == Estado.CREADA).count());
+        verify(ventaRepository, times(2)).saveAllAndFlush(anyList());
+        // Ninguna boleta estaba en el índice: no hace falta consultar duplicados
+        verify(ventaRepository, never()).findNroBoletasIn(anyCollection());
+        assertTrue(indiceBoletas.puedeEstarRegistrada(1000));
+    }
+
+    @Test
+    void testGuardarLote_ConflictoConcurrenteReintentaPorItem() {
+        Venta primera = venta(100, "Perfume A");
+        Venta segunda = venta(200, "Perfume B");
+
+        when(ventaRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("Duplicate"));
+        when(ventaRepository.saveAndFlush(primera)).thenReturn(primera);
+        when(ventaRepository.saveAndFlush(segunda)).thenThrow(new DataIntegrityViolationException("Duplicate"));
+        when(ventaRepository.existsByNroBoleta(200)).thenReturn(true);
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(List.of(primera, segunda));
+
+        assertEquals(Estado.CREADA, resultados.get(0).getEstado());
+        assertEquals(Estado.DUPLICADA, resultados.get(1).getEstado());
+        verify(resumenVentasService, times(1)).registrar(primera);
+        verify(resumenVentasService, never()).registrar(segunda);
+    }
+
+    @Test
+    void testGuardarLote_SinFechaEsInvalidaAntesDeInsertar() {
+        Venta sinFecha = venta(100, "Perfume A");
+        sinFecha.setFechaCompra(null);
+        Venta sinProducto = venta(200, null);
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(List.of(sinFecha, sinProducto, venta(300, "Perfume C")));
+
+        assertEquals(Estado.INVALIDA, resultados.get(0).getEstado());
+        assertEquals("La fecha de compra es obligatoria", resultados.get(0).getMensaje());
+        assertEquals(Estado.INVALIDA, resultados.get(1).getEstado());
+        assertEquals(Estado.CREADA, resultados.get(2).getEstado());
+        verify(ventaRepository, times(1)).saveAllAndFlush(argThat(lista -> ((List<?>) lista).size() == 1));
+    }
+
+    @Test
+    void testGuardarLote_ViolacionQueNoEsLaBoletaNoSeReportaComoDuplicada() {
+        Venta primera = venta(100, "Perfume A");
+        Venta segunda = venta(200, "Perfume B");
+
+        when(ventaRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("Column cannot be null"));
+        when(ventaRepository.saveAndFlush(primera)).thenReturn(primera);
+        when(ventaRepository.saveAndFlush(segunda)).thenThrow(new DataIntegrityViolationException("Column cannot be null"));
+        when(ventaRepository.existsByNroBoleta(200)).thenReturn(false);
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(List.of(primera, segunda));
+
+        assertEquals(Estado.CREADA, resultados.get(0).getEstado());
+        assertEquals(Estado.INVALIDA, resultados.get(1).getEstado());
+    }
+
+    @Test
+    void testGuardarLote_SinPendientesNoAbreTransaccion() {
+        indiceBoletas.registrar(100);
+        when(ventaRepository.findNroBoletasIn(List.of(100))).thenReturn(List.of(100));
+
+        List<VentaLoteResultado> resultados = ventaBatchService.guardarLote(List.of(venta(100, "Perfume A")));
+
+        assertEquals(Estado.DUPLICADA, resultados.get(0).getEstado());
+        verify(ventaRepository, never()).saveAllAndFlush(anyList());
+    }
+
+}
@@ -1,15 +1,19 @@
 package com.microservice.venta;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.Mockito;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -18,18 +22,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservice.venta.controller.VentaController;
 import com.microservice.venta.dto.VentaDTO;
+import com.microservice.venta.dto.VentaView;
 import com.microservice.venta.model.Venta;
+import com.microservice.venta.service.IndiceBoletas;
 import com.microservice.venta.service.VentaService;
 
 @WebMvcTest(VentaController.class)
@@ -41,49 +51,62 @@ public class VentaControllerTest {
     @MockBean
     private VentaService ventaService;
 
+    @MockBean
+    private IndiceBoletas indiceBoletas;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testGetAllUsers() throws Exception {
-        Venta v1 = Venta.builder().id_venta(1).producto("Prod1").build();
-        Venta v2 = Venta.builder().id_venta(2).producto("Prod2").build();
+        VentaView v1 = new VentaView(1, 0, 0, null, "Prod1", 0, 0);
+        VentaView v2 = new VentaView(2, 0, 0, null, "Prod2", 0, 0);
 
-        when(ventaService.findAll()).thenReturn(Arrays.asList(v1, v2));
+        when(ventaService.findViewPageAfter(null, null)).thenReturn(Arrays.asList(v1, v2));
 
         mockMvc.perform(get("/api/v1/ventas/listar"))
             .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
             .andExpect(jsonPath("$[0].producto").value("Prod1"))
             .andExpect(jsonPath("$[1].producto").value("Prod2"));
 
-        verify(ventaService, times(1)).findAll();
+        verify(ventaService, times(1)).findViewPageAfter(null, null);
+    }
+
+    @Test
+    void testGetAllUsers_PaginaLlenaEntregaLinkSiguiente() throws Exception {
+        VentaView v1 = new VentaView(11, 0, 0, null, "Prod1", 0, 0);
+        VentaView v2 = new VentaView(12, 0, 0, null, "Prod2", 0, 0);
+
+        when(ventaService.findViewPageAfter(10, 2)).thenReturn(Arrays.asList(v1, v2));
+
+        mockMvc.perform(get("/api/v1/ventas/listar?after=10&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Link", "<http://localhost/api/v1/ventas/listar?size=2&after=12>; rel=\"next\""))
+            .andExpect(jsonPath("$[0].id_venta").value(11));
     }
 
     @Test
     void testGetVentaById_Existente() throws Exception {
-        Venta venta = Venta.builder()
-                .id_venta(1)
-                .idUsuario(100)
-                .nroBoleta(123)
-                .fechaCompra("2025-06-26")
-                .producto("Producto Test")
-                .cantidad(2)
-                .total(5000)
-                .build();
+        VentaView venta = new VentaView(1, 100, 123, LocalDate.of(2025, 6, 26), "Producto Test", 2, 5000);
 
-        when(ventaService.getVentaById(1)).thenReturn(Optional.of(venta));
+        when(ventaService.getVentaViewById(1)).thenReturn(Optional.of(venta));
 
         mockMvc.perform(get("/api/v1/ventas/1"))
             .andExpect(status().isOk())
             .andExpect(header().string("mi-encabezado", "valor"))
+            .andExpect(jsonPath("$.id_venta").value(1))
+            .andExpect(jsonPath("$.idUsuario").value(100))
+            .andExpect(jsonPath("$.nroBoleta").value(123))
+            .andExpect(jsonPath("$.fechaCompra").value("2025-06-26"))
             .andExpect(jsonPath("$.producto").value("Producto Test"));
 
-        verify(ventaService, times(1)).getVentaById(1);
+        verify(ventaService, times(1)).getVentaViewById(1);
     }
 
     @Test
     void testGetVentaById_NoExistente() throws Exception {
-        when(ventaService.getVentaById(1)).thenReturn(Optional.empty());
+        when(ventaService.getVentaViewById(1)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/v1/ventas/1"))
             .andExpect(status().isNotFound())
@@ -91,7 +114,7 @@ public class VentaControllerTest {
             .andExpect(jsonPath("$.status").value("404"))
             .andExpect(jsonPath("$.timestamp").exists());
 
-        verify(ventaService, times(1)).getVentaById(1);
+        verify(ventaService, times(1)).getVentaViewById(1);
     }
 
     @Test
@@ -99,7 +122,7 @@ public class VentaControllerTest {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(100);
         dto.setNroBoleta(123);
-        dto.setFechaCompra("2025-06-26");
+        dto.setFechaCompra(LocalDate.of(2025, 6, 26));
         dto.setProducto("Producto Save");
         dto.setCantidad(3);
         dto.setTotal(7500);
@@ -126,12 +149,52 @@ public class VentaControllerTest {
         verify(ventaService, times(1)).save(any(Venta.class));
     }
 
+    @Test
+    void testSaveVenta_AceptaFechaDiaMesAnio() throws Exception {
+        when(ventaService.save(any(Venta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        mockMvc.perform(post("/api/v1/ventas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id_usuario\":100,\"nroBoleta\":123,\"fechaCompra\":\"25/12/2025\","
+                    + "\"producto\":\"Producto Save\",\"cantidad\":3,\"total\":7500}"))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.fechaCompra").value("2025-12-25"));
+
+        verify(ventaService).save(argThat(v -> LocalDate.of(2025, 12, 25).equals(v.getFechaCompra())));
+    }
+
+    @Test
+    void testSaveVenta_FechaConFormatoDesconocido() throws Exception {
+        mockMvc.perform(post("/api/v1/ventas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id_usuario\":100,\"nroBoleta\":123,\"fechaCompra\":\"2025/12/25\","
+                    + "\"producto\":\"Producto Save\",\"cantidad\":3,\"total\":7500}"))
+            .andExpect(status().isBadRequest());
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testSaveVenta_BoletaConocidaNoLlegaAGuardar() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(100).nroBoleta(123).fechaCompra(LocalDate.of(2025, 6, 26))
+            .producto("Producto Save").cantidad(3).total(7500).build();
+
+        when(indiceBoletas.estaRegistrada(123)).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/ventas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isConflict());
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
     @Test
     void testSaveVenta_ConflictoNumeroBoleta() throws Exception {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(100);
         dto.setNroBoleta(123);
-        dto.setFechaCompra("2025-06-26");
+        dto.setFechaCompra(LocalDate.of(2025, 6, 26));
         dto.setProducto("Producto Save");
         dto.setCantidad(3);
         dto.setTotal(7500);
@@ -153,7 +216,7 @@ public class VentaControllerTest {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(100);
         dto.setNroBoleta(123);
-        dto.setFechaCompra("2025-06-26");
+        dto.setFechaCompra(LocalDate.of(2025, 6, 26));
         dto.setProducto("Producto Update");
         dto.setCantidad(5);
         dto.setTotal(12500);
@@ -185,7 +248,7 @@ public class VentaControllerTest {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(100);
         dto.setNroBoleta(123);
-        dto.setFechaCompra("2025-06-26");
+        dto.setFechaCompra(LocalDate.of(2025, 6, 26));
         dto.setProducto("Producto Update");
         dto.setCantidad(5);
         dto.setTotal(12500);
@@ -202,7 +265,7 @@ public class VentaControllerTest {
 
     @Test
     void testEliminarVenta_Exitosa() throws Exception {
-        doNothing().when(ventaService).delete(1);
+        when(ventaService.delete(1)).thenReturn(true);
 
         mockMvc.perform(delete("/api/v1/ventas/1"))
             .andExpect(status().isNoContent());
@@ -210,6 +273,14 @@ public class VentaControllerTest {
         verify(ventaService, times(1)).delete(1);
     }
 
+    @Test
+    void testEliminarVenta_NoExiste() throws Exception {
+        when(ventaService.delete(1)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/v1/ventas/1"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     void testEliminarVenta_Error() throws Exception {
         doThrow(new RuntimeException("No encontrado")).when(ventaService).delete(1);
@@ -222,8 +293,8 @@ public class VentaControllerTest {
 
     @Test
     void testGetVentasByUsuarioId_OK() throws Exception {
-        Venta venta1 = new Venta(1, 33, 555, "05/05/2025", "Perfume1Ejemplo", 1, 500);
-        Venta venta2 = new Venta(2, 33, 556, "06/05/2025", "Perfume2Ejemplo", 1, 600);
+        VentaView venta1 = new VentaView(1, 33, 555, LocalDate.of(2025, 5, 5), "Perfume1Ejemplo", 1, 500);
+        VentaView venta2 = new VentaView(2, 33, 556, LocalDate.of(2025, 5, 6), "Perfume2Ejemplo", 1, 600);
         Mockito.when(ventaService.getVentasByUsuarioId(33)).thenReturn(List.of(venta1, venta2));
 
         mockMvc.perform(get("/api/v1/ventas/usuario/33"))
@@ -241,4 +312,54 @@ public class VentaControllerTest {
             .andExpect(jsonPath("$.message").value("No se encontraron ventas para el usuario con ID: 999"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportar_Ndjson() throws Exception {
+        VentaView v1 = new VentaView(1, 33, 555, LocalDate.of(2025, 5, 5), "Perfume1Ejemplo", 1, 500);
+        VentaView v2 = new VentaView(2, 33, 556, LocalDate.of(2025, 5, 6), "Perfume2Ejemplo", 1, 600);
+        doAnswer(inv -> {
+            Consumer<VentaView> consumidor = inv.getArgument(0);
+            consumidor.accept(v1);
+            consumidor.accept(v2);
+            return null;
+        }).when(ventaService).forEachVenta(any(Consumer.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/ventas/exportar"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andExpect(content().string(
+                objectMapper.writeValueAsString(v1) + "\n" + objectMapper.writeValueAsString(v2) + "\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportar_Csv() throws Exception {
+        VentaView venta = new VentaView(1, 33, 555, LocalDate.of(2025, 5, 5), "Perfume \"Edición\", 100ml", 2, 500);
+        doAnswer(inv -> {
+            inv.getArgument(0, Consumer.class).accept(venta);
+            return null;
+        }).when(ventaService).forEachVenta(any(Consumer.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/ventas/exportar").param("formato", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(content().string(
+                "id_venta,id_usuario,nro_boleta,fecha_compra,producto,cantidad,total\n"
+                + "1,33,555,2025-05-05,\"Perfume \"\"Edición\"\", 100ml\",2,500\n"));
+    }
+
+    @Test
+    void testExportar_FormatoNoSoportado() throws Exception {
+        mockMvc.perform(get("/api/v1/ventas/exportar").param("formato", "xml"))
+            .andExpect(status().isBadRequest());
+    }
+
 }
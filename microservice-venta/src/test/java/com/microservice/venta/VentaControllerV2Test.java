@@ -1,34 +1,61 @@
 package com.microservice.venta;
 
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.jayway.jsonpath.JsonPath;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservice.venta.assemblers.ventaModelAssembler;
 import com.microservice.venta.controller.VentaControllerV2;
+import com.microservice.venta.dto.Comprador;
 import com.microservice.venta.dto.VentaDTO;
+import com.microservice.venta.dto.VentaLoteResultado;
+import com.microservice.venta.dto.VentaPatchDTO;
+import com.microservice.venta.model.ResumenVentasUsuario;
 import com.microservice.venta.model.Venta;
+import com.microservice.venta.service.CompradoresService;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.IngresoDiferidoVentas;
+import com.microservice.venta.service.RegistroIdempotencia;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaBatchService;
 import com.microservice.venta.service.VentaService;
 
 @WebMvcTest(VentaControllerV2.class)
@@ -40,9 +67,27 @@ public class VentaControllerV2Test {
     @MockBean
     private VentaService ventaService;
 
+    @MockBean
+    private VentaBatchService ventaBatchService;
+
+    @MockBean
+    private ResumenVentasService resumenVentasService;
+
     @MockBean
     private ventaModelAssembler ventaAssembler;
 
+    @MockBean
+    private IndiceBoletas indiceBoletas;
+
+    @SpyBean
+    private RegistroIdempotencia registroIdempotencia;
+
+    @MockBean
+    private IngresoDiferidoVentas ingresoDiferidoVentas;
+
+    @MockBean
+    private CompradoresService compradoresService;
+
     private Venta venta;
     
     @Autowired
@@ -73,24 +118,196 @@ public class VentaControllerV2Test {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetVentaById_EntregaETagConLaVersion() throws Exception {
+        venta.setVersion(3L);
+        when(ventaService.getVentaById(1)).thenReturn(Optional.of(venta));
+        when(ventaAssembler.toModel(venta)).thenReturn(EntityModel.of(venta));
+
+        mockMvc.perform(get("/api/v2/ventas/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void testGetVentaById_NoModificada() throws Exception {
+        venta.setVersion(3L);
+        when(ventaService.getVentaById(1)).thenReturn(Optional.of(venta));
+
+        mockMvc.perform(get("/api/v2/ventas/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+            .andExpect(status().isNotModified());
+
+        verify(ventaAssembler, never()).toModel(any(Venta.class));
+    }
+
+    @Test
+    void testGetVentasByUsuario_NoModificadas() throws Exception {
+        when(resumenVentasService.getRevision(100)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v2/ventas/usuario/100").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+
+        verify(ventaService, never()).findPageByUsuario(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testActualizarVenta_IfMatchDesactualizado() throws Exception {
+        VentaDTO dto = new VentaDTO();
+        dto.setId_usuario(1);
+        dto.setNroBoleta(56985);
+        dto.setFechaCompra(LocalDate.of(2025, 12, 25));
+        dto.setProducto("PerfumeTest");
+        dto.setCantidad(5);
+        dto.setTotal(99999);
+
+        when(ventaService.getVentaById(1)).thenReturn(Optional.of(venta));
+        when(ventaService.save(any(Venta.class))).thenThrow(new OptimisticLockingFailureException("versión distinta"));
+
+        mockMvc.perform(put("/api/v2/ventas/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isPreconditionFailed());
+
+        verify(ventaService).save(argThat(v -> v.getVersion() == 2L));
+    }
+
+    @Test
+    void testEliminarVenta_IfMatchDesactualizado() throws Exception {
+        doThrow(new OptimisticLockingFailureException("versión distinta")).when(ventaService).delete(1, 2L);
+
+        mockMvc.perform(delete("/api/v2/ventas/1").header(HttpHeaders.IF_MATCH, "\"2\""))
+            .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/v2/ventas/1").header(HttpHeaders.IF_MATCH, "W/\"2\""))
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void testGetVentasByUsuario() throws Exception {
-        when(ventaService.getVentasByUsuarioId(100)).thenReturn(Arrays.asList(venta));
+        when(ventaService.findPageByUsuario(100, null, null, null)).thenReturn(Arrays.asList(venta));
         when(ventaAssembler.toModel(venta)).thenReturn(EntityModel.of(venta));
 
         mockMvc.perform(get("/api/v2/ventas/usuario/100"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("_embedded").exists());
+            .andExpect(jsonPath("_embedded").exists())
+            .andExpect(jsonPath("_links.next").doesNotExist());
+    }
+
+    @Test
+    void testGetVentasByUsuario_LinkSiguiente() throws Exception {
+        Venta otra = new Venta();
+        otra.setId_venta(4);
+        otra.setIdUsuario(100);
+        otra.setFechaCompra(LocalDate.of(2025, 4, 20));
+        when(ventaService.findPageByUsuario(100, LocalDate.of(2025, 5, 1), 9, 2)).thenReturn(Arrays.asList(venta, otra));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(inv -> EntityModel.of(inv.getArgument(0, Venta.class)));
+
+        mockMvc.perform(get("/api/v2/ventas/usuario/100").param("beforeFecha", "2025-05-01").param("before", "9").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.next.href").value("http://localhost/api/v2/ventas/usuario/100?beforeFecha=2025-04-20&before=4&size=2"));
+    }
+
+    @Test
+    void testGetVentasByUsuario_CursorIncompleto() throws Exception {
+        mockMvc.perform(get("/api/v2/ventas/usuario/100").param("before", "9"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
     void testGetAllVentas() throws Exception {
-        when(ventaService.findAll()).thenReturn(Arrays.asList(venta));
+        when(ventaService.findPageAfter(null, null)).thenReturn(Arrays.asList(venta));
         when(ventaAssembler.toModel(venta)).thenReturn(EntityModel.of(venta));
 
         mockMvc.perform(get("/api/v2/ventas"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("_embedded").exists());
+            .andExpect(jsonPath("_embedded").exists())
+            .andExpect(jsonPath("_links.self.href").exists())
+            .andExpect(jsonPath("_links.next").doesNotExist())
+            .andExpect(jsonPath("_links.prev").doesNotExist());
+    }
+
+    @Test
+    void testGetAllVentas_LinksDePaginacion() throws Exception {
+        Venta otra = new Venta();
+        otra.setId_venta(2);
+        when(ventaService.findPageAfter(0, 2)).thenReturn(Arrays.asList(venta, otra));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(inv -> EntityModel.of(inv.getArgument(0, Venta.class)));
+
+        mockMvc.perform(get("/api/v2/ventas").param("after", "0").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.next.href").value("http://localhost/api/v2/ventas?after=2&size=2"))
+            .andExpect(jsonPath("_links.prev").doesNotExist());
+    }
+
+    @Test
+    void testGetAllVentas_HaciaAtras() throws Exception {
+        Venta otra = new Venta();
+        otra.setId_venta(2);
+        when(ventaService.findPageBefore(5, 2)).thenReturn(Arrays.asList(venta, otra));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(inv -> EntityModel.of(inv.getArgument(0, Venta.class)));
+
+        mockMvc.perform(get("/api/v2/ventas").param("before", "5").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.next.href").value("http://localhost/api/v2/ventas?after=2&size=2"))
+            .andExpect(jsonPath("_links.prev.href").value("http://localhost/api/v2/ventas?before=1&size=2"));
+    }
+
+    @Test
+    void testGetAllVentas_PorRangoDeFechas() throws Exception {
+        Venta otra = new Venta();
+        otra.setId_venta(7);
+        otra.setFechaCompra(LocalDate.of(2025, 5, 3));
+        LocalDate desde = LocalDate.of(2025, 5, 1);
+        LocalDate hasta = LocalDate.of(2025, 5, 31);
+        when(ventaService.findPageByFechaCompra(desde, hasta, null, null, 2)).thenReturn(Arrays.asList(venta, otra));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(inv -> EntityModel.of(inv.getArgument(0, Venta.class)));
+
+        mockMvc.perform(get("/api/v2/ventas").param("desde", "2025-05-01").param("hasta", "2025-05-31").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.next.href").value("http://localhost/api/v2/ventas?after=7&afterFecha=2025-05-03&size=2&desde=2025-05-01&hasta=2025-05-31"))
+            .andExpect(jsonPath("_links.prev").doesNotExist());
+    }
+
+    @Test
+    void testGetAllVentas_PorRangoDeFechasSiguienteYPrimera() throws Exception {
+        Venta otra = new Venta();
+        otra.setId_venta(7);
+        otra.setFechaCompra(LocalDate.of(2025, 5, 3));
+        Venta tercera = new Venta();
+        tercera.setId_venta(9);
+        tercera.setFechaCompra(LocalDate.of(2025, 5, 20));
+        LocalDate desde = LocalDate.of(2025, 5, 1);
+        LocalDate hasta = LocalDate.of(2025, 5, 31);
+        when(ventaService.findPageByFechaCompra(desde, hasta, null, null, 2)).thenReturn(Arrays.asList(venta, otra));
+        when(ventaService.findPageByFechaCompra(desde, hasta, LocalDate.of(2025, 5, 3), 7, 2)).thenReturn(List.of(tercera));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(inv -> EntityModel.of(inv.getArgument(0, Venta.class)));
+
+        String primera = "http://localhost/api/v2/ventas?size=2&desde=2025-05-01&hasta=2025-05-31";
+        String cuerpo = mockMvc.perform(get("/api/v2/ventas").param("desde", "2025-05-01").param("hasta", "2025-05-31").param("size", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.first.href").value(primera))
+            .andReturn().getResponse().getContentAsString();
+        String siguiente = JsonPath.read(cuerpo, "$._links.next.href");
+
+        // La segunda página conserva el rango pedido: first vuelve a la primera página
+        mockMvc.perform(get(siguiente))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_links.self.href").value(siguiente))
+            .andExpect(jsonPath("_links.first.href").value(primera))
+            .andExpect(jsonPath("_links.next").doesNotExist());
+
+        verify(ventaService).findPageByFechaCompra(desde, hasta, LocalDate.of(2025, 5, 3), 7, 2);
+    }
+
+    @Test
+    void testGetAllVentas_RangoInvalido() throws Exception {
+        mockMvc.perform(get("/api/v2/ventas").param("desde", "2025-06-01").param("hasta", "2025-05-01"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v2/ventas").param("desde", "2025-06-01"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -98,7 +315,7 @@ public class VentaControllerV2Test {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(1);
         dto.setNroBoleta(56985);
-        dto.setFechaCompra("25/12/2025");
+        dto.setFechaCompra(LocalDate.of(2025, 12, 25));
         dto.setProducto("PerfumeTest");
         dto.setCantidad(5);
         dto.setTotal(99999);
@@ -115,7 +332,7 @@ public class VentaControllerV2Test {
 
         when(ventaService.save(any(Venta.class))).thenReturn(creada);
         when(ventaAssembler.toModel(any(Venta.class))).thenReturn(
-            EntityModel.of(creada, linkTo(methodOn(VentaControllerV2.class).getVentaById(1)).withSelfRel())
+            EntityModel.of(creada, linkTo(methodOn(VentaControllerV2.class).getVentaById(1, null)).withSelfRel())
         );
 
         mockMvc.perform(post("/api/v2/ventas")
@@ -133,7 +350,7 @@ public class VentaControllerV2Test {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(1);
         dto.setNroBoleta(56985);
-        dto.setFechaCompra("25/12/2025");
+        dto.setFechaCompra(LocalDate.of(2025, 12, 25));
         dto.setProducto("PerfumeTest");
         dto.setCantidad(5);
         dto.setTotal(99999);
@@ -161,7 +378,7 @@ public class VentaControllerV2Test {
         when(ventaService.getVentaById(id)).thenReturn(Optional.of(existente));
         when(ventaService.save(any(Venta.class))).thenReturn(actualizada);
         when(ventaAssembler.toModel(any(Venta.class))).thenReturn(
-            EntityModel.of(actualizada, linkTo(methodOn(VentaControllerV2.class).getVentaById(id)).withSelfRel())
+            EntityModel.of(actualizada, linkTo(methodOn(VentaControllerV2.class).getVentaById(id, null)).withSelfRel())
         );
 
         mockMvc.perform(put("/api/v2/ventas/{id}", id)
@@ -175,23 +392,15 @@ public class VentaControllerV2Test {
     @Test
     void testEliminarVentaSuccess() throws Exception {
         int id = 1;
-        Venta venta = Venta.builder()
-            .id_venta(id)
-            .idUsuario(1)
-            .nroBoleta(56565)
-            .fechaCompra("25/12/2025")
-            .producto("PerfumeTest")
-            .cantidad(5)
-            .total(999999)
-            .build();
 
-        when(ventaService.getVentaById(id)).thenReturn(Optional.of(venta));
-        doNothing().when(ventaService).delete(id);
+        when(ventaService.delete(id)).thenReturn(true);
 
         mockMvc.perform(delete("/api/v2/ventas/{id}", id))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.mensaje").value("Venta eliminada exitosamente"))
             .andExpect(jsonPath("$.links").exists());
+
+        verify(ventaService, never()).getVentaById(anyInt());
     }
 
     @Test
@@ -199,7 +408,7 @@ public class VentaControllerV2Test {
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(1);
         dto.setNroBoleta(56985);
-        dto.setFechaCompra("25/12/2025");
+        dto.setFechaCompra(LocalDate.of(2025, 12, 25));
         dto.setProducto("PerfumeTest");
         dto.setCantidad(5);
         dto.setTotal(99999);
@@ -215,13 +424,190 @@ public class VentaControllerV2Test {
             .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void testCrearVenta_BoletaConocidaNoLlegaAGuardar() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+
+        when(indiceBoletas.estaRegistrada(56985)).thenReturn(true);
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.mensaje").value("El N° de boleta ya está registrado"));
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testCrearVenta_IdempotencyKeyRepiteRespuestaSinGuardar() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        Venta creada = Venta.builder().id_venta(1).idUsuario(1).nroBoleta(56985).fechaCompra(dto.getFechaCompra())
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+
+        when(ventaService.save(any(Venta.class))).thenReturn(creada);
+        when(ventaAssembler.toModel(any(Venta.class))).thenReturn(
+            EntityModel.of(creada, linkTo(methodOn(VentaControllerV2.class).getVentaById(1, null)).withSelfRel())
+        );
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .header("Idempotency-Key", "clave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .header("Idempotency-Key", "clave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andExpect(jsonPath("$.id_venta").value(1));
+
+        verify(ventaService, times(1)).save(any(Venta.class));
+        verify(indiceBoletas, times(1)).estaRegistrada(56985);
+    }
+
+    @Test
+    void testCrearVenta_IdempotencyKeyConOtraVenta() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        registroIdempotencia.iniciar("clave-2", VentaDTO.builder().nroBoleta(1).build());
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .header("Idempotency-Key", "clave-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isUnprocessableEntity());
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testCrearVenta_IdempotencyKeyEnCurso() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        registroIdempotencia.iniciar("clave-3", dto);
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .header("Idempotency-Key", "clave-3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isConflict());
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testCrearVenta_IdempotencyKeyLiberadaSiFalla() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        when(ventaService.save(any(Venta.class))).thenThrow(new DataIntegrityViolationException("Duplicate"));
+
+        mockMvc.perform(post("/api/v2/ventas")
+                .header("Idempotency-Key", "clave-4")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isConflict());
+
+        verify(registroIdempotencia).liberar("clave-4");
+        verify(registroIdempotencia, never()).completar(any(), any(), any());
+    }
+
+    @Test
+    void testGetVentasConComprador() throws Exception {
+        Venta primera = Venta.builder().id_venta(1).idUsuario(10).nroBoleta(100).producto("Perfume").build();
+        Venta segunda = Venta.builder().id_venta(2).idUsuario(20).nroBoleta(101).producto("Colonia").build();
+        when(ventaService.findPageAfter(null, null)).thenReturn(List.of(primera, segunda));
+        when(compradoresService.buscar(List.of(10, 20))).thenReturn(Map.of(
+            10, Comprador.builder().id_usuario(10).nombres("Ana").apellidos("López").build()));
+        when(ventaAssembler.toModel(any(Venta.class))).thenAnswer(invocacion -> {
+            Venta venta = invocacion.getArgument(0);
+            return EntityModel.of(venta, Link.of("http://localhost:8080/api/v2/usuarios/" + venta.getIdUsuario(), "usuario"));
+        });
+
+        mockMvc.perform(get("/api/v2/ventas/con-comprador"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$._embedded.ventaConCompradorList[0].id_venta").value(1))
+            .andExpect(jsonPath("$._embedded.ventaConCompradorList[0].comprador.nombres").value("Ana"))
+            .andExpect(jsonPath("$._embedded.ventaConCompradorList[1].comprador").isEmpty())
+            .andExpect(jsonPath("$._embedded.ventaConCompradorList[1]._links.usuario.href").value("http://localhost:8080/api/v2/usuarios/20"))
+            .andExpect(jsonPath("$._links.self.href").exists());
+
+        verify(compradoresService, times(1)).buscar(any());
+    }
+
+    @Test
+    void testCrearVentaDiferida_Aceptada() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        when(ingresoDiferidoVentas.encolar(any(Venta.class)))
+            .thenReturn(Optional.of(new IngresoDiferidoVentas.Ingreso("t-1", new CompletableFuture<>())));
+
+        mockMvc.perform(post("/api/v2/ventas/diferidas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/v2/ventas/diferidas/t-1"))
+            .andExpect(jsonPath("$.ticket").value("t-1"));
+
+        verify(ventaService, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testCrearVentaDiferida_ColaLlena() throws Exception {
+        VentaDTO dto = VentaDTO.builder().id_usuario(1).nroBoleta(56985).fechaCompra(LocalDate.of(2025, 12, 25))
+            .producto("PerfumeTest").cantidad(5).total(99999).build();
+        when(ingresoDiferidoVentas.encolar(any(Venta.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v2/ventas/diferidas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+            .andExpect(jsonPath("$.mensaje").exists());
+    }
+
+    @Test
+    void testGetVentaDiferida_Pendiente() throws Exception {
+        when(ingresoDiferidoVentas.consultar("t-1")).thenReturn(Optional.of(new CompletableFuture<>()));
+
+        mockMvc.perform(get("/api/v2/ventas/diferidas/t-1"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.ticket").value("t-1"));
+    }
+
+    @Test
+    void testGetVentaDiferida_Creada() throws Exception {
+        VentaLoteResultado resultado = VentaLoteResultado.builder()
+            .estado(VentaLoteResultado.Estado.CREADA).id_venta(7).nroBoleta(56985).build();
+        when(ingresoDiferidoVentas.consultar("t-1")).thenReturn(Optional.of(CompletableFuture.completedFuture(resultado)));
+
+        mockMvc.perform(get("/api/v2/ventas/diferidas/t-1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/v2/ventas/7"))
+            .andExpect(jsonPath("$.estado").value("CREADA"));
+    }
+
+    @Test
+    void testGetVentaDiferida_TicketDesconocido() throws Exception {
+        when(ingresoDiferidoVentas.consultar("t-1")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v2/ventas/diferidas/t-1"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     void testActualizarVentaNotFound() throws Exception {
         int id = 999;
         VentaDTO dto = new VentaDTO();
         dto.setId_usuario(1);
         dto.setNroBoleta(56985);
-        dto.setFechaCompra("25/12/2025");
+        dto.setFechaCompra(LocalDate.of(2025, 12, 25));
         dto.setProducto("PerfumeTest");
         dto.setCantidad(5);
         dto.setTotal(99999);
@@ -238,10 +624,142 @@ public class VentaControllerV2Test {
     void testEliminarVentaNotFound() throws Exception {
         int id = 999;
 
-        when(ventaService.getVentaById(id)).thenReturn(Optional.empty());
+        when(ventaService.delete(id)).thenReturn(false);
 
         mockMvc.perform(delete("/api/v2/ventas/{id}", id))
             .andExpect(status().isNotFound());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEliminarVentas_PorIds() throws Exception {
+        when(ventaService.deleteAll(any())).thenReturn(2);
+
+        mockMvc.perform(delete("/api/v2/ventas").param("ids", "1,2,3,3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.eliminadas").value(2))
+            .andExpect(jsonPath("$.noEncontradas").value(1));
+
+        verify(ventaService).deleteAll(argThat(ids -> ids.size() == 3 && ids.containsAll(List.of(1, 2, 3))));
+    }
+
+    @Test
+    void testEliminarVentas_DemasiadosIds() throws Exception {
+        String ids = java.util.stream.IntStream.rangeClosed(1, VentaService.MAX_IDS_POR_ELIMINACION + 1)
+            .mapToObj(String::valueOf)
+            .collect(java.util.stream.Collectors.joining(","));
+
+        mockMvc.perform(delete("/api/v2/ventas").param("ids", ids))
+            .andExpect(status().isBadRequest());
+
+        verify(ventaService, never()).deleteAll(any());
+    }
+
+    @Test
+    void testCrearVentasEnLote_ResultadoParcial() throws Exception {
+        VentaDTO dto1 = VentaDTO.builder().id_usuario(1).nroBoleta(1).fechaCompra(LocalDate.of(2025, 6, 26)).producto("Perfume A").cantidad(1).total(100).build();
+        VentaDTO dto2 = VentaDTO.builder().id_usuario(1).nroBoleta(2).fechaCompra(LocalDate.of(2025, 6, 26)).producto("Perfume B").cantidad(1).total(100).build();
+
+        when(ventaBatchService.guardarLote(anyList())).thenReturn(List.of(
+            VentaLoteResultado.builder().indice(0).estado(VentaLoteResultado.Estado.CREADA).id_venta(10).nroBoleta(1).build(),
+            VentaLoteResultado.builder().indice(1).estado(VentaLoteResultado.Estado.DUPLICADA).nroBoleta(2).mensaje("El N° de boleta ya está registrado").build()));
+
+        mockMvc.perform(post("/api/v2/ventas/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(dto1, dto2))))
+            .andExpect(status().isMultiStatus())
+            .andExpect(jsonPath("$.creadas").value(1))
+            .andExpect(jsonPath("$.rechazadas").value(1))
+            .andExpect(jsonPath("$.resultados[0].id_venta").value(10))
+            .andExpect(jsonPath("$.resultados[1].estado").value("DUPLICADA"));
+    }
+
+    @Test
+    void testCrearVentasEnLote_Vacio() throws Exception {
+        mockMvc.perform(post("/api/v2/ventas/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetResumenByUsuario() throws Exception {
+        when(resumenVentasService.getResumen(100)).thenReturn(new ResumenVentasUsuario(100, 3, 9000, 4, LocalDate.of(2025, 6, 26), 0));
+
+        mockMvc.perform(get("/api/v2/ventas/usuario/100/resumen"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cantidadVentas").value(3))
+            .andExpect(jsonPath("$.totalGastado").value(9000))
+            .andExpect(jsonPath("$.ultimaCompra").value("2025-06-26"))
+            .andExpect(jsonPath("$._links.ventas-del-usuario.href").exists());
+    }
+
+    @Test
+    void testActualizarParcialVenta_SinContenido() throws Exception {
+        when(ventaService.actualizarParcial(anyInt(), any(VentaPatchDTO.class), any())).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v2/ventas/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"producto\":\"Perfume Nuevo\"}"))
+            .andExpect(status().isNoContent())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(ventaService).actualizarParcial(anyInt(), argThat(dto -> "Perfume Nuevo".equals(dto.getProducto()) && dto.getTotal() == null), any());
+        verify(ventaService, never()).getVentaById(anyInt());
+    }
+
+    @Test
+    void testActualizarParcialVenta_ConIfMatchDevuelveNuevoEtag() throws Exception {
+        when(ventaService.actualizarParcial(anyInt(), any(VentaPatchDTO.class), any())).thenReturn(true);
+
+        mockMvc.perform(patch("/api/v2/ventas/1")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"total\":9000}"))
+            .andExpect(status().isNoContent())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    void testActualizarParcialVenta_NoEncontrada() throws Exception {
+        when(ventaService.actualizarParcial(anyInt(), any(VentaPatchDTO.class), any())).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v2/ventas/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cantidad\":2}"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testActualizarParcialVenta_IfMatchDesactualizado() throws Exception {
+        when(ventaService.actualizarParcial(anyInt(), any(VentaPatchDTO.class), any()))
+            .thenThrow(new OptimisticLockingFailureException("versión distinta"));
+
+        mockMvc.perform(patch("/api/v2/ventas/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cantidad\":2}"))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testActualizarParcialVenta_BoletaDuplicada() throws Exception {
+        when(ventaService.actualizarParcial(anyInt(), any(VentaPatchDTO.class), any()))
+            .thenThrow(new DataIntegrityViolationException("duplicada"));
+
+        mockMvc.perform(patch("/api/v2/ventas/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nroBoleta\":555}"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testActualizarParcialVenta_SinCampos() throws Exception {
+        mockMvc.perform(patch("/api/v2/ventas/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isBadRequest());
+
+        verify(ventaService, never()).actualizarParcial(anyInt(), any(VentaPatchDTO.class), any());
+    }
+
+}
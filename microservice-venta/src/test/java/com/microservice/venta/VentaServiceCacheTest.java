@@ -0,0 +1,155 @@
+package com.microservice.venta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.microservice.venta.config.CacheConfig;
+import com.microservice.venta.dto.VentaView;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringJUnitConfig
+public class VentaServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, VentaService.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.VENTAS, CacheConfig.VENTAS_VISTA);
+        }
+    }
+
+    @MockBean
+    private VentaRepository ventaRepository;
+
+    @MockBean
+    private ResumenVentasService resumenVentasService;
+
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private IndiceBoletas indiceBoletas;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Venta venta;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.VENTAS).clear();
+        cacheManager.getCache(CacheConfig.VENTAS_VISTA).clear();
+        venta = Venta.builder().id_venta(1).idUsuario(10).producto("Perfume").build();
+    }
+
+    @Test
+    void testGetVentaById_SegundaLecturaDesdeCache() {
+        when(ventaRepository.findById(1)).thenReturn(Optional.of(venta));
+
+        ventaService.getVentaById(1);
+        Optional<Venta> resultado = ventaService.getVentaById(1);
+
+        assertEquals("Perfume", resultado.get().getProducto());
+        verify(ventaRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void testSave_InvalidaLaEntrada() {
+        when(ventaRepository.findById(1)).thenReturn(Optional.of(venta));
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.empty());
+        when(ventaRepository.save(any(Venta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ventaService.getVentaById(1);
+        ventaService.save(Venta.builder().id_venta(1).idUsuario(10).producto("Otro").build());
+        ventaService.getVentaById(1);
+
+        verify(ventaRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void testDelete_InvalidaLaEntrada() {
+        when(ventaRepository.findById(1)).thenReturn(Optional.of(venta));
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.empty());
+
+        ventaService.getVentaById(1);
+        ventaService.delete(1);
+        ventaService.getVentaById(1);
+
+        verify(ventaRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void testSave_InvalidaLaVista() {
+        VentaView vista = new VentaView(1, 10, 100, null, "Perfume", 1, 500);
+        when(ventaRepository.findViewById(1)).thenReturn(Optional.of(vista));
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.empty());
+        when(ventaRepository.save(any(Venta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ventaService.getVentaViewById(1);
+        ventaService.getVentaViewById(1);
+        ventaService.save(Venta.builder().id_venta(1).idUsuario(10).producto("Otro").build());
+        ventaService.getVentaViewById(1);
+
+        verify(ventaRepository, times(2)).findViewById(1);
+    }
+
+    @Test
+    void testGetVentaById_FallosConcurrentesConsultanUnaVez() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ventaRepository.findById(1)).thenAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return Optional.of(venta);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Venta>>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> ventaService.getVentaById(1)));
+            }
+            Thread.sleep(200);
+            liberar.countDown();
+
+            for (Future<Optional<Venta>> resultado : resultados) {
+                assertEquals(1, resultado.get(5, TimeUnit.SECONDS).get().getId_venta());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(ventaRepository, times(1)).findById(1);
+    }
+
+}
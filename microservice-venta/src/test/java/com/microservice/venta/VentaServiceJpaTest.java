@@ -0,0 +1,64 @@
+package com.microservice.venta;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.microservice.venta.dto.VentaPatchDTO;
+import com.microservice.venta.model.Venta;
+import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.ResumenVentasService;
+import com.microservice.venta.service.VentaService;
+
+// Contra H2 (MODE=MySQL): el ETag del historial es la revisión que dejan las sentencias nativas del resumen
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:ventas-servicio;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ VentaService.class, ResumenVentasService.class, IndiceBoletas.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class VentaServiceJpaTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Test
+    void testActualizarParcial_SoloProductoCambiaElEtagDelHistorial() {
+        Venta venta = ventaService.save(Venta.builder()
+                .idUsuario(5)
+                .nroBoleta(500)
+                .fechaCompra(LocalDate.of(2025, 6, 26))
+                .producto("Perfume A")
+                .cantidad(1)
+                .total(1000)
+                .build());
+        long revision = resumenVentasService.getRevision(5);
+
+        assertTrue(ventaService.actualizarParcial(venta.getId_venta(),
+                VentaPatchDTO.builder().producto("Perfume B").build(), null));
+
+        assertNotEquals(revision, resumenVentasService.getRevision(5));
+        assertEquals("Perfume B", ventaRepository.findById(venta.getId_venta()).orElseThrow().getProducto());
+        // Los totales no cambian
+        assertEquals(1, resumenVentasService.getResumen(5).getCantidadVentas());
+        assertEquals(1000, resumenVentasService.getResumen(5).getTotalGastado());
+    }
+
+}
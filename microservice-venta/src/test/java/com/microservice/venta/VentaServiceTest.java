@@ -1,25 +1,42 @@
 package com.microservice.venta;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 
+import com.microservice.venta.dto.VentaPatchDTO;
+import com.microservice.venta.dto.VentaView;
 import com.microservice.venta.model.Venta;
 import com.microservice.venta.repository.VentaRepository;
+import com.microservice.venta.service.IndiceBoletas;
+import com.microservice.venta.service.ResumenVentasService;
 import com.microservice.venta.service.VentaService;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +45,12 @@ public class VentaServiceTest {
     @Mock
     private VentaRepository ventaRepository;
 
+    @Mock
+    private ResumenVentasService resumenVentasService;
+
+    @Mock
+    private IndiceBoletas indiceBoletas;
+
     @InjectMocks
     private VentaService ventaService;
 
@@ -37,7 +60,7 @@ public class VentaServiceTest {
                 .id_venta(1)
                 .idUsuario(100)
                 .nroBoleta(1234)
-                .fechaCompra("2025-06-26")
+                .fechaCompra(LocalDate.of(2025, 6, 26))
                 .producto("Producto A")
                 .cantidad(2)
                 .total(2000)
@@ -58,7 +81,7 @@ public class VentaServiceTest {
         Venta venta = Venta.builder()
                 .idUsuario(100)
                 .nroBoleta(1235)
-                .fechaCompra("2025-06-26")
+                .fechaCompra(LocalDate.of(2025, 6, 26))
                 .producto("Producto B")
                 .cantidad(3)
                 .total(3000)
@@ -72,6 +95,27 @@ public class VentaServiceTest {
         assertEquals("Producto B", resultado.getProducto());
 
         verify(ventaRepository, times(1)).save(venta);
+        verify(ventaRepository, never()).findSnapshotById(anyInt());
+        verify(resumenVentasService, times(1)).registrar(venta);
+        verify(indiceBoletas, times(1)).registrar(1235);
+        verify(resumenVentasService, never()).descontar(any(VentaRepository.Snapshot.class));
+    }
+
+    @Test
+    void testGuardarVenta_ModificacionDescuentaValoresAnteriores() {
+        Venta venta = Venta.builder().id_venta(7).idUsuario(100).total(3000).cantidad(3).build();
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+
+        when(ventaRepository.findSnapshotById(7)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.save(venta)).thenReturn(venta);
+
+        ventaService.save(venta);
+
+        InOrder orden = inOrder(ventaRepository, resumenVentasService);
+        orden.verify(ventaRepository).findSnapshotById(7);
+        orden.verify(ventaRepository).save(venta);
+        orden.verify(resumenVentasService).descontar(anterior);
+        orden.verify(resumenVentasService).registrar(venta);
     }
 
     @Test
@@ -92,6 +136,96 @@ public class VentaServiceTest {
         verify(ventaRepository, times(1)).findAll();
     }
 
+    @Test
+    void testFindPageAfter_UsaCursorYTamanoPorDefecto() {
+        Venta venta1 = Venta.builder().id_venta(1).producto("Producto A").build();
+
+        when(ventaRepository.findPageAfter(0, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE))).thenReturn(List.of(venta1));
+
+        List<Venta> resultado = ventaService.findPageAfter(null, null);
+
+        assertEquals(1, resultado.size());
+        verify(ventaRepository, times(1)).findPageAfter(0, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void testFindPageAfter_LimitaTamanoMaximo() {
+        when(ventaRepository.findPageAfter(50, Pageable.ofSize(VentaService.MAX_PAGE_SIZE))).thenReturn(List.of());
+
+        ventaService.findPageAfter(50, 1_000_000);
+
+        verify(ventaRepository, times(1)).findPageAfter(50, Pageable.ofSize(VentaService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void testFindPageBefore_DevuelveOrdenAscendente() {
+        Venta venta3 = Venta.builder().id_venta(3).build();
+        Venta venta2 = Venta.builder().id_venta(2).build();
+
+        when(ventaRepository.findPageBefore(4, Pageable.ofSize(2))).thenReturn(List.of(venta3, venta2));
+
+        List<Venta> resultado = ventaService.findPageBefore(4, 2);
+
+        assertEquals(2, resultado.get(0).getId_venta());
+        assertEquals(3, resultado.get(1).getId_venta());
+    }
+
+    @Test
+    void testFindPageByFechaCompra_UsaCursorYRango() {
+        LocalDate desde = LocalDate.of(2025, 5, 1);
+        LocalDate hasta = LocalDate.of(2025, 5, 31);
+        LocalDate afterFecha = LocalDate.of(2025, 5, 3);
+        when(ventaRepository.findPageByFechaCompra(desde, hasta, desde, 0, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE))).thenReturn(List.of());
+
+        ventaService.findPageByFechaCompra(desde, hasta, null, null, null);
+        ventaService.findPageByFechaCompra(desde, hasta, afterFecha, 7, null);
+
+        verify(ventaRepository, times(1)).findPageByFechaCompra(desde, hasta, desde, 0, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE));
+        // El cursor va aparte: el rango sigue empezando en 'desde'
+        verify(ventaRepository, times(1)).findPageByFechaCompra(desde, hasta, afterFecha, 7, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void testFindPageByUsuario_SinCursorEntregaLasMasRecientes() {
+        when(ventaRepository.findUltimasByIdUsuario(10, Pageable.ofSize(5))).thenReturn(List.of());
+
+        ventaService.findPageByUsuario(10, null, null, 5);
+
+        verify(ventaRepository, times(1)).findUltimasByIdUsuario(10, Pageable.ofSize(5));
+    }
+
+    @Test
+    void testFindPageByUsuario_ConCursor() {
+        LocalDate fecha = LocalDate.of(2025, 5, 1);
+        when(ventaRepository.findPageByIdUsuarioBefore(10, fecha, 9, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE))).thenReturn(List.of());
+
+        ventaService.findPageByUsuario(10, fecha, 9, null);
+
+        verify(ventaRepository, times(1)).findPageByIdUsuarioBefore(10, fecha, 9, Pageable.ofSize(VentaService.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void testForEachVenta_EntregaCadaVenta() {
+        VentaView venta1 = new VentaView(1, 10, 100, null, "A", 1, 500);
+        VentaView venta2 = new VentaView(2, 10, 101, null, "B", 1, 500);
+
+        when(ventaRepository.streamAll()).thenReturn(Stream.of(venta1, venta2));
+
+        List<Integer> vistas = new ArrayList<>();
+        ventaService.forEachVenta(venta -> vistas.add(venta.getId_venta()));
+
+        assertEquals(List.of(1, 2), vistas);
+    }
+
+    @Test
+    void testFindViewPageAfter_UsaCursorYTamano() {
+        when(ventaRepository.findViewPageAfter(5, Pageable.ofSize(2))).thenReturn(List.of());
+
+        ventaService.findViewPageAfter(5, 2);
+
+        verify(ventaRepository, times(1)).findViewPageAfter(5, Pageable.ofSize(2));
+    }
+
     @Test
     void testGetVentaById2_Existente() {
         Venta venta = Venta.builder()
@@ -120,26 +254,190 @@ public class VentaServiceTest {
     }
 
     @Test
-    void testDelete() {
-        int id = 1;
+    void testDelete_NoExiste() {
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.empty());
+
+        assertFalse(ventaService.delete(1));
+
+        verify(ventaRepository, never()).deleteByIdAndVersion(anyInt(), anyLong());
+        verify(ventaRepository, never()).deleteById(anyInt());
+        verify(resumenVentasService, never()).descontar(any(VentaRepository.Snapshot.class));
+    }
+
+    @Test
+    void testDelete_DescuentaDelResumen() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getVersion()).thenReturn(3L);
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.deleteByIdAndVersion(1, 3L)).thenReturn(1);
 
-        doNothing().when(ventaRepository).deleteById(id);
+        assertTrue(ventaService.delete(1));
 
-        ventaService.delete(id);
+        verify(ventaRepository, never()).findById(anyInt());
+        verify(resumenVentasService, times(1)).descontar(anterior);
+    }
+
+    @Test
+    void testDelete_QuitaLaBoletaDelIndice() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getVersion()).thenReturn(3L);
+        when(anterior.getNroBoleta()).thenReturn(555);
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.deleteByIdAndVersion(1, 3L)).thenReturn(1);
+
+        ventaService.delete(1);
+
+        verify(indiceBoletas, times(1)).quitar(555);
+    }
+
+    @Test
+    void testGuardarVenta_CambioDeBoletaActualizaElIndice() {
+        Venta venta = Venta.builder().id_venta(7).idUsuario(100).nroBoleta(900).build();
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getNroBoleta()).thenReturn(800);
+        when(ventaRepository.findSnapshotById(7)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.save(venta)).thenReturn(venta);
+
+        ventaService.save(venta);
+
+        verify(indiceBoletas).quitar(800);
+        verify(indiceBoletas).registrar(900);
+    }
+
+    @Test
+    void testGuardarVenta_MismaBoletaNoTocaElIndice() {
+        Venta venta = Venta.builder().id_venta(7).idUsuario(100).nroBoleta(900).build();
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getNroBoleta()).thenReturn(900);
+        when(ventaRepository.findSnapshotById(7)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.save(venta)).thenReturn(venta);
+
+        ventaService.save(venta);
+
+        verify(indiceBoletas, never()).quitar(anyInt());
+        verify(indiceBoletas, never()).registrar(anyInt());
+    }
+
+    @Test
+    void testDelete_ModificadaEntreLecturaYDelete() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getVersion()).thenReturn(3L);
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.deleteByIdAndVersion(1, 3L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> ventaService.delete(1));
+
+        verify(resumenVentasService, never()).descontar(any(VentaRepository.Snapshot.class));
+    }
+
+    @Test
+    void testDeleteAll_UnDeleteYDescuentoAgrupado() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        List<Integer> ids = List.of(1, 2, 3);
+        when(ventaRepository.findSnapshotsForUpdate(ids)).thenReturn(List.of(anterior, anterior));
+        when(ventaRepository.deleteByIdIn(ids)).thenReturn(2);
+
+        assertEquals(2, ventaService.deleteAll(ids));
+
+        verify(resumenVentasService, times(1)).descontar(List.of(anterior, anterior));
+    }
+
+    @Test
+    void testDeleteAll_NingunaExiste() {
+        List<Integer> ids = List.of(1, 2);
+        when(ventaRepository.findSnapshotsForUpdate(ids)).thenReturn(List.of());
+
+        assertEquals(0, ventaService.deleteAll(ids));
+
+        verify(ventaRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void testGuardarVenta_SinVersionUsaLaGuardada() {
+        Venta venta = Venta.builder().id_venta(7).idUsuario(100).build();
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getVersion()).thenReturn(4L);
+        when(ventaRepository.findSnapshotById(7)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.save(venta)).thenReturn(venta);
+
+        ventaService.save(venta);
+
+        assertEquals(4L, venta.getVersion());
+    }
+
+    @Test
+    void testDeleteConVersion_VersionDistinta() {
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(ventaRepository.findSnapshotById(1)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.deleteByIdAndVersion(1, 2L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> ventaService.delete(1, 2L));
+
+        verify(resumenVentasService, never()).descontar(any(VentaRepository.Snapshot.class));
+    }
+
+    @Test
+    void testActualizarParcial_SoloProductoNoLeeLaVenta() {
+        VentaPatchDTO cambios = VentaPatchDTO.builder().producto("Perfume Nuevo").build();
+        when(ventaRepository.actualizarParcial(7, null, null, null, null, "Perfume Nuevo", null, null)).thenReturn(1);
+
+        assertTrue(ventaService.actualizarParcial(7, cambios, null));
+
+        verify(ventaRepository, never()).findSnapshotById(anyInt());
+        verify(ventaRepository, never()).findById(anyInt());
+        verify(resumenVentasService, never()).descontar(any(VentaRepository.Snapshot.class));
+        // El historial del usuario igual cambió
+        verify(resumenVentasService).registrarModificacion(7);
+    }
+
+    @Test
+    void testActualizarParcial_NoExiste() {
+        VentaPatchDTO cambios = VentaPatchDTO.builder().producto("Perfume Nuevo").build();
+        when(ventaRepository.actualizarParcial(7, null, null, null, null, "Perfume Nuevo", null, null)).thenReturn(0);
+
+        assertFalse(ventaService.actualizarParcial(7, cambios, null));
+        verify(resumenVentasService, never()).registrarModificacion(anyInt());
+    }
+
+    @Test
+    void testActualizarParcial_TotalCorrigeElResumen() {
+        VentaPatchDTO cambios = VentaPatchDTO.builder().total(9000).build();
+        VentaRepository.Snapshot anterior = mock(VentaRepository.Snapshot.class);
+        when(anterior.getVersion()).thenReturn(4L);
+        when(anterior.getIdUsuario()).thenReturn(100);
+        when(anterior.getCantidad()).thenReturn(3);
+        when(anterior.getFechaCompra()).thenReturn(LocalDate.of(2025, 6, 26));
+        when(ventaRepository.findSnapshotById(7)).thenReturn(Optional.of(anterior));
+        when(ventaRepository.actualizarParcial(7, 4L, null, null, null, null, null, 9000)).thenReturn(1);
+
+        assertTrue(ventaService.actualizarParcial(7, cambios, null));
+
+        InOrder orden = inOrder(ventaRepository, resumenVentasService);
+        orden.verify(ventaRepository).actualizarParcial(7, 4L, null, null, null, null, null, 9000);
+        orden.verify(resumenVentasService).descontar(anterior);
+        orden.verify(resumenVentasService).registrar(argThat((Venta v) ->
+                v.getIdUsuario() == 100 && v.getTotal() == 9000 && v.getCantidad() == 3));
+    }
+
+    @Test
+    void testActualizarParcial_VersionDistinta() {
+        VentaPatchDTO cambios = VentaPatchDTO.builder().producto("Perfume Nuevo").build();
+        when(ventaRepository.actualizarParcial(7, 2L, null, null, null, "Perfume Nuevo", null, null)).thenReturn(0);
+        when(ventaRepository.existsById(7)).thenReturn(true);
 
-        verify(ventaRepository, times(1)).deleteById(id);
+        assertThrows(OptimisticLockingFailureException.class, () -> ventaService.actualizarParcial(7, cambios, 2L));
     }
 
     @Test
     void testGetVentasByUsuarioId() {
-        Venta venta = new Venta(); venta.setId_venta(1); venta.setIdUsuario(10);
-        when(ventaRepository.findByIdUsuario(10)).thenReturn(Arrays.asList(venta));
+        VentaView venta = new VentaView(1, 10, 100, null, "A", 1, 500);
+        when(ventaRepository.findViewsByIdUsuario(10)).thenReturn(Arrays.asList(venta));
 
-        List<Venta> result = ventaService.getVentasByUsuarioId(10);
+        List<VentaView> result = ventaService.getVentasByUsuarioId(10);
 
         assertEquals(1, result.size());
         assertEquals(10, result.get(0).getIdUsuario());
-        verify(ventaRepository).findByIdUsuario(10);
+        verify(ventaRepository).findViewsByIdUsuario(10);
     }
 
 }
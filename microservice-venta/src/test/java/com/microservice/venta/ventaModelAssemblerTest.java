@@ -3,10 +3,14 @@ package com.microservice.venta;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.microservice.venta.assemblers.ventaModelAssembler;
 import com.microservice.venta.model.Venta;
@@ -51,4 +55,26 @@ class ventaModelAssemblerTest {
         assertNotNull(todasLasVentasLink, "Debe contener link 'todas-las-ventas'");
         assertTrue(todasLasVentasLink.getHref().contains("/api/v2/ventas"));
     }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testToModel_MismaPeticionReemplazaElIdDeCadaVenta() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName("api.perfulandia.cl");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        EntityModel<Venta> primera = assembler.toModel(Venta.builder().id_venta(1).idUsuario(100).build());
+        EntityModel<Venta> segunda = assembler.toModel(Venta.builder().id_venta(2).idUsuario(200).build());
+
+        assertEquals("http://api.perfulandia.cl/api/v2/ventas/1", primera.getRequiredLink("self").getHref());
+        assertEquals("http://api.perfulandia.cl/api/v2/ventas/2", segunda.getRequiredLink("self").getHref());
+        assertEquals("http://api.perfulandia.cl/api/v2/ventas/2", segunda.getRequiredLink("eliminar").getHref());
+        assertEquals("http://api.perfulandia.cl/api/v2/ventas/usuario/200{?beforeFecha,before,size}",
+            segunda.getRequiredLink("ventas-del-usuario").getHref());
+        assertTrue(segunda.getRequiredLink("ventas-del-usuario").isTemplated());
+    }
 }